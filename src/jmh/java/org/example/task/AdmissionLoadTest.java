@@ -0,0 +1,150 @@
+package org.example.task;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.TaskManagementApplication;
+import org.example.task.domain.TaskStatus;
+import org.example.task.services.TaskService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Boots the application with admission control off and then on, and overloads it at
+ * increasing client concurrency: a quarter of the clients list pages of a thousand tasks,
+ * the rest read single tasks. Reports, per kind of request, completed requests, rejections
+ * (503), p50/p99 latency of the completed ones and the limit admission control settled on. Without admission control the point
+ * reads queue behind the lists; with it the lists are shed and the reads stay fast.
+ * Rejected clients wait {@link #REJECTED_BACKOFF} before trying again.
+ * <p>
+ * Arguments: {@code [results.json] [concurrency...]}.
+ */
+public class AdmissionLoadTest {
+    private static final int TASKS = 200_000;
+    private static final Duration WARM_UP = Duration.ofSeconds(10);
+    private static final Duration MEASURE = Duration.ofSeconds(15);
+    private static final Duration REJECTED_BACKOFF = Duration.ofMillis(20);
+    private static final int LIST_PAGE_SIZE = 1_000;
+    // Enough distinct pages that most miss the page cache and are rendered again
+    private static final int LIST_PAGES = TASKS / 3 / LIST_PAGE_SIZE;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    record Result(String mode, int concurrency, String operation, long completed, long rejected, int errors,
+                  double p50Millis, double p99Millis, double completedPerSecond, int limit) {}
+
+    public static void main(String[] args) throws Exception {
+        Path output = Path.of(args.length > 0 ? args[0] : "build/reports/load/admission.json");
+        int[] levels = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{16, 64, 256};
+        List<Result> results = new ArrayList<>();
+        for (boolean admission : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext app = new SpringApplicationBuilder(TaskManagementApplication.class)
+                    .run("--server.port=0",
+                            "--task.admission.enabled=" + admission,
+                            "--task.audit.directory=" + Files.createTempDirectory("task-audit"),
+                            "--logging.level.root=WARN",
+                            "--logging.level.org.example=WARN",
+                            "--logging.file.name=")) {
+                TaskService service = app.getBean(TaskService.class);
+                List<String> ids = new ArrayList<>(TASKS);
+                for (int i = 0; i < TASKS; i++) {
+                    ids.add(service.create("task " + i, "load",
+                            STATUSES[i % STATUSES.length], LocalDate.now().plusDays(1 + i % 365)).getId());
+                }
+                int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+                String mode = admission ? "admission" : "none";
+                MeterRegistry meters = app.getBean(MeterRegistry.class);
+                run(port, ids, levels[0], WARM_UP, mode, meters);
+                for (int level : levels) results.addAll(run(port, ids, level, MEASURE, mode, meters));
+            }
+        }
+        System.out.printf("%-9s %11s %-6s %10s %9s %7s %9s %9s %9s %6s%n",
+                "mode", "concurrency", "kind", "completed", "rejected", "errors", "p50 ms", "p99 ms", "ok/s", "limit");
+        for (Result r : results) {
+            System.out.printf("%-9s %11d %-6s %10d %9d %7d %9.2f %9.2f %9.0f %6d%n", r.mode(), r.concurrency(), r.operation(),
+                    r.completed(), r.rejected(), r.errors(), r.p50Millis(), r.p99Millis(), r.completedPerSecond(), r.limit());
+        }
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static List<Result> run(int port, List<String> ids, int concurrency, Duration duration, String mode,
+                                    MeterRegistry meters) throws InterruptedException {
+        String base = "http://localhost:" + port + "/tasks";
+        long deadline = System.nanoTime() + duration.toNanos();
+        Map<String, List<long[]>> latencies = Map.of("read", Collections.synchronizedList(new ArrayList<>()),
+                "list", Collections.synchronizedList(new ArrayList<>()));
+        Map<String, AtomicInteger> rejected = Map.of("read", new AtomicInteger(), "list", new AtomicInteger());
+        Map<String, AtomicInteger> errors = Map.of("read", new AtomicInteger(), "list", new AtomicInteger());
+        long start = System.nanoTime();
+        try (HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(10)).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                String kind = c % 4 == 0 ? "list" : "read";
+                clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long[] mine = new long[1 << 12];
+                    int n = 0;
+                    while (System.nanoTime() < deadline) {
+                        URI uri = kind.equals("list")
+                                ? URI.create(base + "?status=" + STATUSES[random.nextInt(STATUSES.length)]
+                                        + "&page=" + random.nextInt(LIST_PAGES) + "&size=" + LIST_PAGE_SIZE)
+                                : URI.create(base + "/" + ids.get(random.nextInt(ids.size())));
+                        long t = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(HttpRequest.newBuilder(uri)
+                                    .timeout(Duration.ofSeconds(60)).GET().build(), HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 503) {
+                                rejected.get(kind).incrementAndGet();
+                                LockSupport.parkNanos(REJECTED_BACKOFF.toNanos());
+                                continue;
+                            }
+                            if (response.statusCode() != 200) errors.get(kind).incrementAndGet();
+                        } catch (IOException | InterruptedException e) {
+                            if (errors.get(kind).incrementAndGet() == 1) System.err.println("Request failed: " + e);
+                            continue;
+                        }
+                        if (n == mine.length) mine = Arrays.copyOf(mine, n * 2);
+                        mine[n++] = System.nanoTime() - t;
+                    }
+                    latencies.get(kind).add(Arrays.copyOf(mine, n));
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        List<Result> results = new ArrayList<>();
+        for (String kind : List.of("read", "list")) {
+            long[] all = latencies.get(kind).stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            Gauge limit = meters.find("tasks.admission.limit").tag("operation", kind.equals("list") ? "query" : "read").gauge();
+            results.add(new Result(mode, concurrency, kind, all.length, rejected.get(kind).get(), errors.get(kind).get(),
+                    percentile(all, 0.50), percentile(all, 0.99), all.length / seconds, limit == null ? 0 : (int) limit.value()));
+        }
+        return results;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.task;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.Filter;
+import org.example.TaskManagementApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boots the application once per thread mode, with WAL storage so every create blocks on
+ * a group-commit fsync, and drives POST /tasks at increasing client concurrency. Reports
+ * p50/p99 latency, throughput and the most requests the server was handling at once.
+ * <p>
+ * Arguments: {@code [results.json] [concurrency...]}.
+ */
+public class LoadTest {
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int PLATFORM_MAX_THREADS = 200;
+
+    record Result(String mode, int concurrency, int requests, int errors, double p50Millis, double p99Millis,
+                  double requestsPerSecond, int maxInFlight) {}
+
+    public static void main(String[] args) throws Exception {
+        Path output = Path.of(args.length > 0 ? args[0] : "build/reports/load/results.json");
+        int[] levels = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{50, 200, 800, 1600};
+        List<Result> results = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            Path data = Files.createTempDirectory("task-load");
+            try (ConfigurableApplicationContext app = new SpringApplicationBuilder(TaskManagementApplication.class, InFlight.class)
+                    .run("--server.port=0",
+                            "--spring.threads.virtual.enabled=" + virtual,
+                            "--server.tomcat.threads.max=" + PLATFORM_MAX_THREADS,
+                            "--task.storage.mode=WAL",
+                            "--task.storage.directory=" + data,
+                            "--task.storage.sync-policy=GROUP",
+                            "--task.storage.group-commit-window=5ms",
+                            "--logging.level.root=WARN",
+                            "--logging.level.org.example=WARN",
+                            "--logging.file.name=")) {
+                int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+                InFlight inFlight = app.getBean(InFlight.class);
+                run(port, levels[0], inFlight, virtual); // warm-up
+                for (int level : levels) results.add(run(port, level, inFlight, virtual));
+            }
+        }
+        System.out.printf("%-9s %11s %9s %7s %9s %9s %10s %13s%n",
+                "mode", "concurrency", "requests", "errors", "p50 ms", "p99 ms", "req/s", "max in-flight");
+        for (Result r : results) {
+            System.out.printf("%-9s %11d %9d %7d %9.2f %9.2f %10.0f %13d%n", r.mode(), r.concurrency(), r.requests(),
+                    r.errors(), r.p50Millis(), r.p99Millis(), r.requestsPerSecond(), r.maxInFlight());
+        }
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static Result run(int port, int concurrency, InFlight inFlight, boolean virtual) throws InterruptedException {
+        URI uri = URI.create("http://localhost:" + port + "/tasks");
+        String body = "{\"title\":\"load\",\"dueDate\":\"" + LocalDate.now().plusDays(7) + "\"}";
+        long[] latencies = new long[concurrency * REQUESTS_PER_CLIENT];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        inFlight.max.set(0);
+        long start = System.nanoTime();
+        try (HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(10)).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                clients.submit(() -> {
+                    HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        long t = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 201) errors.incrementAndGet();
+                        } catch (IOException | InterruptedException e) {
+                            if (errors.incrementAndGet() == 1) System.err.println("Request failed: " + e);
+                        }
+                        latencies[next.getAndIncrement()] = System.nanoTime() - t;
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Arrays.sort(latencies);
+        return new Result(virtual ? "virtual" : "platform", concurrency, latencies.length, errors.get(),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies.length / seconds, inFlight.max.intValue());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    /** Counts requests the server is inside of, which is what the thread model limits. */
+    @Configuration
+    static class InFlight {
+        final AtomicInteger current = new AtomicInteger();
+        final AtomicLong max = new AtomicLong();
+
+        @Bean
+        Filter inFlightFilter() {
+            return (request, response, chain) -> {
+                max.accumulateAndGet(current.incrementAndGet(), Math::max);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    current.decrementAndGet();
+                }
+            };
+        }
+    }
+}
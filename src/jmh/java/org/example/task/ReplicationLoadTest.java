@@ -0,0 +1,175 @@
+package org.example.task;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.TaskManagementApplication;
+import org.example.task.domain.TaskStatus;
+import org.example.task.services.ReplicationFollower;
+import org.example.task.services.ReplicationServer;
+import org.example.task.services.TaskChangeFeed;
+import org.example.task.services.TaskService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Boots a replication leader and then 1, 2, 4... followers on localhost (each a full
+ * application with its own port and store), loads the leader, and drives GET /tasks/{id}
+ * and GET /tasks pages spread evenly over the followers while a writer keeps updating
+ * tasks on the leader. Reports read throughput, p50/p99 latency and the highest follower
+ * lag seen per follower count. All instances share this JVM's cores, so the numbers only
+ * show what a follower costs; real scaling needs the followers on separate machines.
+ * <p>
+ * Arguments: {@code [results.json] [followers...]}.
+ */
+public class ReplicationLoadTest {
+    private static final int TASKS = 100_000;
+    private static final int CLIENTS = 64;
+    private static final int PAGE_SIZE = 20;
+    private static final int WRITES_PER_SECOND = 500;
+    private static final Duration WARM_UP = Duration.ofSeconds(15);
+    private static final Duration MEASURE = Duration.ofSeconds(15);
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    record Result(int followers, long reads, int errors, double p50Millis, double p99Millis, double readsPerSecond,
+                  long writes, long maxLagChanges) {}
+
+    public static void main(String[] args) throws Exception {
+        Path output = Path.of(args.length > 0 ? args[0] : "build/reports/load/replication.json");
+        int[] counts = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1, 2, 4};
+        List<Result> results = new ArrayList<>();
+        List<ConfigurableApplicationContext> followers = new ArrayList<>();
+        try (ConfigurableApplicationContext leader = start("--task.replication.role=LEADER", "--task.replication.port=0")) {
+            TaskService service = leader.getBean(TaskService.class);
+            TaskChangeFeed feed = leader.getBean(TaskChangeFeed.class);
+            int replicationPort = leader.getBean(ReplicationServer.class).port();
+            List<String> ids = new ArrayList<>(TASKS);
+            for (int i = 0; i < TASKS; i++) {
+                ids.add(service.create("task " + i, "load", STATUSES[i % STATUSES.length],
+                        LocalDate.now().plusDays(1 + i % 365)).getId());
+            }
+            for (int count : counts) {
+                while (followers.size() < count) {
+                    followers.add(start("--task.replication.role=FOLLOWER",
+                            "--task.replication.leader=localhost:" + replicationPort));
+                }
+                for (ConfigurableApplicationContext follower : followers) awaitCaughtUp(follower, feed);
+                List<Integer> ports = followers.stream().limit(count)
+                        .map(f -> ((WebServerApplicationContext) f).getWebServer().getPort()).toList();
+                run(ports, ids, service, followers.subList(0, count), WARM_UP);
+                results.add(run(ports, ids, service, followers.subList(0, count), MEASURE));
+            }
+        } finally {
+            for (ConfigurableApplicationContext follower : followers) follower.close();
+        }
+        System.out.printf("%9s %10s %7s %9s %9s %10s %8s %13s%n",
+                "followers", "reads", "errors", "p50 ms", "p99 ms", "reads/s", "writes", "max lag");
+        for (Result r : results) {
+            System.out.printf("%9d %10d %7d %9.2f %9.2f %10.0f %8d %13d%n", r.followers(), r.reads(), r.errors(),
+                    r.p50Millis(), r.p99Millis(), r.readsPerSecond(), r.writes(), r.maxLagChanges());
+        }
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static ConfigurableApplicationContext start(String... args) {
+        List<String> all = new ArrayList<>(List.of("--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.org.example=WARN",
+                "--logging.file.name="));
+        all.addAll(List.of(args));
+        return new SpringApplicationBuilder(TaskManagementApplication.class).run(all.toArray(String[]::new));
+    }
+
+    private static void awaitCaughtUp(ConfigurableApplicationContext follower, TaskChangeFeed feed) throws InterruptedException {
+        ReplicationFollower replication = follower.getBean(ReplicationFollower.class);
+        while (!replication.connected() || replication.position() < feed.latest()) Thread.sleep(50);
+    }
+
+    private static Result run(List<Integer> ports, List<String> ids, TaskService leader,
+                              List<ConfigurableApplicationContext> followers, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicLong writes = new AtomicLong();
+        AtomicLong maxLag = new AtomicLong();
+        Thread writer = Thread.ofPlatform().daemon().start(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long interval = 1_000_000_000L / WRITES_PER_SECOND;
+            for (long next = System.nanoTime(); writing.get(); next += interval) {
+                leader.update(ids.get(random.nextInt(ids.size())), null, null, STATUSES[random.nextInt(STATUSES.length)], null);
+                writes.incrementAndGet();
+                for (ConfigurableApplicationContext follower : followers) {
+                    maxLag.accumulateAndGet(follower.getBean(ReplicationFollower.class).lag(), Math::max);
+                }
+                long sleep = next + interval - System.nanoTime();
+                if (sleep > 0) LockSupport.parkNanos(sleep);
+            }
+        });
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        try (HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(10)).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                // Clients are spread evenly over the followers, as a load balancer would
+                String base = "http://localhost:" + ports.get(c % ports.size()) + "/tasks";
+                clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long[] mine = new long[1 << 16];
+                    int n = 0;
+                    while (System.nanoTime() < deadline) {
+                        URI uri = random.nextInt(5) == 0
+                                ? URI.create(base + "?status=" + STATUSES[random.nextInt(STATUSES.length)]
+                                        + "&page=" + random.nextInt(50) + "&size=" + PAGE_SIZE)
+                                : URI.create(base + "/" + ids.get(random.nextInt(ids.size())));
+                        long t = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(HttpRequest.newBuilder(uri).GET().build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) errors.incrementAndGet();
+                        } catch (IOException | InterruptedException e) {
+                            if (errors.incrementAndGet() == 1) System.err.println("Request failed: " + e);
+                        }
+                        if (n == mine.length) mine = Arrays.copyOf(mine, n * 2);
+                        mine[n++] = System.nanoTime() - t;
+                    }
+                    latencies.add(Arrays.copyOf(mine, n));
+                });
+            }
+        } finally {
+            writing.set(false);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        writer.join();
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(ports.size(), all.length, errors.get(), percentile(all, 0.50), percentile(all, 0.99),
+                all.length / seconds, writes.get(), maxLag.get());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
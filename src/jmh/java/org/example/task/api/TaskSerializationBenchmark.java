@@ -0,0 +1,83 @@
+package org.example.task.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.example.task.repository.Fixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of one task and of a rendered list page, against assembling them from the
+ * per-task JSON in {@link TaskJsonCache} and serving the page from {@link TaskPageCache}.
+ * Run with the gc profiler (the jmh task adds it) to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskSerializationBenchmark {
+    @Param({"50", "500"})
+    int pageSize;
+
+    ObjectWriter taskWriter;
+    ObjectWriter pageWriter;
+    TaskController.TaskResponse task;
+    List<TaskController.TaskResponse> page;
+    TaskPageCache cache;
+    TaskPageCache.Key key;
+    TaskJsonCache jsonCache;
+    List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Same date handling as the Spring Boot ObjectMapper the app uses
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        taskWriter = mapper.writerFor(TaskController.TaskResponse.class);
+        pageWriter = mapper.writerFor(new TypeReference<List<TaskController.TaskResponse>>() {});
+        tasks = Fixtures.tasks(pageSize, 42);
+        page = tasks.stream().map(TaskController.TaskResponse::from).toList();
+        task = page.get(0);
+        cache = new TaskPageCache();
+        key = new TaskPageCache.Key(TaskStatus.PENDING, 0, pageSize);
+        cache.put(key, 1, pageWriter.writeValueAsBytes(page));
+        jsonCache = new TaskJsonCache(mapper, 65_536);
+        jsonCache.json(tasks);
+    }
+
+    @Benchmark
+    public byte[] serializeTask() throws Exception {
+        return taskWriter.writeValueAsBytes(task);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    /** What a response now costs: the same bytes as {@link #serializeTask}, from the per-task cache. */
+    @Benchmark
+    public byte[] encodedTask() throws Exception {
+        return jsonCache.json(tasks.get(0));
+    }
+
+    /** Like {@link #serializePage}, but starting from the tasks and joining their cached JSON. */
+    @Benchmark
+    public byte[] encodedPage() throws Exception {
+        return jsonCache.json(tasks);
+    }
+
+    @Benchmark
+    public byte[] cachedPage() {
+        return cache.get(key, 1);
+    }
+}
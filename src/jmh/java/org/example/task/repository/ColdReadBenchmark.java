@@ -0,0 +1,61 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point reads of a tiered store, sampled so the p99 of a lookup that lands in a segment
+ * file can be set against one served from the heap. Reads of cold tasks are spread
+ * uniformly, so a cache much smaller than the cold tier mostly misses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColdReadBenchmark {
+    @Param({"1000000", "10000000"})
+    int taskCount;
+
+    @Param({"0", "10000", "1000000"})
+    int cacheSize;
+
+    TieredTaskRepository repository;
+    String[] hotIds;
+    String[] coldIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Task> tasks = Fixtures.tasks(taskCount, 42, 0.9);
+        repository = Fixtures.tiered(tasks, cacheSize);
+        List<String> hot = new ArrayList<>();
+        List<String> cold = new ArrayList<>();
+        for (Task task : tasks) (task.getStatus() == TaskStatus.DONE ? cold : hot).add(task.getId());
+        hotIds = hot.toArray(String[]::new);
+        coldIds = cold.toArray(String[]::new);
+    }
+
+    @Benchmark
+    public Optional<Task> findById_hot() {
+        return repository.findById(hotIds[ThreadLocalRandom.current().nextInt(hotIds.length)]);
+    }
+
+    @Benchmark
+    public Optional<Task> findById_cold() {
+        return repository.findById(coldIds[ThreadLocalRandom.current().nextInt(coldIds.length)]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to open a durable store: loading a compacted snapshot versus replaying the whole
+ * write-ahead log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DurableStartupBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    int taskCount;
+
+    @Param({"true", "false"})
+    boolean fromSnapshot;
+
+    Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("task-startup");
+        List<Task> tasks = Fixtures.tasks(taskCount, 42);
+        try (DurableTaskRepository repository = open()) {
+            for (int from = 0; from < tasks.size(); from += 10_000) {
+                repository.saveAll(tasks.subList(from, Math.min(from + 10_000, tasks.size())));
+            }
+            if (fromSnapshot) repository.snapshot();
+        }
+    }
+
+    @Benchmark
+    public long open_and_close() throws IOException {
+        try (DurableTaskRepository repository = open()) {
+            return repository.generation();
+        }
+    }
+
+    private DurableTaskRepository open() throws IOException {
+        return DurableTaskRepository.open(directory, SyncPolicy.PERIODIC, Duration.ZERO, Duration.ofSeconds(1), Duration.ZERO);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path f : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(f);
+        }
+    }
+}
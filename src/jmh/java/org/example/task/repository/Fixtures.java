@@ -0,0 +1,90 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/** Deterministic task data sets and pre-filled stores shared by the benchmarks. */
+public final class Fixtures {
+    public static final LocalDate START = LocalDate.of(2030, 1, 1);
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    public enum Store { MEMORY, COLUMNAR, PARTITIONED, TIERED }
+
+    private Fixtures() {}
+
+    /** {@code count} tasks with random UUID ids, due dates spread over 1000 days and uniform statuses. */
+    public static List<Task> tasks(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) tasks.add(task(random, i));
+        return tasks;
+    }
+
+    /** As {@link #tasks(int, long)}, but about {@code doneShare} of them DONE and the rest spread over the others. */
+    public static List<Task> tasks(int count, long seed, double doneShare) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Task task = task(random, i);
+            TaskStatus status = random.nextDouble() < doneShare ? TaskStatus.DONE : STATUSES[random.nextInt(STATUSES.length - 1)];
+            tasks.add(task.withStatus(status));
+        }
+        return tasks;
+    }
+
+    public static Task task(SplittableRandom random, int n) {
+        String id = new UUID(random.nextLong() & ~0xF000L | 0x4000L, random.nextLong() & ~(3L << 62) | (2L << 62)).toString();
+        return new Task(id, "Task " + n, n % 4 == 0 ? null : "Description of task " + n,
+                STATUSES[random.nextInt(STATUSES.length)], START.plusDays(random.nextInt(1000)));
+    }
+
+    public static TaskRepository filled(Store store, List<Task> tasks) {
+        return switch (store) {
+            case MEMORY -> {
+                InMemoryTaskRepository repository = new InMemoryTaskRepository();
+                repository.loadAll(tasks);
+                yield repository;
+            }
+            case COLUMNAR -> {
+                ColumnarTaskRepository repository = new ColumnarTaskRepository();
+                for (int from = 0; from < tasks.size(); from += 10_000) {
+                    repository.saveAll(tasks.subList(from, Math.min(from + 10_000, tasks.size())));
+                }
+                yield repository;
+            }
+            case PARTITIONED -> partitioned(tasks, Runtime.getRuntime().availableProcessors());
+            case TIERED -> tiered(tasks, 10_000);
+        };
+    }
+
+    /** A tiered store holding {@code tasks} with every DONE one already moved to a temporary directory. */
+    public static TieredTaskRepository tiered(List<Task> tasks, int cacheSize) {
+        try {
+            TieredTaskRepository repository = TieredTaskRepository.open(Files.createTempDirectory("task-cold"),
+                    Duration.ZERO, cacheSize, Duration.ZERO);
+            for (int from = 0; from < tasks.size(); from += 10_000) {
+                repository.saveAll(tasks.subList(from, Math.min(from + 10_000, tasks.size())));
+            }
+            repository.evict();
+            return repository;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static PartitionedTaskRepository partitioned(List<Task> tasks, int partitions) {
+        PartitionedTaskRepository repository = new PartitionedTaskRepository(partitions);
+        repository.loadAll(tasks);
+        return repository;
+    }
+}
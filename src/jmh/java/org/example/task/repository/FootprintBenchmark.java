@@ -0,0 +1,60 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retained heap per task once a store is filled, reported as the {@code bytesPerTask}
+ * counter next to the time the fill took. Each fork measures a single fill so earlier
+ * stores cannot skew the heap reading. TIERED keeps only the tasks that are not DONE on the
+ * heap, so its figure depends on {@code doneShare}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(3)
+public class FootprintBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    int taskCount;
+
+    @Param({"MEMORY", "COLUMNAR", "TIERED"})
+    Fixtures.Store store;
+
+    @Param({"0.33", "0.9"})
+    double doneShare;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public double bytesPerTask;
+        TaskRepository retained;
+
+        @TearDown(Level.Iteration)
+        public void close() throws IOException {
+            if (retained instanceof Closeable closeable) closeable.close();
+        }
+    }
+
+    @Benchmark
+    public void fill(Footprint footprint) {
+        long before = usedHeap();
+        List<Task> tasks = Fixtures.tasks(taskCount, 42, doneShare);
+        // MEMORY keeps the Task objects themselves; COLUMNAR only copies their fields; TIERED writes DONE ones to disk
+        footprint.retained = Fixtures.filled(store, tasks);
+        tasks = null;
+        footprint.bytesPerTask = (double) (usedHeap() - before) / taskCount;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
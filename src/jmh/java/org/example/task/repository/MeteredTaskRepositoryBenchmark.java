@@ -0,0 +1,55 @@
+package org.example.task.repository;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Cost of the metrics decorator: the same calls with and without {@link MeteredTaskRepository}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MeteredTaskRepositoryBenchmark {
+    @Param({"false", "true"})
+    boolean metered;
+
+    TaskRepository repository;
+    List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = Fixtures.tasks(100_000, 42);
+        repository = Fixtures.filled(Fixtures.Store.MEMORY, tasks);
+        if (metered) repository = new MeteredTaskRepository(repository, new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+    }
+
+    private Task anyTask() {
+        return tasks.get(ThreadLocalRandom.current().nextInt(tasks.size()));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object findById() {
+        return repository.findById(anyTask().getId());
+    }
+
+    @Benchmark
+    public Object findByStatusPage() {
+        return repository.findByStatus(TaskStatus.PENDING, PageRequest.of(0, 50, Sort.by("dueDate")));
+    }
+
+    @Benchmark
+    public void save() {
+        repository.save(anyTask());
+    }
+}
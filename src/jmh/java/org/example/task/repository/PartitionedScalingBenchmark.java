@@ -0,0 +1,70 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixed read/write throughput of the single-lock store against the partitioned one (by
+ * default one shard per available processor). Every thread runs the same mix: {@code writePercent} of
+ * operations move a random task to another due date, the rest read a page of one status:
+ * one of the first ten, or with {@code deepPages} any page at all, which the partitioned
+ * store has to locate across shards. Scale the thread count with {@code -t}, e.g. one run each for 1, 2, 4, 8, 16 and 32;
+ * the speedup only shows with that many cores to run them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionedScalingBenchmark {
+    private static final int PAGE_SIZE = 50;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    @Param({"1000000"})
+    int taskCount;
+
+    @Param({"MEMORY", "PARTITIONED"})
+    Fixtures.Store store;
+
+    @Param({"10", "50"})
+    int writePercent;
+
+    @Param({"false", "true"})
+    boolean deepPages;
+
+    /** Shards of the PARTITIONED store; 0 means one per available processor. */
+    @Param({"0"})
+    int partitions;
+
+    TaskRepository repository;
+    List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = Fixtures.tasks(taskCount, 42);
+        repository = store == Fixtures.Store.PARTITIONED && partitions > 0
+                ? Fixtures.partitioned(tasks, partitions)
+                : Fixtures.filled(store, tasks);
+    }
+
+    @Benchmark
+    public Object mixed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < writePercent) {
+            Task task = tasks.get(random.nextInt(tasks.size()));
+            repository.save(task.withDueDate(Fixtures.START.plusDays(random.nextInt(1000))));
+            return task;
+        }
+        int pages = deepPages ? Math.max(1, taskCount / STATUSES.length / PAGE_SIZE) : 10;
+        return repository.findByStatus(STATUSES[random.nextInt(STATUSES.length)],
+                PageRequest.of(random.nextInt(pages), PAGE_SIZE, Sort.by("dueDate")));
+    }
+}
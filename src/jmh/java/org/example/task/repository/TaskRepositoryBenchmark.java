@@ -0,0 +1,125 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read and write paths of the in-memory stores. The {@code mixed} group runs readers and a
+ * writer against one store at the same time; change the split with {@code -tg readers,writers}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskRepositoryBenchmark {
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"10000", "1000000", "10000000"})
+    int taskCount;
+
+    @Param({"MEMORY", "COLUMNAR"})
+    Fixtures.Store store;
+
+    TaskRepository repository;
+    List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = Fixtures.tasks(taskCount, 42);
+        repository = Fixtures.filled(store, tasks);
+    }
+
+    private Task anyTask() {
+        return tasks.get(ThreadLocalRandom.current().nextInt(tasks.size()));
+    }
+
+    private static int anyPage(int rows) {
+        return ThreadLocalRandom.current().nextInt(Math.max(1, rows / PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Object findAllPageByDueDate() {
+        return repository.findAll(PageRequest.of(anyPage(taskCount), PAGE_SIZE, Sort.by("dueDate")));
+    }
+
+    @Benchmark
+    public Object findAllPageByTitle() {
+        return repository.findAll(PageRequest.of(anyPage(taskCount), PAGE_SIZE, Sort.by("title")));
+    }
+
+    @Benchmark
+    public Object statistics() {
+        LocalDate today = Fixtures.START.plusDays(ThreadLocalRandom.current().nextInt(1000));
+        return repository.statistics(today, today.plusDays(7));
+    }
+
+    @Benchmark
+    public Object findByStatusPage() {
+        return repository.findByStatus(TaskStatus.PENDING,
+                PageRequest.of(anyPage(taskCount / TaskStatus.values().length), PAGE_SIZE, Sort.by("dueDate")));
+    }
+
+    @Benchmark
+    public Object scrollFromAnyTask() {
+        Task from = anyTask();
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("dueDate", from.getDueDate());
+        keys.put("id", from.getId());
+        return repository.findByStatusAfter(null, ScrollPosition.forward(keys), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Object findById() {
+        return repository.findById(anyTask().getId());
+    }
+
+    @Benchmark
+    public void saveExisting() {
+        Task task = anyTask();
+        repository.save(task.withDueDate(Fixtures.START.plusDays(ThreadLocalRandom.current().nextInt(1000))));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Object mixedRead() {
+        return findByStatusPage();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedWrite(Blackhole blackhole) {
+        Task current = repository.findById(anyTask().getId()).orElseThrow();
+        blackhole.consume(repository.replace(current, current.withTitle("Task " + ThreadLocalRandom.current().nextInt())
+                .withVersion(current.getVersion() + 1)));
+    }
+
+    /** Insert then delete a task that is not part of the data set, so the size stays constant. */
+    @Benchmark
+    public void insertAndDelete(InsertState state) {
+        Task task = Fixtures.task(state.random, -1);
+        repository.save(task);
+        repository.deleteById(task.getId());
+    }
+
+    @State(Scope.Thread)
+    public static class InsertState {
+        final SplittableRandom random = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+    }
+}
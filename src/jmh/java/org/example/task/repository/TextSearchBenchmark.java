@@ -0,0 +1,56 @@
+package org.example.task.repository;
+
+import org.example.task.domain.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-text search over the {@link Fixtures} data, where every task has the word "task",
+ * three in four have "description", and the task number is a word of its own. Covers a
+ * selective query, a query matching everything and one intersecting two large lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextSearchBenchmark {
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"10000", "1000000", "10000000"})
+    int taskCount;
+
+    @Param({"MEMORY", "COLUMNAR"})
+    Fixtures.Store store;
+
+    TaskRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = Fixtures.filled(store, Fixtures.tasks(taskCount, 42));
+    }
+
+    @Benchmark
+    public Object selectiveWord() {
+        return repository.search("task " + ThreadLocalRandom.current().nextInt(taskCount), null, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Object everyTaskFirstPage() {
+        return repository.search("task", null, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Object everyTaskByStatusDeepPage() {
+        return repository.search("task", TaskStatus.DONE, PageRequest.of(1_000, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Object twoCommonWords() {
+        return repository.search("description task", TaskStatus.PENDING, PageRequest.of(0, PAGE_SIZE));
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable write throughput per sync policy, one task per write versus batches of
+ * {@value #BATCH} through {@code saveAll}; both are reported in tasks per second.
+ * Raise the writer count with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class WriteAheadLogBenchmark {
+    static final int BATCH = 1_000;
+
+    @Param({"PER_WRITE", "GROUP", "PERIODIC"})
+    SyncPolicy syncPolicy;
+
+    Path directory;
+    DurableTaskRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("task-wal");
+        repository = DurableTaskRepository.open(directory, syncPolicy, Duration.ofMillis(2), Duration.ofSeconds(1),
+                Duration.ZERO);
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+        final SplittableRandom random = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+        int n;
+    }
+
+    @Benchmark
+    public void save(Writer writer) {
+        repository.save(Fixtures.task(writer.random, writer.n++));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void saveAll(Writer writer) {
+        List<Task> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) batch.add(Fixtures.task(writer.random, writer.n++));
+        repository.saveAll(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path f : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(f);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.task.services;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Id generation throughput at rising thread counts: random UUIDv4 against the striped UUIDv7 generator. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskIdGeneratorBenchmark {
+    @Param({"RANDOM", "TIME_ORDERED"})
+    TaskIdGenerator.Kind kind;
+
+    TaskIdGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = TaskIdGenerator.of(kind);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String threads_01() {
+        return generator.newId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String threads_04() {
+        return generator.newId();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String threads_16() {
+        return generator.newId();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String threads_64() {
+        return generator.newId();
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.task.services;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.example.task.repository.Fixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Service-level create, update and list over a pre-filled store, alone and mixed. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    int taskCount;
+
+    @Param({"MEMORY", "COLUMNAR"})
+    Fixtures.Store store;
+
+    TaskService service;
+    List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = Fixtures.tasks(taskCount, 42);
+        service = new TaskService(Fixtures.filled(store, tasks));
+    }
+
+    private String anyId() {
+        return tasks.get(ThreadLocalRandom.current().nextInt(tasks.size())).getId();
+    }
+
+    @Benchmark
+    public Object getTasksFirstPage() {
+        return service.getTasks(TaskStatus.PENDING, 0, 50);
+    }
+
+    @Benchmark
+    public Object getTasksAnyPage() {
+        int pages = Math.max(1, taskCount / TaskStatus.values().length / 50);
+        return service.getTasks(TaskStatus.PENDING, ThreadLocalRandom.current().nextInt(pages), 50);
+    }
+
+    @Benchmark
+    public Object create() {
+        Task task = service.create("New task", "Created by the benchmark", TaskStatus.PENDING, LocalDate.now().plusDays(7));
+        service.delete(task.getId());
+        return task;
+    }
+
+    @Benchmark
+    public Object update() {
+        return service.update(anyId(), null, "Updated " + ThreadLocalRandom.current().nextInt(), null, null);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Object mixedList() {
+        return getTasksFirstPage();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Object mixedUpdate() {
+        return update();
+    }
+}
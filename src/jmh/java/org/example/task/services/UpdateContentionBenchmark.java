@@ -0,0 +1,44 @@
+package org.example.task.services;
+
+import org.example.task.domain.Task;
+import org.example.task.repository.Fixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optimistic updates under contention: every thread updates one of {@code hotTasks}
+ * tasks, so a small hot set forces compare-and-set retries. Change the writer count
+ * with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class UpdateContentionBenchmark {
+    @Param({"1", "16", "1024"})
+    int hotTasks;
+
+    @Param({"MEMORY", "COLUMNAR"})
+    Fixtures.Store store;
+
+    TaskService service;
+    List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = Fixtures.tasks(hotTasks, 42);
+        service = new TaskService(Fixtures.filled(store, tasks));
+    }
+
+    @Benchmark
+    public Object update() {
+        String id = tasks.get(ThreadLocalRandom.current().nextInt(hotTasks)).getId();
+        return service.update(id, null, "Updated", null, null);
+    }
+}
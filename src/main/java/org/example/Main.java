@@ -1,7 +1,68 @@
 package org.example;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.task.repository.DurableTaskRepository;
+import org.example.task.repository.SyncPolicy;
+import org.example.task.services.TaskImporter;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline tools that work on a WAL storage directory while the server is stopped.
+ * <pre>
+ * import &lt;file&gt; [--format ndjson|csv] [--dir data] [--threads N]
+ * </pre>
+ */
 public class Main {
-    public static void main(String[] args) {
-        System.out.println("Hello, World!");
+    private static final long PROGRESS_EVERY_LINES = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || !args[0].equals("import")) {
+            System.err.println("usage: import <file> [--format ndjson|csv] [--dir data] [--threads N]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[1]);
+        TaskImporter.Format format = file.toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? TaskImporter.Format.CSV : TaskImporter.Format.NDJSON;
+        Path dir = Path.of("data");
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--format" -> format = TaskImporter.Format.valueOf(args[i + 1].toUpperCase(Locale.ROOT));
+                case "--dir" -> dir = Path.of(args[i + 1]);
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        long started = System.nanoTime();
+        AtomicLong nextReport = new AtomicLong(PROGRESS_EVERY_LINES);
+        // The log only needs to survive to the snapshot taken at the end, so skip per-write fsyncs
+        try (DurableTaskRepository repository = DurableTaskRepository.open(dir, SyncPolicy.PERIODIC, Duration.ZERO,
+                Duration.ofSeconds(1), Duration.ZERO);
+             InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 20)) {
+            TaskImporter importer = new TaskImporter(repository, mapper, threads);
+            TaskImporter.Report report = importer.importTasks(in, format, progress -> {
+                long next = nextReport.get();
+                if (progress.linesProcessed() >= next && nextReport.compareAndSet(next, next + PROGRESS_EVERY_LINES)) {
+                    System.err.printf("%,d lines, %,d imported, %,d failed%n",
+                            progress.linesProcessed(), progress.imported(), progress.failed());
+                }
+            });
+            repository.snapshot();
+            System.err.printf("done in %.1fs: %,d lines, %,d imported, %,d failed%n",
+                    (System.nanoTime() - started) / 1e9, report.linesProcessed(), report.imported(), report.failed());
+            for (TaskImporter.LineError error : report.errors()) {
+                System.err.println("line " + error.line() + ": " + error.error());
+            }
+        }
     }
-}
\ No newline at end of file
+}
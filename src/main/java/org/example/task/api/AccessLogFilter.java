@@ -0,0 +1,52 @@
+package org.example.task.api;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.task.services.AuditLog;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Gives every request a correlation id, taken from {@code X-Correlation-Id} when the client
+ * sent a sensible one, echoed back in the response and kept in the MDC while the request
+ * runs, so audit events and error logs carry it. Records the request in the access log
+ * once it completes.
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-Correlation-Id";
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final AuditLog auditLog;
+
+    public AccessLogFilter(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String correlationId = request.getHeader(HEADER);
+        if (correlationId == null || !VALID_ID.matcher(correlationId).matches()) {
+            // Only needs to be unique, not unguessable; skips SecureRandom on every request
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            correlationId = new UUID(random.nextLong(), random.nextLong()).toString();
+        }
+        response.setHeader(HEADER, correlationId);
+        MDC.put(AuditLog.CORRELATION_ID, correlationId);
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(AuditLog.CORRELATION_ID);
+            auditLog.access(correlationId, request.getMethod(), request.getRequestURI(), response.getStatus(),
+                    System.nanoTime() - start);
+        }
+    }
+}
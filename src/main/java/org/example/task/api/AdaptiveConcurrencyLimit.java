@@ -0,0 +1,126 @@
+package org.example.task.api;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * How many requests of one kind may run at once, adjusted from their latency. Once a
+ * window of at least {@code window} completed requests spanning at least
+ * {@code minWindowNanos} is in, its average latency is compared with a slow moving
+ * average of earlier windows: while they agree (within
+ * {@code tolerance}) the limit grows by about its square root, and once requests start
+ * queueing somewhere and the recent latency climbs, the limit shrinks in proportion right
+ * away, at most by half per window. This follows the gradient algorithm of Netflix's
+ * concurrency-limits library.
+ * <p>
+ * Admission is a CAS on the in-flight count. Samples are folded in under a lock that is
+ * only ever tried: a release that finds it busy drops its sample rather than wait, which
+ * leaves the window a little smaller but never puts a queue behind the limiter itself.
+ */
+public class AdaptiveConcurrencyLimit {
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    // Weight of a new window in the long-term latency; about the last 100 windows count
+    private static final double LONG_TERM_WEIGHT = 0.01;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int window;
+    private final long minWindowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final ReentrantLock sampling = new ReentrantLock();
+    private volatile int limit;
+    private double estimate;
+    private double longTermNanos;
+    private long windowStart = System.nanoTime();
+    private long windowNanos;
+    private int windowCount;
+    private int windowMaxInFlight;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, int window, long minWindowNanos) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.window = window;
+        this.minWindowNanos = minWindowNanos;
+        this.limit = initialLimit;
+        this.estimate = initialLimit;
+    }
+
+    /** Takes a slot if fewer than {@link #limit()} requests are running; otherwise counts a rejection. */
+    public boolean tryAcquire() {
+        for (;;) {
+            int running = inFlight.get();
+            if (running >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(running, running + 1)) return true;
+        }
+    }
+
+    /** Frees a slot taken by a request that completed in {@code latencyNanos}. */
+    public void release(long latencyNanos) {
+        int running = inFlight.getAndDecrement();
+        sample(latencyNanos, running);
+    }
+
+    /** Frees a slot without a sample, for a request whose latency says nothing about load (a started stream). */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private void sample(long latencyNanos, int running) {
+        if (!sampling.tryLock()) return;
+        try {
+            update(latencyNanos, running);
+        } finally {
+            sampling.unlock();
+        }
+    }
+
+    private void update(long latencyNanos, int running) {
+        windowNanos += latencyNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, running);
+        if (++windowCount < window) return;
+        long now = System.nanoTime();
+        if (now - windowStart < minWindowNanos) return;
+        windowStart = now;
+        double shortTerm = (double) windowNanos / windowCount;
+        int busiest = windowMaxInFlight;
+        windowNanos = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+        if (longTermNanos == 0) {
+            longTermNanos = shortTerm;
+            return;
+        }
+        longTermNanos += (shortTerm - longTermNanos) * LONG_TERM_WEIGHT;
+        // After a long overload the average holds on to the slow past; let it recover quickly
+        if (longTermNanos > shortTerm * 2) longTermNanos *= 0.95;
+        // Requests that never came close to the limit say nothing about whether it could be higher
+        if (busiest < estimate / 2) return;
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longTermNanos / shortTerm));
+        double target = estimate * gradient + Math.sqrt(estimate);
+        // Back off at once, grow gradually
+        if (target > estimate) target = estimate * (1 - SMOOTHING) + target * SMOOTHING;
+        estimate = Math.max(minLimit, Math.min(maxLimit, target));
+        limit = (int) estimate;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+}
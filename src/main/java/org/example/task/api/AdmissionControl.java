@@ -0,0 +1,109 @@
+package org.example.task.api;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.task.domain.OverloadedException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many task requests run at once, with a separate adaptive limit per kind of
+ * request, so a burst of expensive queries cannot make point reads wait behind it. A
+ * request over its kind's limit is rejected at once with {@link OverloadedException}
+ * (through the exception handlers, so it gets the usual error body) instead of queueing
+ * in the server.
+ * <p>
+ * Runs as a handler interceptor rather than a servlet filter so the rejection goes through
+ * the exception handlers, and knows the matched endpoint. A request that goes async (an
+ * export or a change stream) gives its slot back when the stream starts, and an import,
+ * whose latency follows the size of the upload, gives it back without a latency sample.
+ */
+public class AdmissionControl implements AsyncHandlerInterceptor, MeterBinder {
+    public enum Operation { READ, QUERY, WRITE }
+
+    private static final String ADMITTED = AdmissionControl.class.getName() + ".admitted";
+    private static final String ITEM_PATTERN = "/tasks/{id}";
+    private static final String IMPORT_PATTERN = "/tasks/import";
+
+    private final Map<Operation, AdaptiveConcurrencyLimit> limits = new EnumMap<>(Operation.class);
+    private final Duration retryAfter;
+
+    public AdmissionControl(Supplier<AdaptiveConcurrencyLimit> limitFactory, Duration retryAfter) {
+        for (Operation operation : Operation.values()) limits.put(operation, limitFactory.get());
+        this.retryAfter = retryAfter;
+    }
+
+    /** Point reads of one task, other reads (lists, search, stats, streams), and writes. */
+    static Operation classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!method.equals("GET") && !method.equals("HEAD")) return Operation.WRITE;
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return ITEM_PATTERN.equals(pattern) ? Operation.READ : Operation.QUERY;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async and error dispatches belong to a request that was already admitted
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod)) return true;
+        Operation operation = classify(request);
+        AdaptiveConcurrencyLimit limit = limits.get(operation);
+        if (!limit.tryAcquire()) {
+            throw new OverloadedException("Too many " + operation.name().toLowerCase(Locale.ROOT)
+                    + " requests in progress; retry later", retryAfter);
+        }
+        boolean sampled = !IMPORT_PATTERN.equals(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        request.setAttribute(ADMITTED, new Admitted(limit, System.nanoTime(), sampled));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(ADMITTED) instanceof Admitted admitted) {
+            request.removeAttribute(ADMITTED);
+            admitted.limit().release();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED) instanceof Admitted admitted) {
+            request.removeAttribute(ADMITTED);
+            if (admitted.sampled()) {
+                admitted.limit().release(System.nanoTime() - admitted.start());
+            } else {
+                admitted.limit().release();
+            }
+        }
+    }
+
+    AdaptiveConcurrencyLimit limit(Operation operation) {
+        return limits.get(operation);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        limits.forEach((operation, limit) -> {
+            String tag = operation.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("tasks.admission.limit", limit, AdaptiveConcurrencyLimit::limit).tag("operation", tag)
+                    .description("Requests of this kind allowed to run at once").register(registry);
+            Gauge.builder("tasks.admission.in.flight", limit, AdaptiveConcurrencyLimit::inFlight).tag("operation", tag)
+                    .description("Requests of this kind running").register(registry);
+            FunctionCounter.builder("tasks.admission.rejected", limit, AdaptiveConcurrencyLimit::rejectedCount)
+                    .tag("operation", tag).description("Requests turned away over the limit").register(registry);
+        });
+    }
+
+    private record Admitted(AdaptiveConcurrencyLimit limit, long start, boolean sampled) {}
+}
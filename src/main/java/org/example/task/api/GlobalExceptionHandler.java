@@ -1,6 +1,16 @@
 package org.example.task.api;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.task.domain.ConflictException;
 import org.example.task.domain.NotFoundException;
+import org.example.task.domain.OverloadedException;
+import org.example.task.domain.PreconditionFailedException;
+import org.example.task.domain.ReadOnlyReplicaException;
+import org.example.task.services.AuditLog;
+import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -13,23 +23,63 @@ import jakarta.validation.ConstraintViolationException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+@Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    private final MeterRegistry meterRegistry;
+    // One counter per exception type, looked up without allocating once it exists
+    private final Map<Class<?>, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<Map<String, Object>> handleNotFound(NotFoundException ex) {
+        countError(ex);
         return error(HttpStatus.NOT_FOUND, ex.getMessage(), null);
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleConflict(ConflictException ex) {
+        countError(ex);
+        return error(HttpStatus.CONFLICT, ex.getMessage(), null);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Map<String, Object>> handlePreconditionFailed(PreconditionFailedException ex) {
+        countError(ex);
+        return error(HttpStatus.PRECONDITION_FAILED, ex.getMessage(), null);
+    }
+
+    @ExceptionHandler(ReadOnlyReplicaException.class)
+    public ResponseEntity<Map<String, Object>> handleReadOnlyReplica(ReadOnlyReplicaException ex) {
+        countError(ex);
+        return error(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), null);
+    }
+
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<Map<String, Object>> handleOverloaded(OverloadedException ex) {
+        countError(ex);
+        // Retry-After counts whole seconds; round up so clients never come back early
+        long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body(error(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), null).getBody());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex) {
+        countError(ex);
         return error(HttpStatus.BAD_REQUEST, ex.getMessage(), null);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
+        countError(ex);
         Map<String, Object> body = new HashMap<>();
         body.put("error", "validation_failed");
         body.put("details", ex.getBindingResult().getFieldErrors().stream()
@@ -40,6 +90,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<Map<String, Object>> handleConstraintViolation(ConstraintViolationException ex) {
+        countError(ex);
         Map<String, Object> body = new HashMap<>();
         body.put("error", "constraint_violation");
         body.put("details", ex.getConstraintViolations().stream()
@@ -50,17 +101,27 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<Map<String, Object>> handleNotReadable(HttpMessageNotReadableException ex) {
+        countError(ex);
         return error(HttpStatus.BAD_REQUEST, "Malformed JSON request", null);
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGeneric(Exception ex) {
-        String correlationId = UUID.randomUUID().toString();
-        // In real apps, use a logger; here, rely on console logging
-        System.err.println("[" + correlationId + "] Unexpected error: " + ex.getMessage());
+        countError(ex);
+        // The request's own id when it came through the access log, so the two can be matched
+        String correlationId = MDC.get(AuditLog.CORRELATION_ID);
+        if (correlationId == null) correlationId = UUID.randomUUID().toString();
+        log.error("[{}] Unexpected error", correlationId, ex);
         return error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error", correlationId);
     }
 
+    private void countError(Exception ex) {
+        errorCounters.computeIfAbsent(ex.getClass(), type -> Counter.builder("tasks.errors")
+                .tag("exception", type.getSimpleName())
+                .description("Exceptions turned into error responses")
+                .register(meterRegistry)).increment();
+    }
+
     private ResponseEntity<Map<String, Object>> error(HttpStatus status, String message, String correlationId) {
         Map<String, Object> body = new HashMap<>();
         body.put("error", message);
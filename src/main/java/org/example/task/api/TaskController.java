@@ -1,48 +1,313 @@
 package org.example.task.api;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.task.domain.ConflictException;
+import org.example.task.domain.NotFoundException;
+import org.example.task.domain.PreconditionFailedException;
+import org.example.task.services.TaskChangeFeed;
+import org.example.task.services.TaskImporter;
 import org.example.task.services.TaskService;
 import org.example.task.domain.Task;
 import org.example.task.domain.TaskStatus;
+import org.example.task.repository.TaskStatistics;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
 
 @RestController
 @RequestMapping("/tasks")
 @Validated
 public class TaskController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_BATCH_SIZE = 10_000;
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+    static final int FEED_BATCH = 256;
+    private static final byte[] EVENT_END = "\n\n".getBytes(StandardCharsets.UTF_8);
+    static final Duration FEED_HEARTBEAT = Duration.ofSeconds(15);
+    /** Generations are local to a process and restart at zero, so list tags also carry a random epoch per process. */
+    private static final String LIST_EPOCH = Long.toString(ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE), 36);
+
     private final TaskService taskService;
+    private final TaskImporter taskImporter;
+    private final TaskPageCache pageCache;
+    private final TaskJsonCache jsonCache;
+    private final TaskChangeFeed changeFeed;
+    private final ObjectWriter exportWriter;
+    private final ObjectWriter changeWriter;
+    private final ObjectWriter importWriter;
 
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskImporter taskImporter, TaskPageCache pageCache,
+                          TaskJsonCache jsonCache, TaskChangeFeed changeFeed, ObjectMapper objectMapper) {
         this.taskService = taskService;
+        this.taskImporter = taskImporter;
+        this.pageCache = pageCache;
+        this.jsonCache = jsonCache;
+        this.changeFeed = changeFeed;
+        this.exportWriter = objectMapper.writerFor(TaskResponse.class);
+        this.changeWriter = objectMapper.writerFor(ChangeResponse.class);
+        this.importWriter = objectMapper.writer();
     }
 
     @PostMapping
-    public ResponseEntity<?> create(@Valid @RequestBody CreateTaskRequest req) {
+    public ResponseEntity<?> create(@Valid @RequestBody CreateTaskRequest req) throws IOException {
         Task task = taskService.create(req.title, req.description, req.status, req.dueDate);
-        return ResponseEntity.status(HttpStatus.CREATED).body(TaskResponse.from(task));
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(eTag(task)).contentType(MediaType.APPLICATION_JSON)
+                .body(jsonCache.json(task));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse> batch(@Valid @RequestBody BatchRequest req) {
+        List<TaskService.BatchOperation> operations = req.operations.stream()
+                .map(op -> new TaskService.BatchOperation(op.op, op.id, op.title, op.description, op.status, op.dueDate))
+                .toList();
+        List<TaskService.BatchResult> results = taskService.applyBatch(operations);
+        List<BatchItemResult> items = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            items.add(BatchItemResult.from(req.operations.get(i).op, results.get(i)));
+        }
+        return ResponseEntity.ok(new BatchResponse(items));
+    }
+
+    /**
+     * Streams every matching task as one JSON object per line, written while the
+     * repository is walked. Blocking writes to the response stream hold the walk back
+     * until a slow client catches up.
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo
+    ) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = exportWriter.createGenerator(out)) {
+                gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                gen.setRootValueSeparator(null);
+                taskService.forEachTask(status, dueFrom, dueTo, task -> {
+                    try {
+                        exportWriter.writeValue(gen, TaskResponse.from(task));
+                        gen.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Server-sent events for every change after sequence {@code from}, or after the
+     * {@code Last-Event-ID} a reconnecting EventSource sends; with neither, from the next
+     * change on. Event ids are {@code <epoch>-<sequence>}, so an id from before a restart
+     * is recognised. {@code follow=false} ends the stream once the backlog is sent. A client
+     * that asks for changes no longer held, resumes from another epoch, or falls that far
+     * behind while reading, gets one {@code resync} event and the stream ends: reload the
+     * tasks, then resume from the {@code latest} sequence it carries. Writers never wait for a stream.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> changes(
+            @RequestParam(required = false) @Min(0) Long from,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(defaultValue = "true") boolean follow
+    ) {
+        long start = from != null ? from : lastEventId != null ? sequenceOf(lastEventId) : changeFeed.latest();
+        StreamingResponseBody body = out -> {
+            long position = start;
+            for (;;) {
+                // A position past the latest change was handed out before a restart renumbered the feed
+                TaskChangeFeed.Read read = position < 0 || position > changeFeed.latest()
+                        ? null : changeFeed.read(position, FEED_BATCH);
+                if (read == null || read.behind()) {
+                    writeEvent(out, null, "resync", changeWriter.writeValueAsBytes(
+                            new ChangeResponse(changeFeed.latest(), null, null)));
+                    out.flush();
+                    return;
+                }
+                for (TaskChangeFeed.Change change : read.changes()) {
+                    writeEvent(out, changeFeed.epoch() + "-" + change.sequence(), change.type().name().toLowerCase(Locale.ROOT),
+                            changeWriter.writeValueAsBytes(ChangeResponse.from(change)));
+                    position = change.sequence();
+                }
+                if (!read.changes().isEmpty()) {
+                    out.flush();
+                } else if (!follow) {
+                    return;
+                } else if (!changeFeed.await(position, FEED_HEARTBEAT)) {
+                    // Keeps proxies from timing out an idle stream and notices clients that left
+                    out.write(": keepalive\n\n".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).cacheControl(CacheControl.noCache()).body(body);
+    }
+
+    /** Sequence named by an event id of this feed's epoch; -1 for any other id, which gets a resync. */
+    private long sequenceOf(String eventId) {
+        int dash = eventId.indexOf('-');
+        try {
+            if (dash > 0 && Long.parseLong(eventId.substring(0, dash).trim()) == changeFeed.epoch()) {
+                long sequence = Long.parseLong(eventId.substring(dash + 1).trim());
+                if (sequence >= 0) return sequence;
+            }
+        } catch (NumberFormatException e) {
+            // Not an id this controller wrote
+        }
+        return -1;
+    }
+
+    private static void writeEvent(OutputStream out, String id, String event, byte[] data) throws IOException {
+        StringBuilder head = new StringBuilder();
+        if (id != null) head.append("id: ").append(id).append('\n');
+        head.append("event: ").append(event).append("\ndata: ");
+        out.write(head.toString().getBytes(StandardCharsets.UTF_8));
+        out.write(data);
+        out.write(EVENT_END);
+    }
+
+    /** Loads NDJSON or CSV (with a header row) as it is uploaded; invalid lines are reported, not fatal. */
+    @PostMapping(value = "/import", consumes = {NDJSON, CSV})
+    public ResponseEntity<TaskImporter.Report> importTasks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                           InputStream body) throws IOException {
+        return ResponseEntity.ok(taskImporter.importTasks(body, importFormat(contentType), progress -> {}));
+    }
+
+    /**
+     * The same import with {@code progress=true}: answered as NDJSON, with a progress line
+     * streamed after every chunk while the upload is loaded and the report as the last line.
+     */
+    @PostMapping(value = "/import", consumes = {NDJSON, CSV}, params = "progress=true")
+    public ResponseEntity<StreamingResponseBody> importTasksWithProgress(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) {
+        TaskImporter.Format format = importFormat(contentType);
+        StreamingResponseBody stream = out -> {
+            // Chunks finish on several workers at once; keep their lines whole and in order
+            ReentrantLock writing = new ReentrantLock();
+            long[] reported = {0};
+            TaskImporter.Report report;
+            try {
+                report = taskImporter.importTasks(body, format, progress -> {
+                    writing.lock();
+                    try {
+                        if (progress.linesProcessed() <= reported[0]) return;
+                        reported[0] = progress.linesProcessed();
+                        writeLine(out, progress);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        writing.unlock();
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writeLine(out, report);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(stream);
+    }
+
+    private static TaskImporter.Format importFormat(MediaType contentType) {
+        return contentType.isCompatibleWith(MediaType.parseMediaType(CSV)) ? TaskImporter.Format.CSV : TaskImporter.Format.NDJSON;
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(importWriter.writeValueAsBytes(value));
+        out.write('\n');
+        out.flush();
+    }
+
+    /** Words in {@code q} must all appear in the title or description; optional status filter, dueDate order. */
+    @GetMapping("/search")
+    public ResponseEntity<?> search(
+            @RequestParam String q,
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "50") @Min(1) int size,
+            WebRequest request
+    ) throws IOException {
+        String eTag = listTag(taskService.generation());
+        if (request.checkNotModified(eTag)) return null;
+        Slice<Task> tasks = taskService.searchTasks(q, status, page, size);
+        return ResponseEntity.ok().eTag(eTag).contentType(MediaType.APPLICATION_JSON).body(jsonCache.json(tasks.getContent()));
+    }
+
+    /** Counts for dashboards, answered from the repository's indexes without visiting tasks. */
+    @GetMapping("/stats")
+    public StatsResponse stats(@RequestParam(defaultValue = "7") @Min(1) @Max(3660) int dueWithinDays) {
+        TaskStatistics stats = taskService.statistics(dueWithinDays);
+        return new StatsResponse(stats.total(), stats.byStatus(), stats.overdue(), dueWithinDays, stats.dueSoon());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> get(@PathVariable String id) {
+    public ResponseEntity<?> get(@PathVariable String id) throws IOException {
         Task task = taskService.get(id);
-        return ResponseEntity.ok(TaskResponse.from(task));
+        return ResponseEntity.ok().eTag(eTag(task)).contentType(MediaType.APPLICATION_JSON).body(jsonCache.json(task));
     }
 
+    /** With {@code If-Match} the update only applies to that version of the task, otherwise 412. */
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable String id, @RequestBody UpdateTaskRequest req) {
-        Task updated = taskService.update(id, req.title, req.description, req.status, req.dueDate);
-        return ResponseEntity.ok(TaskResponse.from(updated));
+    public ResponseEntity<?> update(@PathVariable String id, @RequestBody UpdateTaskRequest req,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws IOException {
+        Task updated = taskService.update(id, req.title, req.description, req.status, req.dueDate, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(eTag(updated)).contentType(MediaType.APPLICATION_JSON).body(jsonCache.json(updated));
+    }
+
+    private static String eTag(Task task) {
+        return "\"" + task.getVersion() + "\"";
+    }
+
+    private static String listTag(long generation) {
+        return "\"g" + LIST_EPOCH + "-" + generation + "\"";
+    }
+
+    /** The version named by an {@code If-Match} header; null when absent or {@code *}. */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) tag = tag.substring(2);
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) tag = tag.substring(1, tag.length() - 1);
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            // Cannot name any version we hand out, so it can never match
+            throw new PreconditionFailedException("Task has been modified");
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -52,13 +317,32 @@ public class TaskController {
     }
 
     @GetMapping
-    public ResponseEntity<List<TaskResponse>> getAllTasks(
+    public ResponseEntity<?> getAllTasks(
             @RequestParam TaskStatus status,
             @RequestParam(defaultValue = "0") @Min(0) int page,
-            @RequestParam(defaultValue = "50") @Min(1) int size
-    ) {
-        Page<Task> tasks = taskService.getTasks(status, page, size);
-        return ResponseEntity.ok(tasks.stream().map(TaskResponse::from).toList());
+            @RequestParam(defaultValue = "50") @Min(1) int size,
+            @RequestParam(required = false) String cursor,
+            WebRequest request
+    ) throws IOException {
+        if (cursor != null) {
+            // Keyset mode: pass an empty cursor to start, then echo back X-Next-Cursor until it is absent
+            Window<Task> window = taskService.scrollTasks(status, TaskCursor.decode(cursor), size);
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            if (window.hasNext()) ok.header(NEXT_CURSOR_HEADER, TaskCursor.encode(window.positionAt(window.size() - 1)));
+            return ok.contentType(MediaType.APPLICATION_JSON).body(jsonCache.json(window.getContent()));
+        }
+        // Offset pages are tagged with the store generation: a poll that saw no write since gets a 304
+        long generation = taskService.generation();
+        String eTag = listTag(generation);
+        if (request.checkNotModified(eTag)) return null;
+        TaskPageCache.Key key = new TaskPageCache.Key(status, page, size);
+        byte[] body = pageCache.get(key, generation);
+        if (body == null) {
+            Page<Task> tasks = taskService.getTasks(status, page, size);
+            body = jsonCache.json(tasks.getContent());
+            pageCache.put(key, generation, body);
+        }
+        return ResponseEntity.ok().eTag(eTag).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     public static class CreateTaskRequest {
@@ -75,6 +359,44 @@ public class TaskController {
         public LocalDate dueDate;
     }
 
+    public static class BatchRequest {
+        @NotNull @Size(min = 1, max = MAX_BATCH_SIZE) public List<@NotNull BatchItem> operations;
+    }
+
+    public static class BatchItem {
+        public TaskService.BatchOperation.Type op;
+        public String id;
+        public String title;
+        public String description;
+        public TaskStatus status;
+        public LocalDate dueDate;
+    }
+
+    public record BatchResponse(List<BatchItemResult> results) {}
+
+    /** Per-item outcome, with the HTTP status the equivalent single-item call would have returned. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record BatchItemResult(int status, TaskResponse task, String error) {
+        static BatchItemResult from(TaskService.BatchOperation.Type op, TaskService.BatchResult result) {
+            if (result.error() instanceof NotFoundException e) return new BatchItemResult(404, null, e.getMessage());
+            if (result.error() instanceof ConflictException e) return new BatchItemResult(409, null, e.getMessage());
+            if (result.error() != null) return new BatchItemResult(400, null, result.error().getMessage());
+            if (result.task() == null) return new BatchItemResult(204, null, null);
+            int status = op == TaskService.BatchOperation.Type.CREATE ? 201 : 200;
+            return new BatchItemResult(status, TaskResponse.from(result.task()), null);
+        }
+    }
+
+    /** Data of one change event; for {@code resync} only {@code sequence}, the latest one, is set. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ChangeResponse(long sequence, TaskChangeFeed.Type type, TaskResponse task) {
+        static ChangeResponse from(TaskChangeFeed.Change change) {
+            return new ChangeResponse(change.sequence(), change.type(), TaskResponse.from(change.task()));
+        }
+    }
+
+    public record StatsResponse(long total, Map<TaskStatus, Long> byStatus, long overdue, int dueWithinDays, long dueSoon) {}
+
     public record TaskResponse(String id, String title, String description, TaskStatus status, LocalDate dueDate) {
         public static TaskResponse from(Task t) {
             return new TaskResponse(t.getId(), t.getTitle(), t.getDescription(), t.getStatus(), t.getDueDate());
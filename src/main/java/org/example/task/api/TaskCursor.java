@@ -0,0 +1,40 @@
+package org.example.task.api;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque keyset cursor for {@code GET /tasks}: the (dueDate, id) of the last row
+ * returned, base64url-encoded. An empty cursor starts from the beginning.
+ */
+final class TaskCursor {
+    private TaskCursor() {}
+
+    static String encode(ScrollPosition position) {
+        Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+        String raw = keys.get("dueDate") + "|" + keys.get("id");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static KeysetScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) return ScrollPosition.keyset();
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) throw new IllegalArgumentException("invalid cursor");
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("dueDate", LocalDate.parse(raw.substring(0, sep)));
+            keys.put("id", raw.substring(sep + 1));
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+    }
+}
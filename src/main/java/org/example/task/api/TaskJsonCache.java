@@ -0,0 +1,120 @@
+package org.example.task.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.task.domain.Task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Each task's response JSON, encoded once per version and reused for every response that
+ * contains it. The bytes come from the application's own Jackson writer for
+ * {@link TaskController.TaskResponse}, and a list is those bytes joined by commas inside
+ * brackets, which is exactly what Jackson writes for the list, so responses do not change.
+ * <p>
+ * Slots are paired and picked by id: no lock and no eviction bookkeeping, a new entry
+ * goes to the first of its pair and pushes the older one to the second. Entries are
+ * immutable and published through the slot array without a fence; a reader that misses
+ * a fresh entry only encodes the task again. An entry answers only for a task with the
+ * same version and the same rendered fields, so a task rewritten in place (an import
+ * reusing an id, say) is never served stale.
+ */
+public class TaskJsonCache implements MeterBinder {
+    private record Encoded(Task task, byte[] json) {}
+
+    private final ObjectWriter taskWriter;
+    private final ObjectWriter listWriter;
+    // An indenting mapper puts line breaks between list items; joining the items would differ
+    private final boolean joinable;
+    private final Encoded[] slots;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TaskJsonCache(ObjectMapper objectMapper, int slots) {
+        if (Integer.bitCount(slots) != 1 || slots < 2) throw new IllegalArgumentException("slots must be a power of two");
+        this.taskWriter = objectMapper.writerFor(TaskController.TaskResponse.class);
+        this.listWriter = objectMapper.writerFor(new TypeReference<List<TaskController.TaskResponse>>() {});
+        this.joinable = !objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT);
+        this.slots = new Encoded[slots];
+        this.mask = slots - 1;
+    }
+
+    /** The task as a JSON object. The array may be shared; callers must not modify it. */
+    public byte[] json(Task task) throws IOException {
+        int hash = task.getId().hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask & ~1;
+        Encoded encoded = slots[slot];
+        if (encoded == null || !renderedAlike(encoded.task(), task)) encoded = slots[slot + 1];
+        if (encoded != null && renderedAlike(encoded.task(), task)) {
+            hits.increment();
+            return encoded.json();
+        }
+        misses.increment();
+        byte[] json = taskWriter.writeValueAsBytes(TaskController.TaskResponse.from(task));
+        // The newest entry takes the first way and pushes the previous one to the second
+        slots[slot + 1] = slots[slot];
+        slots[slot] = new Encoded(task, json);
+        return json;
+    }
+
+    /** The tasks as a JSON array, copied together from the cached objects. */
+    public byte[] json(List<Task> tasks) throws IOException {
+        if (!joinable) {
+            List<TaskController.TaskResponse> responses = new ArrayList<>(tasks.size());
+            for (Task task : tasks) responses.add(TaskController.TaskResponse.from(task));
+            return listWriter.writeValueAsBytes(responses);
+        }
+        byte[][] parts = new byte[tasks.size()][];
+        int length = 2 + Math.max(0, parts.length - 1);
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = json(tasks.get(i));
+            length += parts[i].length;
+        }
+        byte[] out = new byte[length];
+        out[0] = '[';
+        int at = 1;
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) out[at++] = ',';
+            System.arraycopy(parts[i], 0, out, at, parts[i].length);
+            at += parts[i].length;
+        }
+        out[at] = ']';
+        return out;
+    }
+
+    private static boolean renderedAlike(Task cached, Task task) {
+        if (cached == task) return true;
+        return cached.getVersion() == task.getVersion()
+                && cached.getId().equals(task.getId())
+                && cached.getStatus() == task.getStatus()
+                && Objects.equals(cached.getDueDate(), task.getDueDate())
+                && Objects.equals(cached.getTitle(), task.getTitle())
+                && Objects.equals(cached.getDescription(), task.getDescription());
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tasks.json.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("tasks.json.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss").register(registry);
+    }
+}
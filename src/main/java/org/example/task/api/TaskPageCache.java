@@ -0,0 +1,118 @@
+package org.example.task.api;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.task.domain.TaskStatus;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Least-recently-used cache of list pages already serialized to JSON, bounded by their
+ * total size in bytes. Each page remembers the repository generation it was rendered at
+ * and only answers for that generation, so writes never have to invalidate anything:
+ * a page from an older generation is a miss, replaced on the next render.
+ */
+public class TaskPageCache implements MeterBinder {
+    static final long DEFAULT_MAX_BYTES = 16L << 20;
+
+    record Key(TaskStatus status, int page, int size) {}
+
+    private record Rendered(long generation, byte[] body) {}
+
+    private final long maxBytes;
+    private final Map<Key, Rendered> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long bytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TaskPageCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public TaskPageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** The page rendered for {@code key} at exactly {@code generation}, or null. */
+    byte[] get(Key key, long generation) {
+        lock.lock();
+        try {
+            Rendered rendered = pages.get(key);
+            if (rendered != null && rendered.generation() == generation) {
+                hits.increment();
+                return rendered.body();
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        return null;
+    }
+
+    void put(Key key, long generation, byte[] body) {
+        if (body.length > maxBytes) return;
+        lock.lock();
+        try {
+            Rendered previous = pages.get(key);
+            // A slower render of an older generation must not replace a newer page
+            if (previous != null && previous.generation() > generation) return;
+            if (previous != null) bytes -= previous.body().length;
+            pages.put(key, new Rendered(generation, body));
+            bytes += body.length;
+            Iterator<Rendered> eldest = pages.values().iterator();
+            while (bytes > maxBytes) {
+                bytes -= eldest.next().body().length;
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    long evictionCount() {
+        return evictions.sum();
+    }
+
+    long sizeInBytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double hitRatio() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tasks.page.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("tasks.page.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("tasks.page.cache.evictions", evictions, LongAdder::sum).register(registry);
+        Gauge.builder("tasks.page.cache.hit.ratio", this, TaskPageCache::hitRatio).register(registry);
+        Gauge.builder("tasks.page.cache.size", this, TaskPageCache::sizeInBytes).baseUnit("bytes").register(registry);
+    }
+}
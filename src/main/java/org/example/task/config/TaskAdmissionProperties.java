@@ -0,0 +1,24 @@
+package org.example.task.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "task.admission")
+public class TaskAdmissionProperties {
+    /** Reject task requests over a per-kind concurrency limit instead of queueing them. */
+    private boolean enabled = true;
+    /** Starting limit for each kind (point reads, queries, writes), adapted from latency between the bounds. */
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+    /** A latency sample covers at least this many completed requests and this long; the limit moves once per sample. */
+    private int window = 20;
+    private Duration windowTime = Duration.ofMillis(100);
+    /** Sent as Retry-After with a rejection. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
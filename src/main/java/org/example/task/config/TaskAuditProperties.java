@@ -0,0 +1,24 @@
+package org.example.task.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.example.task.services.AuditLog;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "task.audit")
+public class TaskAuditProperties {
+    /** Where access.log and audit.log (and their rotated copies) are written. */
+    private Path directory = Path.of("logs");
+    /** Events buffered for the writer; a power of two. */
+    private int capacity = 8192;
+    /** What a request does when the buffer is full: DROP the event (counted) or BLOCK until there is room. Audit events always drop. */
+    private AuditLog.Overflow overflow = AuditLog.Overflow.DROP;
+    private DataSize maxFileSize = DataSize.ofMegabytes(10);
+    /** Rotated files kept per log. */
+    private int maxFiles = 5;
+}
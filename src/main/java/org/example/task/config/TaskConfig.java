@@ -1,17 +1,227 @@
 package org.example.task.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.task.domain.Task;
+import org.example.task.api.AccessLogFilter;
+import org.example.task.api.AdaptiveConcurrencyLimit;
+import org.example.task.api.AdmissionControl;
+import org.example.task.api.TaskJsonCache;
+import org.example.task.api.TaskPageCache;
+import org.example.task.services.AuditLog;
+import org.example.task.services.DueDateScheduler;
+import org.example.task.services.ReplicationFollower;
+import org.example.task.services.ReplicationServer;
+import org.example.task.services.TaskChangeFeed;
+import org.example.task.services.TaskIdGenerator;
+import org.example.task.services.TaskImporter;
 import org.example.task.services.TaskService;
+import org.example.task.repository.ColumnarTaskRepository;
+import org.example.task.repository.DurableTaskRepository;
 import org.example.task.repository.InMemoryTaskRepository;
+import org.example.task.repository.MeteredTaskRepository;
+import org.example.task.repository.PartitionedTaskRepository;
+import org.example.task.repository.ReadOnlyTaskRepository;
 import org.example.task.repository.TaskRepository;
+import org.example.task.repository.TieredTaskRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+@Slf4j
 @Configuration
+@EnableConfigurationProperties({TaskStorageProperties.class, TaskReplicationProperties.class,
+        TaskAuditProperties.class, TaskAdmissionProperties.class})
 public class TaskConfig {
     @Bean
-    public TaskRepository taskRepository() { return new InMemoryTaskRepository(); }
+    public TaskRepository taskRepository(TaskStorageProperties storage, MeterRegistry meterRegistry) throws IOException {
+        TaskRepository repository = switch (storage.getMode()) {
+            case MEMORY -> new InMemoryTaskRepository();
+            case COLUMNAR -> new ColumnarTaskRepository();
+            case PARTITIONED -> new PartitionedTaskRepository(storage.getPartitions() > 0
+                    ? storage.getPartitions() : Runtime.getRuntime().availableProcessors());
+            case WAL -> DurableTaskRepository.open(storage.getDirectory(), storage.getSyncPolicy(),
+                    storage.getGroupCommitWindow(), storage.getSyncInterval(), storage.getSnapshotInterval());
+            case TIERED -> tiered(storage, meterRegistry);
+        };
+        return new MeteredTaskRepository(repository, meterRegistry);
+    }
+
+    private static TieredTaskRepository tiered(TaskStorageProperties storage, MeterRegistry meterRegistry) throws IOException {
+        TieredTaskRepository tiered = TieredTaskRepository.open(storage.getDirectory().resolve("cold"),
+                storage.getColdAfter(), storage.getColdCacheSize(), storage.getEvictionInterval());
+        Gauge.builder("tasks.tier.size", tiered, TieredTaskRepository::hotCount).tag("tier", "hot")
+                .description("Tasks kept on the heap").register(meterRegistry);
+        Gauge.builder("tasks.tier.size", tiered, TieredTaskRepository::coldCount).tag("tier", "cold")
+                .description("DONE tasks moved to segment files").register(meterRegistry);
+        FunctionCounter.builder("tasks.cold.cache.requests", tiered, TieredTaskRepository::coldCacheHits).tag("result", "hit")
+                .description("Point reads of cold tasks answered from the cache").register(meterRegistry);
+        FunctionCounter.builder("tasks.cold.cache.requests", tiered, TieredTaskRepository::coldCacheMisses).tag("result", "miss")
+                .description("Point reads of cold tasks that read a segment").register(meterRegistry);
+        return tiered;
+    }
 
+    /**
+     * Follows every write from the moment it is registered; tasks already stored (say, replayed
+     * from the log) are added once here, before the application takes traffic.
+     */
     @Bean
-    public TaskService taskService(TaskRepository repository) { return new TaskService(repository); }
-}
+    public DueDateScheduler dueDateScheduler(TaskRepository repository, MeterRegistry meterRegistry,
+                                             @Value("${task.scheduler.tick-interval:1m}") Duration tickInterval) {
+        Counter dueEvents = Counter.builder("tasks.due.events").tag("kind", "due")
+                .description("Tasks that reached their due date").register(meterRegistry);
+        Counter overdueEvents = Counter.builder("tasks.due.events").tag("kind", "overdue")
+                .description("Open tasks that passed their due date").register(meterRegistry);
+        DueDateScheduler scheduler = new DueDateScheduler(Clock.systemDefaultZone(), new DueDateScheduler.Listener() {
+            @Override
+            public void onDue(List<Task> tasks) {
+                dueEvents.increment(tasks.size());
+                log.info("{} tasks became due", tasks.size());
+            }
+
+            @Override
+            public void onOverdue(List<Task> tasks) {
+                overdueEvents.increment(tasks.size());
+                log.info("{} tasks became overdue", tasks.size());
+            }
+        });
+        scheduler.follow(repository);
+        Gauge.builder("tasks.scheduler.pending", scheduler, DueDateScheduler::pending)
+                .description("Due and overdue timers waiting to fire").register(meterRegistry);
+        scheduler.start(tickInterval);
+        return scheduler;
+    }
+
+    @Bean
+    public TaskChangeFeed taskChangeFeed(TaskRepository repository,
+                                         @Value("${task.change-feed.capacity:65536}") int capacity) {
+        TaskChangeFeed feed = new TaskChangeFeed(capacity);
+        repository.addChangeListener(feed);
+        return feed;
+    }
+
+    @Bean
+    public TaskIdGenerator taskIdGenerator(@Value("${task.id-generator:TIME_ORDERED}") TaskIdGenerator.Kind kind) {
+        return TaskIdGenerator.of(kind);
+    }
 
+    @Bean
+    public TaskService taskService(TaskRepository repository, TaskIdGenerator idGenerator,
+                                   TaskReplicationProperties replication) {
+        return new TaskService(writableUnlessFollower(repository, replication), idGenerator);
+    }
+
+    @Bean
+    public TaskPageCache taskPageCache(@Value("${task.page-cache.max-size:16MB}") DataSize maxSize) {
+        return new TaskPageCache(maxSize.toBytes());
+    }
+
+    @Bean
+    public TaskJsonCache taskJsonCache(ObjectMapper objectMapper, @Value("${task.json-cache.slots:65536}") int slots) {
+        return new TaskJsonCache(objectMapper, slots);
+    }
+
+    @Bean
+    public TaskImporter taskImporter(TaskRepository repository, ObjectMapper objectMapper, TaskIdGenerator idGenerator,
+                                     TaskReplicationProperties replication) {
+        return new TaskImporter(writableUnlessFollower(repository, replication), objectMapper,
+                Runtime.getRuntime().availableProcessors(), idGenerator);
+    }
+
+    /**
+     * Changes are audited where they are made: a follower only replays the leader's changes,
+     * which the leader's audit log already has.
+     */
+    @Bean
+    public AuditLog auditLog(TaskRepository repository, TaskAuditProperties audit, TaskReplicationProperties replication,
+                             MeterRegistry meterRegistry) throws IOException {
+        AuditLog auditLog = new AuditLog(audit.getDirectory(), audit.getCapacity(), audit.getOverflow(),
+                audit.getMaxFileSize().toBytes(), audit.getMaxFiles());
+        if (replication.getRole() != TaskReplicationProperties.Role.FOLLOWER) repository.addChangeListener(auditLog);
+        FunctionCounter.builder("tasks.audit.events", auditLog, AuditLog::writtenCount).tag("result", "written")
+                .description("Access and audit events written to the log files").register(meterRegistry);
+        FunctionCounter.builder("tasks.audit.events", auditLog, AuditLog::droppedCount).tag("result", "dropped")
+                .description("Events dropped because the buffer was full or the write failed").register(meterRegistry);
+        Gauge.builder("tasks.audit.pending", auditLog, AuditLog::pending)
+                .description("Events waiting for the log writer").register(meterRegistry);
+        auditLog.start();
+        return auditLog;
+    }
+
+    @Bean
+    public AccessLogFilter accessLogFilter(AuditLog auditLog) {
+        return new AccessLogFilter(auditLog);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "task.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public AdmissionControl admissionControl(TaskAdmissionProperties admission) {
+        return new AdmissionControl(() -> new AdaptiveConcurrencyLimit(admission.getInitialLimit(),
+                admission.getMinLimit(), admission.getMaxLimit(), admission.getWindow(), admission.getWindowTime().toNanos()),
+                admission.getRetryAfter());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "task.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public WebMvcConfigurer admissionControlConfigurer(AdmissionControl admissionControl) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(admissionControl).addPathPatterns("/tasks", "/tasks/**");
+            }
+        };
+    }
+
+    /** Followers take writes from the leader only; requests get the read-only view. */
+    private static TaskRepository writableUnlessFollower(TaskRepository repository, TaskReplicationProperties replication) {
+        if (replication.getRole() != TaskReplicationProperties.Role.FOLLOWER) return repository;
+        return new ReadOnlyTaskRepository(repository,
+                "This instance is a read-only follower; send writes to the leader (" + replication.getLeader() + ")");
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "task.replication", name = "role", havingValue = "LEADER")
+    public ReplicationServer replicationServer(TaskChangeFeed feed, TaskRepository repository,
+                                               TaskReplicationProperties replication, MeterRegistry meterRegistry) throws IOException {
+        ReplicationServer server = new ReplicationServer(feed, repository, replication.getPort());
+        Gauge.builder("tasks.replication.followers", server, ReplicationServer::followers)
+                .description("Followers connected to this leader").register(meterRegistry);
+        server.start();
+        return server;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "task.replication", name = "role", havingValue = "FOLLOWER")
+    public ReplicationFollower replicationFollower(TaskRepository repository, TaskReplicationProperties replication,
+                                                   MeterRegistry meterRegistry) {
+        String leader = replication.getLeader();
+        int colon = leader.lastIndexOf(':');
+        if (colon < 0) throw new IllegalArgumentException("task.replication.leader must be host:port");
+        ReplicationFollower follower = new ReplicationFollower(repository,
+                InetSocketAddress.createUnresolved(leader.substring(0, colon), Integer.parseInt(leader.substring(colon + 1))));
+        Gauge.builder("tasks.replication.lag", follower, ReplicationFollower::lag)
+                .description("Leader changes not applied here yet").register(meterRegistry);
+        Gauge.builder("tasks.replication.lag.seconds", follower, f -> f.lagTime().toNanos() / 1e9)
+                .description("Time since this follower last had every leader change").register(meterRegistry);
+        Gauge.builder("tasks.replication.connected", follower, f -> f.connected() ? 1 : 0)
+                .description("Whether the follower is connected to its leader").register(meterRegistry);
+        follower.start();
+        return follower;
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.task.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "task.replication")
+public class TaskReplicationProperties {
+    public enum Role { NONE, LEADER, FOLLOWER }
+
+    /**
+     * LEADER streams every change to followers connecting on {@link #port}; FOLLOWER applies
+     * the stream from {@link #leader} to its own store and serves reads only.
+     */
+    private Role role = Role.NONE;
+    /** Port a LEADER accepts followers on. */
+    private int port = 9091;
+    /** host:port of the leader's replication port, for a FOLLOWER. */
+    private String leader = "localhost:9091";
+}
@@ -0,0 +1,40 @@
+package org.example.task.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.example.task.repository.SyncPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "task.storage")
+public class TaskStorageProperties {
+    public enum Mode { MEMORY, COLUMNAR, PARTITIONED, WAL, TIERED }
+
+    /**
+     * MEMORY keeps tasks on the heap only; COLUMNAR does too, in primitive columns with a
+     * much smaller per-task footprint; PARTITIONED spreads them over {@link #partitions} stores
+     * written in parallel; WAL also logs every mutation to {@link #directory}; TIERED moves
+     * tasks DONE for {@link #coldAfter} to segment files under {@link #directory}.
+     */
+    private Mode mode = Mode.MEMORY;
+    /** Shards of PARTITIONED mode; 0 means one per available processor. */
+    private int partitions;
+    private Path directory = Path.of("data");
+    private SyncPolicy syncPolicy = SyncPolicy.GROUP;
+    /** Upper bound on how long a GROUP write waits for others to share its fsync. */
+    private Duration groupCommitWindow = Duration.ofMillis(2);
+    /** How often PERIODIC mode fsyncs; also the most a crash can lose in that mode. */
+    private Duration syncInterval = Duration.ofSeconds(1);
+    /** How often WAL mode writes a compacted snapshot in the background (if anything changed); 0 disables. */
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+    /** How long a TIERED task stays on the heap once DONE (and not written). */
+    private Duration coldAfter = Duration.ofDays(7);
+    /** How often TIERED mode moves tasks to disk; 0 disables. */
+    private Duration evictionInterval = Duration.ofMinutes(1);
+    /** Cold tasks TIERED mode keeps on the heap for point reads, least recently read dropped first. */
+    private int coldCacheSize = 10_000;
+}
@@ -0,0 +1,5 @@
+package org.example.task.domain;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) { super(message); }
+}
@@ -0,0 +1,14 @@
+package org.example.task.domain;
+
+import java.time.Duration;
+
+public class OverloadedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public OverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() { return retryAfter; }
+}
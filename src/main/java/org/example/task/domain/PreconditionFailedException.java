@@ -0,0 +1,5 @@
+package org.example.task.domain;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) { super(message); }
+}
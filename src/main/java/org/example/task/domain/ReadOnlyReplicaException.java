@@ -0,0 +1,5 @@
+package org.example.task.domain;
+
+public class ReadOnlyReplicaException extends RuntimeException {
+    public ReadOnlyReplicaException(String message) { super(message); }
+}
@@ -1,26 +1,37 @@
 package org.example.task.domain;
 
 import lombok.Getter;
-import lombok.Setter;
+import lombok.With;
 
 import java.time.LocalDate;
 import java.util.Objects;
 
+/**
+ * Immutable snapshot of a task at one {@code version}. Changes are made by building the
+ * next version with the {@code with*} methods and installing it through the repository,
+ * so readers never observe a half-applied update.
+ */
 @Getter
-@Setter
+@With
 public class Task {
-    private String id;
-    private String title;
-    private String description;
-    private TaskStatus status;
-    private LocalDate dueDate;
+    private final String id;
+    private final String title;
+    private final String description;
+    private final TaskStatus status;
+    private final LocalDate dueDate;
+    private final long version;
 
     public Task(String id, String title, String description, TaskStatus status, LocalDate dueDate) {
+        this(id, title, description, status, dueDate, 0);
+    }
+
+    public Task(String id, String title, String description, TaskStatus status, LocalDate dueDate, long version) {
         this.id = id;
         this.title = title;
         this.description = description;
         this.status = status == null ? TaskStatus.PENDING : status;
         this.dueDate = dueDate;
+        this.version = version;
     }
 
     @Override
@@ -36,4 +47,3 @@ public class Task {
         return Objects.hash(id);
     }
 }
-
@@ -0,0 +1,406 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * The cold tier of a {@link TieredTaskRepository}: tasks kept in {@link TaskSegment} files
+ * rather than on the heap. To list them in (dueDate, id) order without reading them all,
+ * the heap keeps every record's due day and location in that order, twelve bytes a task;
+ * ties on the day are broken by reading the ids from the files. Deletes are counted per
+ * position in a Fenwick tree, so ranks and positions skip deleted records in O(log n).
+ * A least-recently-used cache of tasks sits in front of the segments for point reads.
+ * <p>
+ * Moving tasks in happens in two steps: {@link #prepare} writes the new segments (and
+ * rewrites segments that are mostly deleted) while readers go on, and {@link #install}
+ * switches to them. Not thread-safe: the owner runs reads and {@code prepare} under its read
+ * lock and every change under its write lock; only the cache has a lock of its own.
+ */
+final class ColdTaskStore {
+    private static final String PREFIX = "cold-";
+    private static final String SUFFIX = ".seg";
+    private static final int NO_DAY = Integer.MAX_VALUE;
+    // Each segment costs point reads that miss the cache a Bloom probe
+    private static final int MAX_SEGMENTS = 16;
+
+    /** New segments written by {@link #prepare}, with the order they give once installed. */
+    static final class Batch {
+        private final List<TaskSegment> written;
+        private final Set<TaskSegment> folded;
+        private final TaskSegment[] segments;
+        private final List<Pending> pending;
+        private final int[] days;
+        private final long[] refs;
+
+        private Batch(List<TaskSegment> written, Set<TaskSegment> folded, TaskSegment[] segments, List<Pending> pending,
+                      int[] days, long[] refs) {
+            this.written = written;
+            this.folded = folded;
+            this.segments = segments;
+            this.pending = pending;
+            this.days = days;
+            this.refs = refs;
+        }
+    }
+
+    /** A task going into the new segments: evicted from the hot tier, or copied from a folded segment. */
+    private record Pending(Task task, TaskSegment from, int ordinal) {}
+
+    private final Path directory;
+    private final int cacheSize;
+    private final Map<String, Task> cache;
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private TaskSegment[] segments = new TaskSegment[0];
+    // Every record of every segment in (dueDate, id) order: its due day and segment << 32 | ordinal
+    private int[] days = new int[0];
+    private long[] refs = new long[0];
+    private int[] removed;
+    private int removedCount;
+    private long nextFile;
+
+    /** Starts empty: segments left in {@code directory} by an earlier run are deleted. */
+    ColdTaskStore(Path directory, int cacheSize) throws IOException {
+        this.directory = directory;
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path f : (Iterable<Path>) files::iterator) {
+                String name = f.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) Files.delete(f);
+            }
+        }
+    }
+
+    int size() {
+        return days.length - removedCount;
+    }
+
+    int segmentCount() {
+        return segments.length;
+    }
+
+    /** The live task with {@code id}, from the cache or a segment, or null. */
+    Task find(String id) {
+        cacheLock.lock();
+        try {
+            Task cached = cache.get(id);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        } finally {
+            cacheLock.unlock();
+        }
+        long ref = locate(id);
+        if (ref < 0) return null;
+        misses.increment();
+        Task task = segments[segment(ref)].read(ordinal(ref));
+        if (cacheSize > 0) {
+            cacheLock.lock();
+            try {
+                cache.put(id, task);
+                if (cache.size() > cacheSize) {
+                    Iterator<Task> eldest = cache.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            } finally {
+                cacheLock.unlock();
+            }
+        }
+        return task;
+    }
+
+    boolean contains(String id) {
+        return locate(id) >= 0;
+    }
+
+    /** Deletes the task with {@code id} from this tier and returns it, or null if it is not here. */
+    Task remove(String id) {
+        long ref = locate(id);
+        if (ref < 0) return null;
+        TaskSegment segment = segments[segment(ref)];
+        Task task = segment.read(ordinal(ref));
+        segment.delete(ordinal(ref));
+        int position = bound(dayOf(task.getDueDate()), id, false);
+        while (refs[position] != ref) position++;
+        if (removed == null) removed = new int[days.length + 1];
+        for (int i = position + 1; i < removed.length; i += i & -i) removed[i]++;
+        removedCount++;
+        cacheLock.lock();
+        try {
+            cache.remove(id);
+        } finally {
+            cacheLock.unlock();
+        }
+        return task;
+    }
+
+    /** How many live tasks come before {@code (dueDate, id)}, or up to and including it when {@code inclusive}. */
+    long rank(LocalDate dueDate, String id, boolean inclusive) {
+        int position = bound(dayOf(dueDate), id, inclusive);
+        return position - removedBefore(position);
+    }
+
+    /** Up to {@code limit} live tasks from the {@code from}th on, in (dueDate, id) order or its reverse. */
+    List<Task> range(long from, int limit, boolean descending) {
+        int size = size();
+        if (from >= size || limit <= 0) return List.of();
+        List<Task> out = new ArrayList<>(Math.min(limit, size - (int) from));
+        if (descending) {
+            for (int p = position(size - 1 - (int) from); p >= 0 && out.size() < limit; p--) {
+                if (isLive(p)) out.add(read(p));
+            }
+        } else {
+            for (int p = position((int) from); p < days.length && out.size() < limit; p++) {
+                if (isLive(p)) out.add(read(p));
+            }
+        }
+        return out;
+    }
+
+    /** Visits live tasks in (dueDate, id) order until {@code visitor} returns false. */
+    void forEach(Predicate<Task> visitor) {
+        for (int p = 0; p < days.length; p++) {
+            if (isLive(p) && !visitor.test(read(p))) return;
+        }
+    }
+
+    /** Whether some segment is mostly deleted records, which the next {@link #prepare} rewrites. */
+    boolean needsCompaction() {
+        for (TaskSegment segment : segments) if (segment.live() * 2 < segment.count()) return true;
+        return false;
+    }
+
+    /**
+     * Writes {@code tasks}, together with the live tasks of segments that are mostly deleted
+     * (or the smallest ones, when there would be too many segments), to new segments and works
+     * out the order they give. Nothing changes for readers until {@link #install}.
+     */
+    Batch prepare(Collection<Task> tasks) throws IOException {
+        Set<TaskSegment> folded = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (TaskSegment segment : segments) if (segment.live() * 2 < segment.count()) folded.add(segment);
+        List<TaskSegment> bySize = new ArrayList<>(Arrays.asList(segments));
+        bySize.removeAll(folded);
+        bySize.sort(Comparator.comparingInt(TaskSegment::live));
+        for (int i = 0; segments.length - folded.size() + 1 > MAX_SEGMENTS; i++) folded.add(bySize.get(i));
+
+        List<Pending> pending = new ArrayList<>(tasks.size());
+        for (Task t : tasks) pending.add(new Pending(t, null, -1));
+        for (TaskSegment segment : folded) segment.forEachLive((t, ordinal) -> pending.add(new Pending(t, segment, ordinal)));
+        pending.sort(Comparator.comparing(p -> p.task().getId()));
+
+        List<Task> sortedById = pending.stream().map(Pending::task).toList();
+        List<TaskSegment> written = new ArrayList<>();
+        try {
+            for (int from = 0; from < sortedById.size(); from += written.get(written.size() - 1).count()) {
+                written.add(TaskSegment.write(directory.resolve(String.format("%s%019d%s", PREFIX, nextFile++, SUFFIX)),
+                        sortedById, from));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (TaskSegment segment : written) segment.discard();
+            throw e;
+        }
+
+        // Kept segments first, new ones last, so lookups try the newest first
+        int[] slotOf = new int[segments.length];
+        List<TaskSegment> next = new ArrayList<>();
+        for (int s = 0; s < segments.length; s++) {
+            slotOf[s] = folded.contains(segments[s]) ? -1 : next.size();
+            if (slotOf[s] >= 0) next.add(segments[s]);
+        }
+        int firstWritten = next.size();
+        next.addAll(written);
+
+        // The new records in (dueDate, id) order, each with where it was written
+        Integer[] added = new Integer[pending.size()];
+        for (int i = 0; i < added.length; i++) added[i] = i;
+        Arrays.sort(added, (a, b) -> {
+            Task x = pending.get(a).task();
+            Task y = pending.get(b).task();
+            int c = Integer.compare(dayOf(x.getDueDate()), dayOf(y.getDueDate()));
+            return c != 0 ? c : x.getId().compareTo(y.getId());
+        });
+        int[] writtenStart = new int[written.size() + 1];
+        for (int w = 0; w < written.size(); w++) writtenStart[w + 1] = writtenStart[w] + written.get(w).count();
+
+        // Merged with the kept records, which are already in order
+        int kept = 0;
+        for (int p = 0; p < days.length; p++) if (slotOf[segment(refs[p])] >= 0) kept++;
+        int[] nextDays = new int[kept + added.length];
+        long[] nextRefs = new long[nextDays.length];
+        int p = 0;
+        int a = 0;
+        for (int out = 0; out < nextDays.length; out++) {
+            while (p < days.length && slotOf[segment(refs[p])] < 0) p++;
+            boolean takeOld;
+            if (p == days.length) {
+                takeOld = false;
+            } else if (a == added.length) {
+                takeOld = true;
+            } else {
+                Task t = pending.get(added[a]).task();
+                int c = Integer.compare(days[p], dayOf(t.getDueDate()));
+                takeOld = (c != 0 ? c : idAt(p).compareTo(t.getId())) < 0;
+            }
+            if (takeOld) {
+                nextDays[out] = days[p];
+                nextRefs[out] = ref(slotOf[segment(refs[p])], ordinal(refs[p]));
+                p++;
+            } else {
+                int i = added[a++];
+                int w = 0;
+                while (i >= writtenStart[w + 1]) w++;
+                nextDays[out] = dayOf(pending.get(i).task().getDueDate());
+                nextRefs[out] = ref(firstWritten + w, i - writtenStart[w]);
+            }
+        }
+        return new Batch(written, folded, next.toArray(new TaskSegment[0]), pending, nextDays, nextRefs);
+    }
+
+    /**
+     * Switches to the segments of {@code batch}. Of the tasks it was given, only those in
+     * {@code evicted} (the ones that had not changed meanwhile) become visible; tasks copied
+     * from folded segments stay only if they were not removed meanwhile either.
+     */
+    void install(Batch batch, Collection<Task> evicted) {
+        Set<Task> moved = Collections.newSetFromMap(new IdentityHashMap<>());
+        moved.addAll(evicted);
+        int at = 0;
+        for (TaskSegment segment : batch.written) {
+            for (int ordinal = 0; ordinal < segment.count(); ordinal++, at++) {
+                Pending p = batch.pending.get(at);
+                boolean live = p.from() == null ? moved.contains(p.task()) : p.from().isLive(p.ordinal());
+                if (!live) segment.delete(ordinal);
+            }
+        }
+        segments = batch.segments;
+        // Records removed since prepare (or never moved) are dropped here rather than counted
+        int live = 0;
+        for (int p = 0; p < batch.days.length; p++) {
+            if (segments[segment(batch.refs[p])].isLive(ordinal(batch.refs[p]))) {
+                batch.days[live] = batch.days[p];
+                batch.refs[live] = batch.refs[p];
+                live++;
+            }
+        }
+        days = Arrays.copyOf(batch.days, live);
+        refs = Arrays.copyOf(batch.refs, live);
+        removed = null;
+        removedCount = 0;
+    }
+
+    /** Deletes the files of the segments {@code batch} replaced, once it is installed. */
+    void discard(Batch batch) throws IOException {
+        for (TaskSegment segment : batch.folded) segment.discard();
+    }
+
+    void close() throws IOException {
+        for (TaskSegment segment : segments) segment.discard();
+        cacheLock.lock();
+        try {
+            cache.clear();
+        } finally {
+            cacheLock.unlock();
+        }
+        segments = new TaskSegment[0];
+        days = new int[0];
+        refs = new long[0];
+        removed = null;
+        removedCount = 0;
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    /** Where the live record of {@code id} is, or -1. A task is live in one segment at most. */
+    private long locate(String id) {
+        TaskSegment[] current = segments;
+        for (int s = current.length - 1; s >= 0; s--) {
+            int ordinal = current[s].ordinalOf(id);
+            if (ordinal >= 0 && current[s].isLive(ordinal)) return ref(s, ordinal);
+        }
+        return -1;
+    }
+
+    /** First position whose (day, id) is not below the key, or above it when {@code inclusive}. */
+    private int bound(int day, String id, boolean inclusive) {
+        int lo = 0;
+        int hi = days.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = Integer.compare(days[mid], day);
+            if (c == 0) c = idAt(mid).compareTo(id);
+            if (inclusive ? c <= 0 : c < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Position of the {@code index}th live record, descending the Fenwick tree by live counts. */
+    private int position(int index) {
+        if (removed == null) return index;
+        int position = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(days.length); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= days.length && step - removed[next] < remaining) {
+                position = next;
+                remaining -= step - removed[next];
+            }
+        }
+        return position;
+    }
+
+    private int removedBefore(int position) {
+        if (removed == null) return 0;
+        int sum = 0;
+        for (int i = position; i > 0; i -= i & -i) sum += removed[i];
+        return sum;
+    }
+
+    private boolean isLive(int position) {
+        return segments[segment(refs[position])].isLive(ordinal(refs[position]));
+    }
+
+    private Task read(int position) {
+        return segments[segment(refs[position])].read(ordinal(refs[position]));
+    }
+
+    private String idAt(int position) {
+        return segments[segment(refs[position])].id(ordinal(refs[position]));
+    }
+
+    private static int dayOf(LocalDate date) {
+        return date == null ? NO_DAY : (int) date.toEpochDay();
+    }
+
+    private static long ref(int segment, int ordinal) {
+        return (long) segment << 32 | ordinal;
+    }
+
+    private static int segment(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    private static int ordinal(long ref) {
+        return (int) ref;
+    }
+}
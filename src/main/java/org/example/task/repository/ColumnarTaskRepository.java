@@ -0,0 +1,582 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * {@link TaskRepository} that keeps tasks in primitive columns instead of one object
+ * graph per task: the id as two longs, dueDate as an epoch-day int, status as a byte and
+ * title/description in a shared {@link TextPool}, the version as a long. Sorted indexes are {@link RowTree}s
+ * over row numbers. {@link Task} objects are only created for the rows a query returns.
+ * <p>
+ * Ids in canonical lowercase UUID form are stored packed; any other id string is kept
+ * as-is in a side table, so existing ids keep working.
+ */
+public class ColumnarTaskRepository implements TaskRepository {
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final int NO_DAY = Integer.MAX_VALUE;
+    private static final byte FREE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int WALK_CHUNK = 256;
+
+    private int capacity = INITIAL_CAPACITY;
+    private int highWater;
+    private int[] freeRows = new int[16];
+    private int freeCount;
+    private int liveCount;
+
+    private long[] idHi = new long[capacity];
+    private long[] idLo = new long[capacity];
+    private int[] dueDay = new int[capacity];
+    private byte[] status = new byte[capacity];
+    private long[] title = new long[capacity];
+    private long[] description = new long[capacity];
+    private long[] version = new long[capacity];
+    private TextPool text = new TextPool();
+
+    // Open-addressed id -> row + 1 table for packed UUID ids; other ids use the maps below
+    private int[] idTable = new int[capacity * 2];
+    private final Map<String, Integer> otherIds = new HashMap<>();
+    private final Map<Integer, String> otherIdByRow = new HashMap<>();
+
+    private final RowTree byDueDate = new RowTree(1, capacity, this::compareDueDate);
+    private final RowTree byTitle = new RowTree(1, capacity, this::compareTitle);
+    private final RowTree byStatusId = new RowTree(1, capacity, this::compareStatus);
+    // One (dueDate, id) tree per status, sharing link arrays since a row has one status
+    private final RowTree byStatus = new RowTree(STATUSES.length, capacity, this::compareDueDate);
+    private final TextIndex textIndex = new TextIndex();
+
+    private final List<TaskChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Written under the write lock, read without it
+    private volatile long generation;
+
+    @Override
+    public void save(Task entity) {
+        lock.writeLock().lock();
+        try {
+            put(entity);
+        } finally {
+            generation++;
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void saveAll(Iterable<Task> entities) {
+        lock.writeLock().lock();
+        try {
+            for (Task t : entities) put(t);
+        } finally {
+            generation++;
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(Task expected, Task updated) {
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(expected.getId());
+            if (row == RowTree.NONE || version[row] != expected.getVersion()) return false;
+            put(updated);
+            return true;
+        } finally {
+            generation++;
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> replaceAll(List<TaskWrite> writes) {
+        Set<String> conflicts = new HashSet<>();
+        lock.writeLock().lock();
+        try {
+            for (TaskWrite w : writes) {
+                int row = rowOf(w.id());
+                boolean holds = w.expected() == null ? row == RowTree.NONE
+                        : row != RowTree.NONE && version[row] == w.expected().getVersion();
+                if (!holds) conflicts.add(w.id());
+                else if (w.updated() == null) remove(w.id());
+                else put(w.updated());
+            }
+        } finally {
+            generation++;
+            lock.writeLock().unlock();
+        }
+        return conflicts;
+    }
+
+    private void put(Task entity) {
+        int row = rowOf(entity.getId());
+        boolean sameText = false;
+        Task previous = listeners.isEmpty() || row == RowTree.NONE ? null : materialize(row);
+        if (row == RowTree.NONE) {
+            row = allocate(entity.getId());
+        } else {
+            sameText = Objects.equals(text.get(title[row]), entity.getTitle())
+                    && Objects.equals(text.get(description[row]), entity.getDescription());
+            unindex(row);
+            text.release(title[row]);
+            text.release(description[row]);
+        }
+        dueDay[row] = entity.getDueDate() == null ? NO_DAY : (int) entity.getDueDate().toEpochDay();
+        status[row] = (byte) entity.getStatus().ordinal();
+        title[row] = text.add(entity.getTitle());
+        description[row] = text.add(entity.getDescription());
+        version[row] = entity.getVersion();
+        index(row);
+        if (sameText) textIndex.retag(row, entity.getStatus(), entity.getDueDate());
+        else textIndex.put(row, entity.getTitle(), entity.getDescription(), entity.getStatus(), entity.getDueDate());
+        for (TaskChangeListener listener : listeners) listener.changed(previous, entity);
+        if (text.needsCompaction()) compactText();
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public long generation() {
+        return generation;
+    }
+
+    @Override
+    public Optional<Task> findById(String id) {
+        lock.readLock().lock();
+        try {
+            int row = rowOf(id);
+            return row == RowTree.NONE ? Optional.empty() : Optional.of(materialize(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteById(String id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            generation++;
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        lock.writeLock().lock();
+        try {
+            for (String id : ids) remove(id);
+        } finally {
+            generation++;
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(String id) {
+        int row = rowOf(id);
+        if (row == RowTree.NONE) return;
+        if (!listeners.isEmpty()) {
+            Task previous = materialize(row);
+            for (TaskChangeListener listener : listeners) listener.changed(previous, null);
+        }
+        unindex(row);
+        textIndex.remove(row);
+        text.release(title[row]);
+        text.release(description[row]);
+        release(row);
+    }
+
+    @Override
+    public Iterable<Task> findAll(Sort sort) {
+        lock.readLock().lock();
+        try {
+            List<Task> all = new ArrayList<>(liveCount);
+            Sort.Order order = singleIndexedOrder(sort);
+            if (order != null || sort.isUnsorted()) {
+                RowTree tree = order == null ? byDueDate : tree(order.getProperty());
+                tree.forEach(0, 0, liveCount, order != null && order.isDescending(), row -> all.add(materialize(row)));
+                return all;
+            }
+            List<Integer> rows = new ArrayList<>(liveCount);
+            byDueDate.forEach(0, 0, liveCount, false, rows::add);
+            rows.sort(rowComparator(sort));
+            for (int row : rows) all.add(materialize(row));
+            return all;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<Task> findAll(Pageable pageable) {
+        Sort.Order order = singleIndexedOrder(pageable.getSort());
+        if (pageable.isUnpaged() || (order == null && pageable.getSort().isSorted())) {
+            List<Task> sorted = (List<Task>) findAll(pageable.getSort());
+            return slice(sorted, pageable);
+        }
+        RowTree tree = order == null ? byDueDate : tree(order.getProperty());
+        return page(tree, 0, pageable, order != null && order.isDescending());
+    }
+
+    @Override
+    public Page<Task> findByStatus(TaskStatus taskStatus, Pageable pageable) {
+        Sort.Order order = singleIndexedOrder(pageable.getSort());
+        boolean dueDateOrder = pageable.getSort().isUnsorted() || (order != null && order.getProperty().equals("dueDate"));
+        if (pageable.isPaged() && dueDateOrder) {
+            return page(byStatus, taskStatus.ordinal(), pageable, order != null && order.isDescending());
+        }
+        List<Task> matching = new ArrayList<>();
+        for (Task t : findAll(pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("dueDate"))) {
+            if (t.getStatus() == taskStatus) matching.add(t);
+        }
+        return slice(matching, pageable);
+    }
+
+    @Override
+    public Window<Task> findByStatusAfter(TaskStatus taskStatus, KeysetScrollPosition position, int limit) {
+        RowTree tree = taskStatus == null ? byDueDate : byStatus;
+        int treeIndex = taskStatus == null ? 0 : taskStatus.ordinal();
+        List<Task> rows = new ArrayList<>(limit + 1);
+        lock.readLock().lock();
+        try {
+            int from = 0;
+            if (!position.isInitial()) {
+                LocalDate day = (LocalDate) position.getKeys().get("dueDate");
+                String id = (String) position.getKeys().get("id");
+                int probeDay = day == null ? NO_DAY : (int) day.toEpochDay();
+                from = tree.rank(treeIndex, row -> {
+                    int c = Integer.compare(probeDay, dueDay[row]);
+                    return c != 0 ? c : id.compareTo(idOf(row));
+                }, true);
+            }
+            tree.forEach(treeIndex, from, limit + 1, false, row -> rows.add(materialize(row)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        boolean hasNext = rows.size() > limit;
+        List<Task> page = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(page, i -> {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("dueDate", page.get(i).getDueDate());
+            keys.put("id", page.get(i).getId());
+            return ScrollPosition.forward(keys);
+        }, hasNext);
+    }
+
+    @Override
+    public Slice<Task> search(String query, TaskStatus taskStatus, Pageable pageable) {
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE - 1;
+        lock.readLock().lock();
+        try {
+            TextIndex.Hits hits = textIndex.search(query, taskStatus, offset, limit, this::compareIds, this::walkByDueDate);
+            List<Task> content = new ArrayList<>(hits.handles().length);
+            for (int row : hits.handles()) content.add(materialize(row));
+            return new SliceImpl<>(content, pageable, hits.hasMore());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskStatistics statistics(LocalDate today, LocalDate until) {
+        int todayDay = (int) today.toEpochDay();
+        int untilDay = (int) until.toEpochDay();
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        long overdue = 0;
+        long dueSoon = 0;
+        lock.readLock().lock();
+        try {
+            for (TaskStatus s : STATUSES) {
+                counts.put(s, (long) byStatus.size(s.ordinal()));
+                if (s == TaskStatus.DONE) continue;
+                // Probes sort before every row due the same day, so ranks count strictly earlier days
+                int beforeToday = byStatus.rank(s.ordinal(), row -> todayDay <= dueDay[row] ? -1 : 1, false);
+                overdue += beforeToday;
+                dueSoon += byStatus.rank(s.ordinal(), row -> untilDay <= dueDay[row] ? -1 : 1, false) - beforeToday;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new TaskStatistics(counts, overdue, dueSoon);
+    }
+
+    private void walkByDueDate(TaskStatus taskStatus, IntPredicate visitor) {
+        RowTree tree = taskStatus == null ? byDueDate : byStatus;
+        int treeIndex = taskStatus == null ? 0 : taskStatus.ordinal();
+        int[] chunk = new int[WALK_CHUNK];
+        int size = tree.size(treeIndex);
+        for (int from = 0; from < size; from += WALK_CHUNK) {
+            int[] n = {0};
+            tree.forEach(treeIndex, from, WALK_CHUNK, false, row -> chunk[n[0]++] = row);
+            for (int i = 0; i < n[0]; i++) if (!visitor.test(chunk[i])) return;
+        }
+    }
+
+    private Page<Task> page(RowTree tree, int treeIndex, Pageable pageable, boolean descending) {
+        lock.readLock().lock();
+        try {
+            List<Task> content = new ArrayList<>(pageable.getPageSize());
+            int from = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE);
+            tree.forEach(treeIndex, from, pageable.getPageSize(), descending, row -> content.add(materialize(row)));
+            return new PageImpl<>(content, pageable, tree.size(treeIndex));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Page<Task> slice(List<Task> all, Pageable pageable) {
+        if (pageable.isUnpaged()) return new PageImpl<>(all, pageable, all.size());
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+
+    private Task materialize(int row) {
+        LocalDate due = dueDay[row] == NO_DAY ? null : LocalDate.ofEpochDay(dueDay[row]);
+        return new Task(idOf(row), text.get(title[row]), text.get(description[row]), STATUSES[status[row]], due, version[row]);
+    }
+
+    private void index(int row) {
+        byDueDate.add(0, row);
+        byTitle.add(0, row);
+        byStatusId.add(0, row);
+        byStatus.add(status[row], row);
+    }
+
+    private void unindex(int row) {
+        byDueDate.remove(0, row);
+        byTitle.remove(0, row);
+        byStatusId.remove(0, row);
+        byStatus.remove(status[row], row);
+    }
+
+    private RowTree tree(String property) {
+        return switch (property) {
+            case "dueDate" -> byDueDate;
+            case "title" -> byTitle;
+            case "status" -> byStatusId;
+            default -> throw new IllegalArgumentException(property);
+        };
+    }
+
+    private static Sort.Order singleIndexedOrder(Sort sort) {
+        Sort.Order found = null;
+        for (Sort.Order order : sort) {
+            if (!Set.of("dueDate", "title", "status").contains(order.getProperty())) continue;
+            if (found != null) return null;
+            found = order;
+        }
+        return found;
+    }
+
+    private Comparator<Integer> rowComparator(Sort sort) {
+        Comparator<Integer> comparator = null;
+        for (Sort.Order order : sort) {
+            RowTree.RowComparator rc = switch (order.getProperty()) {
+                case "dueDate" -> this::compareDueDate;
+                case "title" -> this::compareTitle;
+                case "status" -> this::compareStatus;
+                default -> null;
+            };
+            if (rc == null) continue;
+            Comparator<Integer> c = (a, b) -> rc.compare(a, b);
+            if (order.isDescending()) c = c.reversed();
+            comparator = comparator == null ? c : comparator.thenComparing(c);
+        }
+        return comparator;
+    }
+
+    // --- ordering -------------------------------------------------------------------
+
+    private int compareDueDate(int a, int b) {
+        int c = Integer.compare(dueDay[a], dueDay[b]);
+        return c != 0 ? c : compareIds(a, b);
+    }
+
+    private int compareTitle(int a, int b) {
+        int c = text.compare(title[a], title[b]);
+        return c != 0 ? c : compareIds(a, b);
+    }
+
+    private int compareStatus(int a, int b) {
+        int c = Byte.compare(status[a], status[b]);
+        return c != 0 ? c : compareIds(a, b);
+    }
+
+    /** Same order as comparing the id strings: lowercase hex UUIDs sort like their unsigned halves. */
+    private int compareIds(int a, int b) {
+        if (otherIds.isEmpty() || (!otherIdByRow.containsKey(a) && !otherIdByRow.containsKey(b))) {
+            int c = Long.compareUnsigned(idHi[a], idHi[b]);
+            return c != 0 ? c : Long.compareUnsigned(idLo[a], idLo[b]);
+        }
+        return idOf(a).compareTo(idOf(b));
+    }
+
+    // --- ids and rows -----------------------------------------------------------------
+
+    private String idOf(int row) {
+        if (!otherIdByRow.isEmpty()) {
+            String other = otherIdByRow.get(row);
+            if (other != null) return other;
+        }
+        return new UUID(idHi[row], idLo[row]).toString();
+    }
+
+    private int rowOf(String id) {
+        if (!isCanonicalUuid(id)) {
+            Integer row = otherIds.get(id);
+            return row == null ? RowTree.NONE : row;
+        }
+        long hi = parseHex(id, 0, 8) << 32 | parseHex(id, 9, 13) << 16 | parseHex(id, 14, 18);
+        long lo = parseHex(id, 19, 23) << 48 | parseHex(id, 24, 36);
+        int mask = idTable.length - 1;
+        for (int slot = hash(hi, lo) & mask; ; slot = (slot + 1) & mask) {
+            int entry = idTable[slot];
+            if (entry == 0) return RowTree.NONE;
+            int row = entry - 1;
+            if (idHi[row] == hi && idLo[row] == lo) return row;
+        }
+    }
+
+    private int allocate(String id) {
+        int row;
+        if (freeCount > 0) {
+            row = freeRows[--freeCount];
+        } else {
+            if (highWater == capacity) grow();
+            row = highWater++;
+        }
+        liveCount++;
+        if (isCanonicalUuid(id)) {
+            idHi[row] = parseHex(id, 0, 8) << 32 | parseHex(id, 9, 13) << 16 | parseHex(id, 14, 18);
+            idLo[row] = parseHex(id, 19, 23) << 48 | parseHex(id, 24, 36);
+            if ((long) (liveCount - otherIds.size()) * 2 > idTable.length) rehash(idTable.length * 2);
+            tableInsert(row);
+        } else {
+            idHi[row] = 0;
+            idLo[row] = 0;
+            otherIds.put(id, row);
+            otherIdByRow.put(row, id);
+        }
+        return row;
+    }
+
+    private void release(int row) {
+        String other = otherIdByRow.remove(row);
+        if (other != null) {
+            otherIds.remove(other);
+        } else {
+            tableRemove(row);
+        }
+        status[row] = FREE;
+        title[row] = TextPool.NULL;
+        description[row] = TextPool.NULL;
+        if (freeCount == freeRows.length) freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+        freeRows[freeCount++] = row;
+        liveCount--;
+    }
+
+    private void tableInsert(int row) {
+        int mask = idTable.length - 1;
+        int slot = hash(idHi[row], idLo[row]) & mask;
+        while (idTable[slot] != 0) slot = (slot + 1) & mask;
+        idTable[slot] = row + 1;
+    }
+
+    /** Linear-probing delete with backward shift, so the table never accumulates tombstones. */
+    private void tableRemove(int row) {
+        int mask = idTable.length - 1;
+        int slot = hash(idHi[row], idLo[row]) & mask;
+        while (idTable[slot] != row + 1) slot = (slot + 1) & mask;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; idTable[next] != 0; next = (next + 1) & mask) {
+            int r = idTable[next] - 1;
+            int home = hash(idHi[r], idLo[r]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                idTable[hole] = idTable[next];
+                hole = next;
+            }
+        }
+        idTable[hole] = 0;
+    }
+
+    private void rehash(int size) {
+        int[] old = idTable;
+        idTable = new int[size];
+        for (int entry : old) if (entry != 0) tableInsert(entry - 1);
+    }
+
+    private void grow() {
+        capacity = capacity + (capacity >> 1);
+        idHi = Arrays.copyOf(idHi, capacity);
+        idLo = Arrays.copyOf(idLo, capacity);
+        dueDay = Arrays.copyOf(dueDay, capacity);
+        status = Arrays.copyOf(status, capacity);
+        title = Arrays.copyOf(title, capacity);
+        description = Arrays.copyOf(description, capacity);
+        version = Arrays.copyOf(version, capacity);
+        byDueDate.grow(capacity);
+        byTitle.grow(capacity);
+        byStatusId.grow(capacity);
+        byStatus.grow(capacity);
+    }
+
+    /** Copies live strings into a fresh pool; order of refs is unchanged, so indexes stay valid. */
+    private void compactText() {
+        TextPool fresh = new TextPool();
+        for (int row = 0; row < highWater; row++) {
+            if (status[row] == FREE) continue;
+            title[row] = title[row] == TextPool.NULL ? TextPool.NULL : fresh.add(text.bytes(title[row]));
+            description[row] = description[row] == TextPool.NULL ? TextPool.NULL : fresh.add(text.bytes(description[row]));
+        }
+        text = fresh;
+    }
+
+    private static int hash(long hi, long lo) {
+        long h = (hi ^ lo) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static boolean isCanonicalUuid(String id) {
+        if (id == null || id.length() != 36) return false;
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return false;
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String s, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '-') continue;
+            value = value << 4 | (c <= '9' ? c - '0' : c - 'a' + 10);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,249 @@
+package org.example.task.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link TaskRepository} that keeps every task in an {@link InMemoryTaskRepository} for
+ * reads and records every mutation in a {@link WriteAheadLog}.
+ * <p>
+ * Files in the directory share a generation number: {@code tasks-N.wal} holds the
+ * mutations made from generation N on, and {@code tasks-N.snap} holds every task as of
+ * (at least) the start of generation N. Opening loads the newest snapshot and replays
+ * only the log segments from its generation onwards.
+ */
+@Slf4j
+public class DurableTaskRepository implements TaskRepository, Closeable {
+    private static final Pattern FILE_NAME = Pattern.compile("tasks-(\\d+)\\.(wal|snap)");
+
+    private final Path directory;
+    private final InMemoryTaskRepository memory;
+    private final WriteAheadLog wal;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final ScheduledExecutorService snapshotter;
+    private long generation;
+    private long snapshotPosition;
+
+    private DurableTaskRepository(Path directory, InMemoryTaskRepository memory, WriteAheadLog wal, long generation,
+                                  Duration snapshotInterval) {
+        this.directory = directory;
+        this.memory = memory;
+        this.wal = wal;
+        this.generation = generation;
+        this.snapshotPosition = wal.position();
+        if (snapshotInterval.isZero() || snapshotInterval.isNegative()) {
+            snapshotter = null;
+        } else {
+            snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "task-snapshot");
+                t.setDaemon(true);
+                return t;
+            });
+            long intervalNanos = snapshotInterval.toNanos();
+            snapshotter.scheduleWithFixedDelay(this::snapshotIfChanged, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public static DurableTaskRepository open(Path directory, SyncPolicy syncPolicy, Duration groupCommitWindow,
+                                             Duration syncInterval, Duration snapshotInterval) throws IOException {
+        Files.createDirectories(directory);
+        TreeSet<Long> segments = new TreeSet<>();
+        TreeSet<Long> snapshots = new TreeSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(f -> {
+                Matcher m = FILE_NAME.matcher(f.getFileName().toString());
+                if (m.matches()) (m.group(2).equals("wal") ? segments : snapshots).add(Long.parseLong(m.group(1)));
+            });
+        }
+        InMemoryTaskRepository memory = new InMemoryTaskRepository();
+        long from = 0;
+        if (!snapshots.isEmpty()) {
+            from = snapshots.last();
+            memory.loadAll(TaskSnapshot.read(snapshotFile(directory, from)));
+        }
+        List<Long> tail = new ArrayList<>(segments.tailSet(from));
+        long active = tail.isEmpty() ? from : tail.remove(tail.size() - 1);
+        for (long gen : tail) WriteAheadLog.replay(segmentFile(directory, gen), memory::save, memory::deleteById);
+        WriteAheadLog wal = WriteAheadLog.open(segmentFile(directory, active), syncPolicy, groupCommitWindow,
+                syncInterval, memory::save, memory::deleteById);
+        return new DurableTaskRepository(directory, memory, wal, active, snapshotInterval);
+    }
+
+    @Override
+    public void save(Task entity) {
+        wal.appendSave(entity, () -> memory.save(entity));
+    }
+
+    @Override
+    public boolean replace(Task expected, Task updated) {
+        return wal.appendSaveIf(updated,
+                () -> memory.findById(expected.getId()).filter(t -> t.getVersion() == expected.getVersion()).isPresent(),
+                () -> memory.save(updated));
+    }
+
+    @Override
+    public void deleteById(String id) {
+        wal.appendDelete(id, () -> memory.deleteById(id));
+    }
+
+    @Override
+    public void saveAll(Iterable<Task> entities) {
+        List<Task> list = new ArrayList<>();
+        entities.forEach(list::add);
+        wal.appendBatch(list, List.of(), () -> memory.saveAll(list));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        List<String> list = new ArrayList<>();
+        ids.forEach(list::add);
+        wal.appendBatch(List.of(), list, () -> memory.deleteAllById(list));
+    }
+
+    /** Logs the writes that hold as one batch record, checked and applied under the wal's append lock. */
+    @Override
+    public Set<String> replaceAll(List<TaskWrite> writes) {
+        List<TaskWrite> holding = new ArrayList<>();
+        List<Task> saves = new ArrayList<>();
+        List<String> deletes = new ArrayList<>();
+        Set<String> conflicts = new HashSet<>();
+        wal.appendBatchIf(saves, deletes, () -> {
+            for (TaskWrite w : writes) {
+                if (!w.holds(memory.findById(w.id()).orElse(null))) {
+                    conflicts.add(w.id());
+                    continue;
+                }
+                holding.add(w);
+                if (w.updated() == null) deletes.add(w.id());
+                else saves.add(w.updated());
+            }
+            return !holding.isEmpty();
+        }, () -> memory.replaceAll(holding));
+        return conflicts;
+    }
+
+    @Override
+    public long generation() {
+        return memory.generation();
+    }
+
+    @Override
+    public Optional<Task> findById(String id) {
+        return memory.findById(id);
+    }
+
+    @Override
+    public Iterable<Task> findAll(Sort sort) {
+        return memory.findAll(sort);
+    }
+
+    @Override
+    public Page<Task> findAll(Pageable pageable) {
+        return memory.findAll(pageable);
+    }
+
+    @Override
+    public Page<Task> findByStatus(TaskStatus status, Pageable pageable) {
+        return memory.findByStatus(status, pageable);
+    }
+
+    @Override
+    public Window<Task> findByStatusAfter(TaskStatus status, KeysetScrollPosition position, int limit) {
+        return memory.findByStatusAfter(status, position, limit);
+    }
+
+    @Override
+    public Slice<Task> search(String text, TaskStatus status, Pageable pageable) {
+        return memory.search(text, status, pageable);
+    }
+
+    /** Changes replayed from disk on open happened before any listener could register and are not reported. */
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+        memory.addChangeListener(listener);
+    }
+
+    @Override
+    public TaskStatistics statistics(LocalDate today, LocalDate until) {
+        return memory.statistics(today, until);
+    }
+
+    /**
+     * Writes a compacted snapshot and drops the files it supersedes. Writers are blocked
+     * only while the log switches segments; the snapshot itself is a weakly consistent
+     * walk of memory, which is safe because every mutation that races with it is also in
+     * the new segment and gets replayed on top of it.
+     */
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            long next = generation + 1;
+            long position = wal.position();
+            wal.rotate(segmentFile(directory, next));
+            generation = next;
+            TaskSnapshot.write(snapshotFile(directory, next), memory::forEachTask);
+            snapshotPosition = position;
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path f : (Iterable<Path>) files::iterator) {
+                    Matcher m = FILE_NAME.matcher(f.getFileName().toString());
+                    if (m.matches() && Long.parseLong(m.group(1)) < next) Files.deleteIfExists(f);
+                }
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void snapshotIfChanged() {
+        if (wal.position() == snapshotPosition) return;
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            // The log still holds everything; try again on the next tick. An exception would cancel the schedule
+            log.warn("Snapshotting the task store failed", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (snapshotter != null) {
+            snapshotter.shutdown();
+            try {
+                snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        wal.close();
+    }
+
+    private static Path segmentFile(Path directory, long generation) {
+        return directory.resolve(String.format("tasks-%019d.wal", generation));
+    }
+
+    private static Path snapshotFile(Path directory, long generation) {
+        return directory.resolve(String.format("tasks-%019d.snap", generation));
+    }
+}
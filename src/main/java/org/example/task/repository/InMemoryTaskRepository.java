@@ -1,56 +1,554 @@
 package org.example.task.repository;
 
 import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
+import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 
+/**
+ * Tasks in a concurrent map, with order-statistic indexes for sorted pages and a text index
+ * for search. A write swaps one task under that task's stripe lock, so writes to different
+ * tasks run in parallel, and queues the change for the indexes. The indexes take queued
+ * changes in under the write lock: an index read merges whatever is waiting first, so it
+ * sees every write that returned before it started, and writers merge in batches when the
+ * lock is free.
+ */
 public class InMemoryTaskRepository implements TaskRepository {
+    // Compares the primitive day rather than LocalDate objects: one dereference less per tree level
+    private static final Comparator<Entry> BY_DUE_DATE = (a, b) -> {
+        int c = Long.compare(a.dueDay(), b.dueDay());
+        return c != 0 ? c : a.id().compareTo(b.id());
+    };
+    private static final Comparator<Entry> BY_TITLE = Comparator
+            .comparing(Entry::title, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+            .thenComparing(Entry::id);
+    private static final Comparator<Entry> BY_STATUS = Comparator
+            .comparing(Entry::status)
+            .thenComparing(Entry::id);
+    private static final int WALK_CHUNK = 256;
+    private static final int STRIPES = 64;
+    // A writer merges waiting changes into the indexes from this many on, if nobody holds the lock
+    private static final int MERGE_BATCH = 64;
+    // From this many on a writer waits for the lock to merge, which bounds the work left to readers
+    private static final int MAX_PENDING = 1024;
+
+    // Source of truth, read without a lock; a task only changes under its stripe's lock
     private final Map<String, Task> store = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    // Committed changes the indexes have not taken in yet, each task's in commit order
+    private final Queue<Delta> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // Everything below is only touched under the write lock
+    // Index entry of every task the indexes hold
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, OrderStatisticTree<Entry>> indexes = Map.of(
+            "dueDate", new OrderStatisticTree<>(BY_DUE_DATE),
+            "title", new OrderStatisticTree<>(BY_TITLE),
+            "status", new OrderStatisticTree<>(BY_STATUS));
+    // (status, dueDate, id) composite index, one tree per status
+    private final Map<TaskStatus, OrderStatisticTree<Entry>> byStatus = new EnumMap<>(TaskStatus.class);
+    // Words of title and description by slot; a deleted task's slot goes to the next new task
+    private final TextIndex textIndex = new TextIndex();
+    private Entry[] slots = new Entry[1024];
+    private int slotCount;
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    private final List<TaskChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final ReentrantLock listenerLock = new ReentrantLock();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong generation = new AtomicLong();
+
+    public InMemoryTaskRepository() {
+        for (TaskStatus status : TaskStatus.values()) byStatus.put(status, new OrderStatisticTree<>(BY_DUE_DATE));
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+    }
 
     @Override
     public Iterable<Task> findAll(Sort sort) {
-        List<Task> all = new ArrayList<>(store.values());
-        Comparator<Task> comparator = null;
-        for (Sort.Order order : sort) {
-            Comparator<Task> c = switch (order.getProperty()) {
-                case "dueDate" -> Comparator.comparing(Task::getDueDate);
-                case "title" -> Comparator.comparing(Task::getTitle, Comparator.nullsLast(String::compareTo));
-                case "status" -> Comparator.comparing(Task::getStatus);
-                default -> null;
-            };
-            if (c != null) {
-                if (order.isDescending()) c = c.reversed();
-                comparator = comparator == null ? c : comparator.thenComparing(c);
+        catchUp();
+        lock.readLock().lock();
+        try {
+            List<Task> all = new ArrayList<>(entries.size());
+            Sort.Order order = singleIndexedOrder(sort);
+            if (order != null) {
+                indexes.get(order.getProperty()).forEach(0, entries.size(), order.isDescending(), e -> all.add(e.task()));
+                return all;
             }
+            Comparator<Entry> comparator = comparator(sort);
+            List<Entry> sorted = new ArrayList<>(entries.values());
+            if (comparator != null) sorted.sort(comparator);
+            for (Entry e : sorted) all.add(e.task());
+            return all;
+        } finally {
+            lock.readLock().unlock();
         }
-        if (comparator != null) all.sort(comparator);
-        return all;
     }
 
     @Override
     public Page<Task> findAll(Pageable pageable) {
-        List<Task> sorted = (List<Task>) findAll(pageable.getSort());
-        int from = Math.min(pageable.getPageNumber() * pageable.getPageSize(), sorted.size());
-        int to = Math.min(from + pageable.getPageSize(), sorted.size());
-        List<Task> content = sorted.subList(from, to);
-        return new PageImpl<>(content, pageable, sorted.size());
+        if (pageable.isUnpaged()) {
+            List<Task> all = (List<Task>) findAll(pageable.getSort());
+            return new PageImpl<>(all, pageable, all.size());
+        }
+        Sort.Order order = singleIndexedOrder(pageable.getSort());
+        if (order == null && pageable.getSort().isSorted() && comparator(pageable.getSort()) != null) {
+            // Compound sorts have no index; fall back to sorting a snapshot
+            List<Task> sorted = (List<Task>) findAll(pageable.getSort());
+            int from = (int) Math.min(pageable.getOffset(), sorted.size());
+            int to = Math.min(from + pageable.getPageSize(), sorted.size());
+            return new PageImpl<>(sorted.subList(from, to), pageable, sorted.size());
+        }
+        String property = order == null ? "dueDate" : order.getProperty();
+        return page(indexes.get(property), pageable, order != null && order.isDescending());
+    }
+
+    @Override
+    public Page<Task> findByStatus(TaskStatus status, Pageable pageable) {
+        Sort.Order order = singleIndexedOrder(pageable.getSort());
+        boolean dueDateOrder = pageable.getSort().isUnsorted() || (order != null && order.getProperty().equals("dueDate"));
+        if (pageable.isPaged() && dueDateOrder) {
+            return page(byStatus.get(status), pageable, order != null && order.isDescending());
+        }
+        // Other orders have no per-status index; filter a sorted snapshot instead
+        List<Task> matching = new ArrayList<>();
+        for (Task t : findAll(pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("dueDate"))) {
+            if (t.getStatus() == status) matching.add(t);
+        }
+        if (pageable.isUnpaged()) return new PageImpl<>(matching, pageable, matching.size());
+        int from = (int) Math.min(pageable.getOffset(), matching.size());
+        int to = Math.min(from + pageable.getPageSize(), matching.size());
+        return new PageImpl<>(matching.subList(from, to), pageable, matching.size());
+    }
+
+    @Override
+    public Window<Task> findByStatusAfter(TaskStatus status, KeysetScrollPosition position, int limit) {
+        OrderStatisticTree<Entry> index = status == null ? indexes.get("dueDate") : byStatus.get(status);
+        List<Entry> rows = new ArrayList<>(limit + 1);
+        catchUp();
+        lock.readLock().lock();
+        try {
+            int from = 0;
+            if (!position.isInitial()) {
+                Map<String, Object> keys = position.getKeys();
+                Entry probe = new Entry((String) keys.get("id"), (LocalDate) keys.get("dueDate"), null, null, null, -1);
+                from = index.rank(probe, true);
+            }
+            index.forEach(from, limit + 1, false, rows::add);
+        } finally {
+            lock.readLock().unlock();
+        }
+        boolean hasNext = rows.size() > limit;
+        List<Entry> page = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(page.stream().map(Entry::task).toList(), i -> keysOf(page.get(i)), hasNext);
+    }
+
+    @Override
+    public Slice<Task> search(String text, TaskStatus status, Pageable pageable) {
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE - 1;
+        catchUp();
+        lock.readLock().lock();
+        try {
+            TextIndex.Hits hits = textIndex.search(text, status, offset, limit,
+                    (a, b) -> slots[a].id().compareTo(slots[b].id()), this::walkByDueDate);
+            List<Task> content = new ArrayList<>(hits.handles().length);
+            for (int slot : hits.handles()) content.add(slots[slot].task());
+            return new SliceImpl<>(content, pageable, hits.hasMore());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskStatistics statistics(LocalDate today, LocalDate until) {
+        Entry dueToday = new Entry("", today, null, null, null, -1);
+        Entry dueUntil = new Entry("", until, null, null, null, -1);
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        long overdue = 0;
+        long dueSoon = 0;
+        catchUp();
+        lock.readLock().lock();
+        try {
+            for (TaskStatus status : TaskStatus.values()) {
+                OrderStatisticTree<Entry> index = byStatus.get(status);
+                counts.put(status, (long) index.size());
+                if (status == TaskStatus.DONE) continue;
+                int beforeToday = index.rank(dueToday);
+                overdue += beforeToday;
+                dueSoon += index.rank(dueUntil) - beforeToday;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new TaskStatistics(counts, overdue, dueSoon);
+    }
+
+    private void walkByDueDate(TaskStatus status, IntPredicate visitor) {
+        OrderStatisticTree<Entry> index = status == null ? indexes.get("dueDate") : byStatus.get(status);
+        List<Entry> chunk = new ArrayList<>(WALK_CHUNK);
+        for (int from = 0; from < index.size(); from += WALK_CHUNK) {
+            chunk.clear();
+            index.forEach(from, WALK_CHUNK, false, chunk::add);
+            for (Entry e : chunk) if (!visitor.test(e.slot())) return;
+        }
+    }
+
+    /**
+     * Up to {@code limit} tasks from position {@code from} of one index: {@code property}'s, or
+     * the dueDate index of {@code status} when one is given. For stores merging several of these.
+     */
+    List<Task> range(String property, TaskStatus status, boolean descending, long from, int limit) {
+        catchUp();
+        lock.readLock().lock();
+        try {
+            OrderStatisticTree<Entry> index = status == null ? indexes.get(property) : byStatus.get(status);
+            List<Task> out = new ArrayList<>(Math.min(limit, index.size()));
+            index.forEach((int) Math.min(from, Integer.MAX_VALUE), limit, descending, e -> out.add(e.task()));
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** How many tasks come before {@code task} in the index {@link #range} reads, in the same direction. */
+    long rank(String property, TaskStatus status, boolean descending, Task task) {
+        catchUp();
+        lock.readLock().lock();
+        try {
+            OrderStatisticTree<Entry> index = status == null ? indexes.get(property) : byStatus.get(status);
+            Entry probe = Entry.of(task, -1);
+            return descending ? index.size() - index.rank(probe, true) : index.rank(probe);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Tasks stored, or of one status when {@code status} is given. */
+    int count(TaskStatus status) {
+        catchUp();
+        lock.readLock().lock();
+        try {
+            return status == null ? entries.size() : byStatus.get(status).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Held by every index read; holding it keeps changes out of the indexes so several reads
+     * see one state. Writes still commit meanwhile and are merged once it is released.
+     */
+    Lock readLock() {
+        catchUp();
+        return lock.readLock();
+    }
+
+    private static ScrollPosition keysOf(Entry entry) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("dueDate", entry.dueDate());
+        keys.put("id", entry.id());
+        return ScrollPosition.forward(keys);
+    }
+
+    private Page<Task> page(OrderStatisticTree<Entry> index, Pageable pageable, boolean descending) {
+        catchUp();
+        lock.readLock().lock();
+        try {
+            List<Task> content = new ArrayList<>(pageable.getPageSize());
+            int from = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE);
+            index.forEach(from, pageable.getPageSize(), descending, e -> content.add(e.task()));
+            return new PageImpl<>(content, pageable, index.size());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public void save(Task entity) {
-        store.put(entity.getId(), entity);
+        install(entity.getId(), current -> true, entity, true);
+        generation.incrementAndGet();
+        mergeIfDue();
     }
 
-//    @Override
-//    public <S extends Task> Iterable<S> saveAll(Iterable<S> entities) {
-//        for (S t : entities) store.put(t.getId(), t);
-//        return entities;
-//    }
+    /** Commits task by task, in parallel with other writes; index reads may see part of the batch. */
+    @Override
+    public void saveAll(Iterable<Task> entities) {
+        for (Task t : entities) install(t.getId(), current -> true, t, true);
+        generation.incrementAndGet();
+        mergeIfDue();
+    }
+
+    /**
+     * Compares versions and swaps under the task's stripe lock, so the winner of a race is
+     * the one whose change listeners see, from exactly the version it replaced. Updates to
+     * tasks on other stripes go ahead meanwhile.
+     */
+    @Override
+    public boolean replace(Task expected, Task updated) {
+        boolean replaced = install(expected.getId(),
+                current -> current != null && current.getVersion() == expected.getVersion(), updated, true);
+        if (!replaced) return false;
+        generation.incrementAndGet();
+        mergeIfDue();
+        return true;
+    }
+
+    /** Checks and commits each write under its own stripe lock, like {@link #saveAll}. */
+    @Override
+    public Set<String> replaceAll(List<TaskWrite> writes) {
+        Set<String> conflicts = new HashSet<>();
+        for (TaskWrite w : writes) {
+            if (!install(w.id(), w::holds, w.updated(), true)) conflicts.add(w.id());
+        }
+        generation.incrementAndGet();
+        mergeIfDue();
+        return conflicts;
+    }
+
+    /**
+     * Stores {@code task} under {@code id}, or deletes it when null, if {@code holds} accepts
+     * the task stored now; false when it does not. Check and swap run under the stripe lock
+     * of {@code id}, so {@code listeners} learn of every change with the exact version it
+     * replaced, in that task's commit order. {@code notify} is false for tasks that only move
+     * between stores, which is no change to report. The indexes catch up later, see {@link #merge}.
+     */
+    private boolean install(String id, Predicate<Task> holds, Task task, boolean notify) {
+        ReentrantLock stripe = stripeOf(id);
+        stripe.lock();
+        try {
+            Task previous = store.get(id);
+            if (!holds.test(previous)) return false;
+            if (previous == task) return true;
+            if (task == null) store.remove(id);
+            else store.put(id, task);
+            if (notify && !listeners.isEmpty()) {
+                listenerLock.lock();
+                try {
+                    for (TaskChangeListener listener : listeners) listener.changed(previous, task);
+                } finally {
+                    listenerLock.unlock();
+                }
+            }
+            pending.add(new Delta(id, task));
+            pendingCount.incrementAndGet();
+            return true;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private ReentrantLock stripeOf(String id) {
+        int h = id.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Brings the indexes up to date before an index read. Skipped while this thread holds
+     * the read lock, which cannot be upgraded; {@link #readLock} catches up before handing it out.
+     */
+    private void catchUp() {
+        if (pendingCount.get() == 0 || lock.getReadHoldCount() > 0) return;
+        lock.writeLock().lock();
+        try {
+            merge();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lets a writer merge a batch of waiting changes when the write lock is free, and wait
+     * for it only once the queue is long, so updates rarely queue behind readers.
+     */
+    private void mergeIfDue() {
+        int waiting = pendingCount.get();
+        if (waiting < MERGE_BATCH || lock.getReadHoldCount() > 0) return;
+        if (waiting >= MAX_PENDING) lock.writeLock().lock();
+        else if (!lock.writeLock().tryLock()) return;
+        try {
+            merge();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the changes waiting in {@code pending} to the indexes. Under the write lock.
+     * A task's changes are queued under its stripe lock, so they arrive in commit order.
+     */
+    private void merge() {
+        int count = pendingCount.get();
+        for (int i = 0; i < count; i++) {
+            Delta delta = pending.poll();
+            index(delta.id(), delta.task());
+        }
+        pendingCount.addAndGet(-count);
+    }
+
+    /** Makes the indexes hold {@code task} under {@code id}, or nothing when null. Under the write lock. */
+    private void index(String id, Task task) {
+        Entry previous = entries.get(id);
+        if (previous == null && task == null) return;
+        if (previous != null && previous.task() == task) return;
+        if (previous != null) unindex(previous);
+        if (task == null) {
+            entries.remove(id);
+            textIndex.remove(previous.slot());
+            releaseSlot(previous.slot());
+        } else {
+            Entry entry = Entry.of(task, previous == null ? allocateSlot() : previous.slot());
+            entries.put(id, entry);
+            slots[entry.slot()] = entry;
+            for (OrderStatisticTree<Entry> index : indexes.values()) index.add(entry);
+            byStatus.get(entry.status()).add(entry);
+            if (previous != null && sameText(previous.task(), task)) {
+                textIndex.retag(entry.slot(), task.getStatus(), task.getDueDate());
+            } else {
+                indexText(entry);
+            }
+        }
+    }
+
+    private void unindex(Entry entry) {
+        for (OrderStatisticTree<Entry> index : indexes.values()) index.remove(entry);
+        byStatus.get(entry.status()).remove(entry);
+    }
+
+    private void indexText(Entry entry) {
+        Task t = entry.task();
+        textIndex.put(entry.slot(), t.getTitle(), t.getDescription(), t.getStatus(), t.getDueDate());
+    }
+
+    private static boolean sameText(Task a, Task b) {
+        return Objects.equals(a.getTitle(), b.getTitle()) && Objects.equals(a.getDescription(), b.getDescription());
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) return freeSlots[--freeCount];
+        if (slotCount == slots.length) slots = Arrays.copyOf(slots, slotCount * 2);
+        return slotCount++;
+    }
+
+    private void releaseSlot(int slot) {
+        slots[slot] = null;
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Bulk-loads tasks, e.g. from a snapshot. Into an empty repository this sorts each
+     * index once and builds it balanced, instead of rebalancing per insert.
+     */
+    void loadAll(Collection<Task> tasks) {
+        lock.writeLock().lock();
+        for (ReentrantLock stripe : stripes) stripe.lock();
+        try {
+            merge();
+            if (!entries.isEmpty()) {
+                for (Task t : tasks) install(t.getId(), current -> true, t, true);
+                merge();
+                generation.incrementAndGet();
+                return;
+            }
+            for (Task t : tasks) {
+                Entry previous = entries.get(t.getId());
+                Entry entry = Entry.of(t, previous == null ? allocateSlot() : previous.slot());
+                entries.put(t.getId(), entry);
+                slots[entry.slot()] = entry;
+                indexText(entry);
+            }
+            Entry[] all = entries.values().toArray(new Entry[0]);
+            for (OrderStatisticTree<Entry> index : indexes.values()) index.reset(all.clone());
+            Map<TaskStatus, List<Entry>> perStatus = new EnumMap<>(TaskStatus.class);
+            for (Entry e : all) perStatus.computeIfAbsent(e.status(), s -> new ArrayList<>()).add(e);
+            perStatus.forEach((status, list) -> byStatus.get(status).reset(list.toArray(new Entry[0])));
+            for (Entry e : all) store.put(e.id(), e.task());
+            listenerLock.lock();
+            try {
+                for (TaskChangeListener listener : listeners) {
+                    for (Entry e : all) listener.changed(null, e.task());
+                }
+            } finally {
+                listenerLock.unlock();
+            }
+            generation.incrementAndGet();
+        } finally {
+            for (ReentrantLock stripe : stripes) stripe.unlock();
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes each of {@code tasks} that is still stored as that very version, without
+     * telling listeners: for a store that moves tasks elsewhere rather than deleting them.
+     * Returns the tasks removed. Holds the write lock throughout, so index reads see all of
+     * the move or none of it.
+     */
+    List<Task> evict(Collection<Task> tasks) {
+        List<Task> evicted = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            for (Task t : tasks) {
+                if (install(t.getId(), current -> current == t, null, false)) evicted.add(t);
+            }
+            merge();
+            generation.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return evicted;
+    }
+
+    /** Stores {@code tasks} brought back from elsewhere, without telling listeners; the counterpart of {@link #evict}. */
+    void restore(Collection<Task> tasks) {
+        lock.writeLock().lock();
+        try {
+            for (Task t : tasks) install(t.getId(), current -> true, t, false);
+            merge();
+            generation.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Visits every stored task without blocking writers. Weakly consistent: tasks saved or
+     * deleted during the walk may or may not be seen.
+     */
+    void forEachTask(Consumer<Task> action) {
+        for (Task t : store.values()) action.accept(t);
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public long generation() {
+        return generation.get();
+    }
 
     @Override
     public Optional<Task> findById(String id) {
@@ -84,7 +582,16 @@ public class InMemoryTaskRepository implements TaskRepository {
 
     @Override
     public void deleteById(String id) {
-        store.remove(id);
+        install(id, current -> true, null, true);
+        generation.incrementAndGet();
+        mergeIfDue();
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        for (String id : ids) install(id, current -> true, null, true);
+        generation.incrementAndGet();
+        mergeIfDue();
     }
 
 //    @Override
@@ -92,11 +599,6 @@ public class InMemoryTaskRepository implements TaskRepository {
 //        if (entity != null) store.remove(entity.getId());
 //    }
 
-//    @Override
-//    public void deleteAllById(Iterable<? extends String> ids) {
-//        for (String id : ids) store.remove(id);
-//    }
-
 //    @Override
 //    public void deleteAll(Iterable<? extends Task> entities) {
 //        for (Task t : entities) store.remove(t.getId());
@@ -106,4 +608,46 @@ public class InMemoryTaskRepository implements TaskRepository {
 //    public void deleteAll() {
 //        store.clear();
 //    }
+
+    /** The only supported order in {@code sort}, if there is exactly one; unknown properties are ignored. */
+    private Sort.Order singleIndexedOrder(Sort sort) {
+        Sort.Order found = null;
+        for (Sort.Order order : sort) {
+            if (!indexes.containsKey(order.getProperty())) continue;
+            if (found != null) return null;
+            found = order;
+        }
+        return found;
+    }
+
+    private static Comparator<Entry> comparator(Sort sort) {
+        Comparator<Entry> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Entry> c = switch (order.getProperty()) {
+                case "dueDate" -> BY_DUE_DATE;
+                case "title" -> BY_TITLE;
+                case "status" -> BY_STATUS;
+                default -> null;
+            };
+            if (c != null) {
+                if (order.isDescending()) c = c.reversed();
+                comparator = comparator == null ? c : comparator.thenComparing(c);
+            }
+        }
+        return comparator;
+    }
+
+    /** {@code dueDay} is the due date's epoch day, or {@code Long.MAX_VALUE} without one, so missing dates sort last. */
+    private record Delta(String id, Task task) {
+    }
+
+    private record Entry(String id, LocalDate dueDate, String title, TaskStatus status, Task task, int slot, long dueDay) {
+        Entry(String id, LocalDate dueDate, String title, TaskStatus status, Task task, int slot) {
+            this(id, dueDate, title, status, task, slot, dueDate == null ? Long.MAX_VALUE : dueDate.toEpochDay());
+        }
+
+        static Entry of(Task task, int slot) {
+            return new Entry(task.getId(), task.getDueDate(), task.getTitle(), task.getStatus(), task, slot);
+        }
+    }
 }
@@ -0,0 +1,217 @@
+package org.example.task.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every operation of another {@link TaskRepository} and publishes its size per
+ * status as gauges. Timers are registered once up front, so recording a call allocates
+ * nothing; gauges are only evaluated when metrics are scraped.
+ */
+public class MeteredTaskRepository implements TaskRepository, Closeable {
+    private final TaskRepository delegate;
+    private final Timer save;
+    private final Timer saveAll;
+    private final Timer replace;
+    private final Timer replaceAll;
+    private final Timer findById;
+    private final Timer findAll;
+    private final Timer findByStatus;
+    private final Timer findByStatusAfter;
+    private final Timer search;
+    private final Timer statistics;
+    private final Timer deleteById;
+    private final Timer deleteAllById;
+
+    public MeteredTaskRepository(TaskRepository delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.save = timer(registry, "save");
+        this.saveAll = timer(registry, "saveAll");
+        this.replace = timer(registry, "replace");
+        this.replaceAll = timer(registry, "replaceAll");
+        this.findById = timer(registry, "findById");
+        this.findAll = timer(registry, "findAll");
+        this.findByStatus = timer(registry, "findByStatus");
+        this.findByStatusAfter = timer(registry, "findByStatusAfter");
+        this.search = timer(registry, "search");
+        this.statistics = timer(registry, "statistics");
+        this.deleteById = timer(registry, "deleteById");
+        this.deleteAllById = timer(registry, "deleteAllById");
+        Gauge.builder("tasks.store.size", delegate, r -> r.findAll(PageRequest.of(0, 1)).getTotalElements())
+                .description("Tasks currently stored").register(registry);
+        for (TaskStatus status : TaskStatus.values()) {
+            Gauge.builder("tasks.stored", delegate, r -> r.findByStatus(status, PageRequest.of(0, 1)).getTotalElements())
+                    .tag("status", status.name()).description("Tasks currently stored, by status").register(registry);
+        }
+    }
+
+    private static Timer timer(MeterRegistry registry, String operation) {
+        return Timer.builder("tasks.repository.operations")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public void save(Task entity) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(entity);
+        } finally {
+            save.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void saveAll(Iterable<Task> entities) {
+        long start = System.nanoTime();
+        try {
+            delegate.saveAll(entities);
+        } finally {
+            saveAll.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean replace(Task expected, Task updated) {
+        long start = System.nanoTime();
+        try {
+            return delegate.replace(expected, updated);
+        } finally {
+            replace.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Set<String> replaceAll(List<TaskWrite> writes) {
+        long start = System.nanoTime();
+        try {
+            return delegate.replaceAll(writes);
+        } finally {
+            replaceAll.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Optional<Task> findById(String id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findById(id);
+        } finally {
+            findById.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Iterable<Task> findAll(Sort sort) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAll(sort);
+        } finally {
+            findAll.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Page<Task> findAll(Pageable pageable) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAll(pageable);
+        } finally {
+            findAll.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Page<Task> findByStatus(TaskStatus status, Pageable pageable) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByStatus(status, pageable);
+        } finally {
+            findByStatus.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Window<Task> findByStatusAfter(TaskStatus status, KeysetScrollPosition position, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByStatusAfter(status, position, limit);
+        } finally {
+            findByStatusAfter.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Slice<Task> search(String text, TaskStatus status, Pageable pageable) {
+        long start = System.nanoTime();
+        try {
+            return delegate.search(text, status, pageable);
+        } finally {
+            search.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+        delegate.addChangeListener(listener);
+    }
+
+    @Override
+    public TaskStatistics statistics(LocalDate today, LocalDate until) {
+        long start = System.nanoTime();
+        try {
+            return delegate.statistics(today, until);
+        } finally {
+            statistics.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void deleteById(String id) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteById(id);
+        } finally {
+            deleteById.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteAllById(ids);
+        } finally {
+            deleteAllById.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public long generation() {
+        return delegate.generation();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) closeable.close();
+    }
+}
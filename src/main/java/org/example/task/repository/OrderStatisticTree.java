@@ -0,0 +1,203 @@
+package org.example.task.repository;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * AVL tree where every node also tracks the size of its subtree, so positional
+ * lookups (the n-th element, the rank of a key) cost O(log n) instead of a scan.
+ * Not thread-safe: callers guard it with their own lock.
+ */
+final class OrderStatisticTree<E> {
+    private final Comparator<? super E> comparator;
+    private Node<E> root;
+
+    OrderStatisticTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    boolean add(E value) {
+        int before = size();
+        root = insert(root, value);
+        return size() != before;
+    }
+
+    boolean remove(E value) {
+        int before = size();
+        root = delete(root, value);
+        return size() != before;
+    }
+
+    void clear() {
+        root = null;
+    }
+
+    /** Replaces the contents with {@code values} (no duplicates) by sorting once and building a balanced tree. */
+    void reset(E[] values) {
+        Arrays.parallelSort(values, comparator);
+        root = build(values, 0, values.length);
+    }
+
+    /** Number of elements strictly less than {@code key}. */
+    int rank(E key) {
+        return rank(key, false);
+    }
+
+    /** Number of elements less than {@code key}, or less than or equal to it when {@code inclusive}. */
+    int rank(E key, boolean inclusive) {
+        int rank = 0;
+        Node<E> n = root;
+        while (n != null) {
+            int c = comparator.compare(key, n.value);
+            if (inclusive ? c < 0 : c <= 0) {
+                n = n.left;
+            } else {
+                rank += size(n.left) + 1;
+                n = n.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Visits up to {@code limit} elements starting at position {@code from} of the
+     * ascending (or descending) order. Costs O(log n + limit).
+     */
+    void forEach(int from, int limit, boolean descending, Consumer<? super E> action) {
+        if (from < 0 || limit <= 0) return;
+        Deque<Node<E>> path = new ArrayDeque<>();
+        Node<E> n = root;
+        int skip = from;
+        while (n != null) {
+            int before = size(near(n, descending));
+            if (skip < before) {
+                path.push(n);
+                n = near(n, descending);
+            } else if (skip == before) {
+                path.push(n);
+                break;
+            } else {
+                skip -= before + 1;
+                n = far(n, descending);
+            }
+        }
+        int visited = 0;
+        while (!path.isEmpty() && visited < limit) {
+            Node<E> current = path.pop();
+            action.accept(current.value);
+            visited++;
+            for (Node<E> m = far(current, descending); m != null; m = near(m, descending)) {
+                path.push(m);
+            }
+        }
+    }
+
+    private static <E> Node<E> near(Node<E> n, boolean descending) {
+        return descending ? n.right : n.left;
+    }
+
+    private static <E> Node<E> far(Node<E> n, boolean descending) {
+        return descending ? n.left : n.right;
+    }
+
+    private static <E> Node<E> build(E[] sorted, int from, int to) {
+        if (from >= to) return null;
+        int mid = (from + to) >>> 1;
+        Node<E> n = new Node<>(sorted[mid]);
+        n.left = build(sorted, from, mid);
+        n.right = build(sorted, mid + 1, to);
+        update(n);
+        return n;
+    }
+
+    private Node<E> insert(Node<E> n, E value) {
+        if (n == null) return new Node<>(value);
+        int c = comparator.compare(value, n.value);
+        if (c < 0) n.left = insert(n.left, value);
+        else if (c > 0) n.right = insert(n.right, value);
+        else return n;
+        return rebalance(n);
+    }
+
+    private Node<E> delete(Node<E> n, E value) {
+        if (n == null) return null;
+        int c = comparator.compare(value, n.value);
+        if (c < 0) {
+            n.left = delete(n.left, value);
+        } else if (c > 0) {
+            n.right = delete(n.right, value);
+        } else {
+            if (n.left == null) return n.right;
+            if (n.right == null) return n.left;
+            Node<E> successor = n.right;
+            while (successor.left != null) successor = successor.left;
+            n.value = successor.value;
+            n.right = delete(n.right, successor.value);
+        }
+        return rebalance(n);
+    }
+
+    private Node<E> rebalance(Node<E> n) {
+        update(n);
+        int balance = height(n.left) - height(n.right);
+        if (balance > 1) {
+            if (height(n.left.left) < height(n.left.right)) n.left = rotateLeft(n.left);
+            return rotateRight(n);
+        }
+        if (balance < -1) {
+            if (height(n.right.right) < height(n.right.left)) n.right = rotateRight(n.right);
+            return rotateLeft(n);
+        }
+        return n;
+    }
+
+    private Node<E> rotateLeft(Node<E> n) {
+        Node<E> r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    private Node<E> rotateRight(Node<E> n) {
+        Node<E> l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static void update(Node<?> n) {
+        n.height = Math.max(height(n.left), height(n.right)) + 1;
+        n.size = size(n.left) + size(n.right) + 1;
+    }
+
+    private static int height(Node<?> n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static int size(Node<?> n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static final class Node<E> {
+        E value;
+        Node<E> left;
+        Node<E> right;
+        int height = 1;
+        int size = 1;
+
+        Node(E value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,526 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Spreads tasks over N {@link InMemoryTaskRepository} shards by id hash, so writes to
+ * different shards take different locks and update their indexes in parallel. Sorted queries
+ * merge the shards' own indexes: a page at offset {@code o} first works out where each
+ * shard's share of it starts, by ranking a few pivot rows in every shard's order-statistic
+ * tree without reading the rows it skips, and then merges about a page-sized run per shard
+ * with a heap. Gathers too large to do inline (unpaged sorts, deep search pages,
+ * batch writes) fan out to a {@link ForkJoinPool}.
+ * <p>
+ * Reads that span shards see one state: a read is repeated if some shard committed a write
+ * while it ran, and after a few tries is run once more holding every shard's read lock, so a
+ * page never misses or repeats a task. Batch writes are atomic per shard, not across shards.
+ * Change listeners are called one at a time, in each shard's commit order.
+ */
+public class PartitionedTaskRepository implements TaskRepository {
+    // Spelled out rather than composed, since merges call them for every row they pass over
+    private static final Comparator<Task> BY_DUE_DATE = (a, b) -> {
+        int c = compareNullsLast(a.getDueDate(), b.getDueDate());
+        return c != 0 ? c : a.getId().compareTo(b.getId());
+    };
+    private static final Comparator<Task> BY_TITLE = (a, b) -> {
+        int c = compareNullsLast(a.getTitle(), b.getTitle());
+        return c != 0 ? c : a.getId().compareTo(b.getId());
+    };
+    private static final Comparator<Task> BY_STATUS = (a, b) -> {
+        int c = a.getStatus().compareTo(b.getStatus());
+        return c != 0 ? c : a.getId().compareTo(b.getId());
+    };
+    private static final Map<String, Comparator<Task>> INDEXES = Map.of(
+            "dueDate", BY_DUE_DATE, "title", BY_TITLE, "status", BY_STATUS);
+    private static final int OPTIMISTIC_ATTEMPTS = 3;
+    // Past this the remaining uncertainty is just read and merged; a guard, not a tuning knob
+    private static final int MAX_NARROWING_ROUNDS = 64;
+    // Narrowing stops within this many pages of the target: another round of rank lookups
+    // costs about as much as merging past that many rows
+    private static final int NARROWING_SLACK = 4;
+    private static final int MIN_CHUNK = 16;
+    private static final int MAX_CHUNK = 4096;
+    // Rows a read has to gather before handing shards to the pool pays for the hand-off
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    /** A read across shards; {@code fork} says whether it may run shards on the pool. */
+    private interface Read<T> {
+        T run(boolean fork);
+    }
+
+    private final InMemoryTaskRepository[] shards;
+    private final ForkJoinPool pool;
+    private final ReentrantLock listenerLock = new ReentrantLock();
+
+    public PartitionedTaskRepository(int partitions) {
+        this(partitions, ForkJoinPool.commonPool());
+    }
+
+    public PartitionedTaskRepository(int partitions, ForkJoinPool pool) {
+        if (partitions < 1) throw new IllegalArgumentException("partitions must be positive");
+        this.shards = new InMemoryTaskRepository[partitions];
+        for (int i = 0; i < partitions; i++) shards[i] = new InMemoryTaskRepository();
+        this.pool = pool;
+    }
+
+    public int partitions() {
+        return shards.length;
+    }
+
+    @Override
+    public Iterable<Task> findAll(Sort sort) {
+        Comparator<Task> order = comparator(sort);
+        return snapshot(fork -> merge(map(i -> (List<Task>) shards[i].findAll(sort), fork), order, 0, Long.MAX_VALUE));
+    }
+
+    @Override
+    public Page<Task> findAll(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            List<Task> all = (List<Task>) findAll(pageable.getSort());
+            return new PageImpl<>(all, pageable, all.size());
+        }
+        Sort.Order order = singleIndexedOrder(pageable.getSort());
+        if (order == null && pageable.getSort().isSorted() && comparator(pageable.getSort()) != null) {
+            // Compound sorts have no index; fall back to sorting a snapshot
+            List<Task> sorted = (List<Task>) findAll(pageable.getSort());
+            int from = (int) Math.min(pageable.getOffset(), sorted.size());
+            int to = Math.min(from + pageable.getPageSize(), sorted.size());
+            return new PageImpl<>(sorted.subList(from, to), pageable, sorted.size());
+        }
+        String property = order == null ? "dueDate" : order.getProperty();
+        return page(property, null, order != null && order.isDescending(), pageable);
+    }
+
+    @Override
+    public Page<Task> findByStatus(TaskStatus status, Pageable pageable) {
+        Sort.Order order = singleIndexedOrder(pageable.getSort());
+        boolean dueDateOrder = pageable.getSort().isUnsorted() || (order != null && order.getProperty().equals("dueDate"));
+        if (pageable.isPaged() && dueDateOrder) {
+            return page("dueDate", status, order != null && order.isDescending(), pageable);
+        }
+        // Other orders have no per-status index; filter a sorted snapshot instead
+        List<Task> matching = new ArrayList<>();
+        for (Task t : findAll(pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("dueDate"))) {
+            if (t.getStatus() == status) matching.add(t);
+        }
+        if (pageable.isUnpaged()) return new PageImpl<>(matching, pageable, matching.size());
+        int from = (int) Math.min(pageable.getOffset(), matching.size());
+        int to = Math.min(from + pageable.getPageSize(), matching.size());
+        return new PageImpl<>(matching.subList(from, to), pageable, matching.size());
+    }
+
+    @Override
+    public Window<Task> findByStatusAfter(TaskStatus status, KeysetScrollPosition position, int limit) {
+        // Every shard's next limit + 1 after the position; the first limit + 1 of their merge decide the window
+        List<Task> rows = snapshot(fork -> merge(
+                map(i -> shards[i].findByStatusAfter(status, position, limit + 1).getContent(), forks(limit, fork)),
+                BY_DUE_DATE, 0, limit + 1L));
+        boolean hasNext = rows.size() > limit;
+        List<Task> page = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(page, i -> keysOf(page.get(i)), hasNext);
+    }
+
+    @Override
+    public Slice<Task> search(String text, TaskStatus status, Pageable pageable) {
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        long limit = pageable.isPaged() ? pageable.getPageSize() : Long.MAX_VALUE;
+        // Each shard's first offset + limit hits hold the requested ones; text matches have no rank to select by
+        long wanted = pageable.isPaged() ? offset + limit : Long.MAX_VALUE;
+        Pageable perShard = wanted >= Integer.MAX_VALUE ? Pageable.unpaged() : PageRequest.of(0, (int) wanted);
+        return snapshot(fork -> {
+            List<Slice<Task>> slices = map(i -> shards[i].search(text, status, perShard), forks(wanted, fork));
+            boolean hasMore = false;
+            long found = 0;
+            List<List<Task>> runs = new ArrayList<>(slices.size());
+            for (Slice<Task> slice : slices) {
+                hasMore |= slice.hasNext();
+                found += slice.getNumberOfElements();
+                runs.add(slice.getContent());
+            }
+            return new SliceImpl<>(merge(runs, BY_DUE_DATE, offset, limit), pageable, hasMore || found > wanted);
+        });
+    }
+
+    @Override
+    public TaskStatistics statistics(LocalDate today, LocalDate until) {
+        return snapshot(fork -> {
+            Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+            long overdue = 0;
+            long dueSoon = 0;
+            for (InMemoryTaskRepository shard : shards) {
+                TaskStatistics s = shard.statistics(today, until);
+                s.byStatus().forEach((status, n) -> counts.merge(status, n, Long::sum));
+                overdue += s.overdue();
+                dueSoon += s.dueSoon();
+            }
+            return new TaskStatistics(counts, overdue, dueSoon);
+        });
+    }
+
+    /**
+     * One page of an index, merged from the shards' matching indexes. {@link #narrow} bounds
+     * where each shard's share of the page starts; the merge then reads each shard from its
+     * lower bound, a chunk at a time, only as far as the page reaches into it.
+     */
+    private Page<Task> page(String property, TaskStatus status, boolean descending, Pageable pageable) {
+        Comparator<Task> order = descending ? INDEXES.get(property).reversed() : INDEXES.get(property);
+        int size = pageable.getPageSize();
+        return snapshot(fork -> {
+            long[] lo = new long[shards.length];
+            long[] hi = new long[shards.length];
+            long total = 0;
+            for (int i = 0; i < shards.length; i++) total += hi[i] = shards[i].count(status);
+            long target = Math.min(pageable.getOffset(), total);
+            narrow(property, status, descending, target, lo, hi, NARROWING_SLACK * (long) size);
+            long skip = target - Arrays.stream(lo).sum();
+            // Twice a fair share of the rows the merge passes; a shard it leans on more is read further as needed
+            int first = (int) Math.max(MIN_CHUNK, 2 * (skip + size) / shards.length);
+            List<List<Task>> firsts = map(i -> shards[i].range(property, status, descending, lo[i], first), forks(size, fork));
+            List<Run> runs = new ArrayList<>(shards.length);
+            for (int i = 0; i < shards.length; i++) runs.add(new Run(property, status, descending, i, lo[i], firsts.get(i), first));
+            return new PageImpl<>(mergeRuns(runs, order, skip, size), pageable, total);
+        });
+    }
+
+    /**
+     * A shard's rows in index order from some position on, read a chunk at a time: a chunk that
+     * comes back short means the shard has no more. Chunks double, so a page that leans on one
+     * shard costs it few reads.
+     */
+    private final class Run {
+        final String property;
+        final TaskStatus status;
+        final boolean descending;
+        final int shard;
+        long position;
+        List<Task> rows;
+        int next;
+        int chunk;
+        boolean last;
+
+        Run(String property, TaskStatus status, boolean descending, int shard, long position, List<Task> rows, int requested) {
+            this.property = property;
+            this.status = status;
+            this.descending = descending;
+            this.shard = shard;
+            this.position = position;
+            this.rows = rows;
+            this.chunk = Math.max(MIN_CHUNK, requested);
+            this.last = rows.size() < requested;
+        }
+
+        Task head() {
+            return rows.get(next);
+        }
+
+        /** Moves past the head; false once the shard has no rows left. */
+        boolean advance() {
+            if (++next < rows.size()) return true;
+            if (last) return false;
+            position += rows.size();
+            chunk = Math.min(chunk * 2, MAX_CHUNK);
+            rows = shards[shard].range(property, status, descending, position, chunk);
+            next = 0;
+            last = rows.size() < chunk;
+            return !rows.isEmpty();
+        }
+    }
+
+    /** Rows {@code skip} to {@code skip + limit} of the merge of {@code runs}, read as far as that. */
+    private static List<Task> mergeRuns(List<Run> runs, Comparator<Task> order, long skip, int limit) {
+        List<Task> out = new ArrayList<>(limit);
+        PriorityQueue<Run> heap = new PriorityQueue<>(runs.size(), (a, b) -> order.compare(a.head(), b.head()));
+        for (Run run : runs) if (!run.rows.isEmpty()) heap.add(run);
+        long seen = 0;
+        while (!heap.isEmpty() && out.size() < limit) {
+            Run run = heap.poll();
+            if (seen++ >= skip) out.add(run.head());
+            if (run.advance()) heap.add(run);
+        }
+        return out;
+    }
+
+    /**
+     * Narrows, per shard, the range {@code [lo, hi)} known to contain how many of its rows come
+     * before global position {@code target}, until at most {@code slack} rows of the shards
+     * from their {@code lo} on still come before it. Each round takes a row of the widest range
+     * as pivot and ranks it in every shard: if fewer than {@code target} rows precede it
+     * overall, each shard's rows before it precede the target too; otherwise none of the rest
+     * do. Both ends of every range are such exact ranks (or the ends of the shard), so with
+     * tasks hashed evenly across shards, interpolating between them lands within a few hundred
+     * rows of the target in a round or two; aiming half the slack short makes the last round
+     * land below it. After a round that did not halve the open rows the pivot is the middle of
+     * the range instead, which bounds the worst case.
+     */
+    private void narrow(String property, TaskStatus status, boolean descending, long target,
+                        long[] lo, long[] hi, long slack) {
+        long[] ranks = new long[shards.length];
+        long lastOpen = Long.MAX_VALUE;
+        for (int round = 0; round < MAX_NARROWING_ROUNDS; round++) {
+            long before = 0;
+            long open = 0;
+            int widest = 0;
+            for (int i = 0; i < shards.length; i++) {
+                before += lo[i];
+                open += hi[i] - lo[i];
+                if (hi[i] - lo[i] > hi[widest] - lo[widest]) widest = i;
+            }
+            if (target - before <= slack || open == 0) return;
+            boolean bisect = open > lastOpen / 2;
+            lastOpen = open;
+            long width = hi[widest] - lo[widest];
+            long aim = bisect ? width / 2 : (long) ((double) Math.max(0, target - before - slack / 2) / open * width);
+            long at = lo[widest] + Math.min(width - 1, aim);
+            List<Task> row = shards[widest].range(property, status, descending, at, 1);
+            // Empty only if the shard shrank meanwhile, and then the snapshot check discards this read
+            if (row.isEmpty()) return;
+            long rank = 0;
+            for (int i = 0; i < shards.length; i++) {
+                ranks[i] = i == widest ? at : shards[i].rank(property, status, descending, row.get(0));
+                rank += ranks[i];
+            }
+            if (rank < target) {
+                for (int i = 0; i < shards.length; i++) lo[i] = Math.max(lo[i], ranks[i]);
+                lo[widest] = Math.max(lo[widest], at + 1);
+            } else {
+                for (int i = 0; i < shards.length; i++) hi[i] = Math.min(hi[i], ranks[i]);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code read} until no shard's generation moved while it did. Writes that keep
+     * getting in between are held out of the indexes for a last run under every shard's read
+     * lock; that run stays on the calling thread, since pool threads would queue behind
+     * waiting merges.
+     */
+    private <T> T snapshot(Read<T> read) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long[] before = generations();
+
+            T result = read.run(true);
+            if (Arrays.equals(before, generations())) return result;
+        }
+        int locked = 0;
+        try {
+            for (InMemoryTaskRepository shard : shards) {
+                shard.readLock().lock();
+                locked++;
+            }
+            return read.run(false);
+        } finally {
+            for (int i = 0; i < locked; i++) shards[i].readLock().unlock();
+        }
+    }
+
+    private long[] generations() {
+        long[] generations = new long[shards.length];
+        for (int i = 0; i < shards.length; i++) generations[i] = shards[i].generation();
+        return generations;
+    }
+
+    private boolean forks(long rowsPerShard, boolean fork) {
+        return fork && Math.min(rowsPerShard, Integer.MAX_VALUE) * shards.length >= PARALLEL_THRESHOLD;
+    }
+
+    /** {@code work} for every shard, in shard order; on the pool when {@code fork}, with the caller taking shard 0. */
+    private <R> List<R> map(IntFunction<R> work, boolean fork) {
+        List<R> results = new ArrayList<>(shards.length);
+        if (!fork || shards.length == 1) {
+            for (int i = 0; i < shards.length; i++) results.add(work.apply(i));
+            return results;
+        }
+        List<ForkJoinTask<R>> tasks = new ArrayList<>(shards.length - 1);
+        for (int i = 1; i < shards.length; i++) {
+            int shard = i;
+            tasks.add(pool.submit(() -> work.apply(shard)));
+        }
+        results.add(work.apply(0));
+        for (ForkJoinTask<R> task : tasks) results.add(task.join());
+        return results;
+    }
+
+    /**
+     * Rows {@code skip} to {@code skip + limit} of the merge of sorted {@code runs}; with no
+     * order the runs are just concatenated.
+     */
+    private static List<Task> merge(List<List<Task>> runs, Comparator<Task> order, long skip, long limit) {
+        long total = 0;
+        for (List<Task> run : runs) total += run.size();
+        List<Task> out = new ArrayList<>((int) Math.max(0, Math.min(limit, total - skip)));
+        if (order == null) {
+            long seen = 0;
+            for (List<Task> run : runs) {
+                for (Task t : run) {
+                    if (out.size() >= limit) return out;
+                    if (seen++ >= skip) out.add(t);
+                }
+            }
+            return out;
+        }
+        // Heap of run numbers keyed by each run's next row
+        int[] next = new int[runs.size()];
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, runs.size()),
+                (a, b) -> order.compare(runs.get(a).get(next[a]), runs.get(b).get(next[b])));
+        for (int i = 0; i < runs.size(); i++) if (!runs.get(i).isEmpty()) heap.add(i);
+        long seen = 0;
+        while (!heap.isEmpty() && out.size() < limit) {
+            int run = heap.poll();
+            Task t = runs.get(run).get(next[run]++);
+            if (seen++ >= skip) out.add(t);
+            if (next[run] < runs.get(run).size()) heap.add(run);
+        }
+        return out;
+    }
+
+    @Override
+    public void save(Task entity) {
+        shardOf(entity.getId()).save(entity);
+    }
+
+    @Override
+    public void saveAll(Iterable<Task> entities) {
+        List<List<Task>> groups = group(entities, Task::getId);
+        int count = groups.stream().mapToInt(List::size).sum();
+        map(i -> {
+            if (!groups.get(i).isEmpty()) shards[i].saveAll(groups.get(i));
+            return null;
+        }, count >= PARALLEL_THRESHOLD);
+    }
+
+    /** Bulk-loads tasks into empty shards, each building its indexes in one pass, on the pool. */
+    void loadAll(Collection<Task> tasks) {
+        List<List<Task>> groups = group(tasks, Task::getId);
+        map(i -> {
+            shards[i].loadAll(groups.get(i));
+            return null;
+        }, true);
+    }
+
+    @Override
+    public boolean replace(Task expected, Task updated) {
+        return shardOf(expected.getId()).replace(expected, updated);
+    }
+
+    /** Each shard applies its part as one write; shards do not commit together. */
+    @Override
+    public Set<String> replaceAll(List<TaskWrite> writes) {
+        List<List<TaskWrite>> groups = group(writes, TaskWrite::id);
+        Set<String> conflicts = new HashSet<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (!groups.get(i).isEmpty()) conflicts.addAll(shards[i].replaceAll(groups.get(i)));
+        }
+        return conflicts;
+    }
+
+    @Override
+    public Optional<Task> findById(String id) {
+        return shardOf(id).findById(id);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        shardOf(id).deleteById(id);
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        List<List<String>> groups = group(ids, id -> id);
+        for (int i = 0; i < shards.length; i++) {
+            if (!groups.get(i).isEmpty()) shards[i].deleteAllById(groups.get(i));
+        }
+    }
+
+    /** Sum of the shards' generations, which moves whenever any of them does. */
+    @Override
+    public long generation() {
+        long sum = 0;
+        for (InMemoryTaskRepository shard : shards) sum += shard.generation();
+        return sum;
+    }
+
+    /** Shards commit independently; calls into {@code listener} are serialized so it still sees one at a time. */
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+        TaskChangeListener serialized = (previous, current) -> {
+            listenerLock.lock();
+            try {
+                listener.changed(previous, current);
+            } finally {
+                listenerLock.unlock();
+            }
+        };
+        for (InMemoryTaskRepository shard : shards) shard.addChangeListener(serialized);
+    }
+
+    private InMemoryTaskRepository shardOf(String id) {
+        return shards[shardIndex(id)];
+    }
+
+    private int shardIndex(String id) {
+        int h = id.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    private <T> List<List<T>> group(Iterable<? extends T> items, Function<T, String> id) {
+        List<List<T>> groups = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) groups.add(new ArrayList<>());
+        for (T item : items) groups.get(shardIndex(id.apply(item))).add(item);
+        return groups;
+    }
+
+    private static <T extends Comparable<T>> int compareNullsLast(T a, T b) {
+        if (a == null || b == null) return a == b ? 0 : a == null ? 1 : -1;
+        return a.compareTo(b);
+    }
+
+    private static ScrollPosition keysOf(Task task) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("dueDate", task.getDueDate());
+        keys.put("id", task.getId());
+        return ScrollPosition.forward(keys);
+    }
+
+    /** The only supported order in {@code sort}, if there is exactly one; unknown properties are ignored. */
+    private static Sort.Order singleIndexedOrder(Sort sort) {
+        Sort.Order found = null;
+        for (Sort.Order order : sort) {
+            if (!INDEXES.containsKey(order.getProperty())) continue;
+            if (found != null) return null;
+            found = order;
+        }
+        return found;
+    }
+
+    /** The same order the shards sort by, so their results merge into one sorted sequence. */
+    private static Comparator<Task> comparator(Sort sort) {
+        Comparator<Task> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Task> c = INDEXES.get(order.getProperty());
+            if (c != null) {
+                if (order.isDescending()) c = c.reversed();
+                comparator = comparator == null ? c : comparator.thenComparing(c);
+            }
+        }
+        return comparator;
+    }
+}
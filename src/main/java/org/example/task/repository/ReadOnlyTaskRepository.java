@@ -0,0 +1,105 @@
+package org.example.task.repository;
+
+import org.example.task.domain.ReadOnlyReplicaException;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads of another {@link TaskRepository}, with every write refused. A follower hands this to
+ * the service layer while replication writes to the store underneath.
+ */
+public class ReadOnlyTaskRepository implements TaskRepository {
+    private final TaskRepository delegate;
+    private final String message;
+
+    public ReadOnlyTaskRepository(TaskRepository delegate, String message) {
+        this.delegate = delegate;
+        this.message = message;
+    }
+
+    @Override
+    public void save(Task entity) {
+        throw new ReadOnlyReplicaException(message);
+    }
+
+    @Override
+    public void saveAll(Iterable<Task> entities) {
+        throw new ReadOnlyReplicaException(message);
+    }
+
+    @Override
+    public boolean replace(Task expected, Task updated) {
+        throw new ReadOnlyReplicaException(message);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        throw new ReadOnlyReplicaException(message);
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        throw new ReadOnlyReplicaException(message);
+    }
+
+    @Override
+    public Set<String> replaceAll(List<TaskWrite> writes) {
+        throw new ReadOnlyReplicaException(message);
+    }
+
+    @Override
+    public Optional<Task> findById(String id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Iterable<Task> findAll(Sort sort) {
+        return delegate.findAll(sort);
+    }
+
+    @Override
+    public Page<Task> findAll(Pageable pageable) {
+        return delegate.findAll(pageable);
+    }
+
+    @Override
+    public Page<Task> findByStatus(TaskStatus status, Pageable pageable) {
+        return delegate.findByStatus(status, pageable);
+    }
+
+    @Override
+    public Window<Task> findByStatusAfter(TaskStatus status, KeysetScrollPosition position, int limit) {
+        return delegate.findByStatusAfter(status, position, limit);
+    }
+
+    @Override
+    public Slice<Task> search(String text, TaskStatus status, Pageable pageable) {
+        return delegate.search(text, status, pageable);
+    }
+
+    @Override
+    public TaskStatistics statistics(LocalDate today, LocalDate until) {
+        return delegate.statistics(today, until);
+    }
+
+    @Override
+    public long generation() {
+        return delegate.generation();
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+        delegate.addChangeListener(listener);
+    }
+}
@@ -0,0 +1,188 @@
+package org.example.task.repository;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Order-statistic AVL forest over row numbers whose links live in parallel primitive
+ * arrays indexed by row, so a row costs 13 bytes per index instead of a node object.
+ * A row can belong to at most one tree of the forest at a time; rows are ordered by
+ * an external comparator that reads the row's columns, so callers must remove a row
+ * before changing a column it is ordered by. Not thread-safe.
+ */
+final class RowTree {
+    static final int NONE = -1;
+
+    @FunctionalInterface
+    interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    /** A search key that is not itself a row. */
+    @FunctionalInterface
+    interface Probe {
+        int compareTo(int row);
+    }
+
+    private final RowComparator comparator;
+    private final int[] roots;
+    private int[] left;
+    private int[] right;
+    private int[] size;
+    private byte[] height;
+
+    RowTree(int trees, int capacity, RowComparator comparator) {
+        this.comparator = comparator;
+        this.roots = new int[trees];
+        Arrays.fill(roots, NONE);
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.size = new int[capacity];
+        this.height = new byte[capacity];
+    }
+
+    void grow(int capacity) {
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        size = Arrays.copyOf(size, capacity);
+        height = Arrays.copyOf(height, capacity);
+    }
+
+    int size(int tree) {
+        return sizeOf(roots[tree]);
+    }
+
+    void add(int tree, int row) {
+        left[row] = NONE;
+        right[row] = NONE;
+        size[row] = 1;
+        height[row] = 1;
+        roots[tree] = insert(roots[tree], row);
+    }
+
+    void remove(int tree, int row) {
+        roots[tree] = delete(roots[tree], row);
+    }
+
+    /** Number of rows ordered before {@code probe} (or at it too, when {@code inclusive}). */
+    int rank(int tree, Probe probe, boolean inclusive) {
+        int rank = 0;
+        int n = roots[tree];
+        while (n != NONE) {
+            int c = probe.compareTo(n);
+            if (inclusive ? c < 0 : c <= 0) {
+                n = left[n];
+            } else {
+                rank += sizeOf(left[n]) + 1;
+                n = right[n];
+            }
+        }
+        return rank;
+    }
+
+    /** Visits up to {@code limit} rows from position {@code from}, in O(log n + limit). */
+    void forEach(int tree, int from, int limit, boolean descending, IntConsumer action) {
+        if (from < 0 || limit <= 0) return;
+        int[] near = descending ? right : left;
+        int[] far = descending ? left : right;
+        int[] path = new int[64];
+        int depth = 0;
+        int n = roots[tree];
+        int skip = from;
+        while (n != NONE) {
+            int before = sizeOf(near[n]);
+            if (skip < before) {
+                path[depth++] = n;
+                n = near[n];
+            } else if (skip == before) {
+                path[depth++] = n;
+                break;
+            } else {
+                skip -= before + 1;
+                n = far[n];
+            }
+        }
+        int visited = 0;
+        while (depth > 0 && visited < limit) {
+            int current = path[--depth];
+            action.accept(current);
+            visited++;
+            for (int m = far[current]; m != NONE; m = near[m]) path[depth++] = m;
+        }
+    }
+
+    private int insert(int n, int row) {
+        if (n == NONE) return row;
+        if (comparator.compare(row, n) < 0) left[n] = insert(left[n], row);
+        else right[n] = insert(right[n], row);
+        return rebalance(n);
+    }
+
+    private int delete(int n, int row) {
+        if (n == NONE) return NONE;
+        if (n == row) {
+            if (left[n] == NONE) return right[n];
+            if (right[n] == NONE) return left[n];
+            // Splice the successor row into this position; rows are the nodes, so values cannot be swapped
+            int successor = right[n];
+            while (left[successor] != NONE) successor = left[successor];
+            right[successor] = deleteMin(right[n]);
+            left[successor] = left[n];
+            return rebalance(successor);
+        }
+        if (comparator.compare(row, n) < 0) left[n] = delete(left[n], row);
+        else right[n] = delete(right[n], row);
+        return rebalance(n);
+    }
+
+    private int deleteMin(int n) {
+        if (left[n] == NONE) return right[n];
+        left[n] = deleteMin(left[n]);
+        return rebalance(n);
+    }
+
+    private int rebalance(int n) {
+        update(n);
+        int balance = heightOf(left[n]) - heightOf(right[n]);
+        if (balance > 1) {
+            if (heightOf(left[left[n]]) < heightOf(right[left[n]])) left[n] = rotateLeft(left[n]);
+            return rotateRight(n);
+        }
+        if (balance < -1) {
+            if (heightOf(right[right[n]]) < heightOf(left[right[n]])) right[n] = rotateRight(right[n]);
+            return rotateLeft(n);
+        }
+        return n;
+    }
+
+    private int rotateLeft(int n) {
+        int r = right[n];
+        right[n] = left[r];
+        left[r] = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    private int rotateRight(int n) {
+        int l = left[n];
+        left[n] = right[l];
+        right[l] = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private void update(int n) {
+        height[n] = (byte) (Math.max(heightOf(left[n]), heightOf(right[n])) + 1);
+        size[n] = sizeOf(left[n]) + sizeOf(right[n]) + 1;
+    }
+
+    private int heightOf(int n) {
+        return n == NONE ? 0 : height[n];
+    }
+
+    private int sizeOf(int n) {
+        return n == NONE ? 0 : size[n];
+    }
+}
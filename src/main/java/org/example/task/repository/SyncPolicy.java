@@ -0,0 +1,11 @@
+package org.example.task.repository;
+
+/** When a logged write is acknowledged relative to the fsync that makes it durable. */
+public enum SyncPolicy {
+    /** fsync every record before acknowledging it. */
+    PER_WRITE,
+    /** Writers wait for a shared fsync issued at most one group-commit window after they append. */
+    GROUP,
+    /** Acknowledge immediately and fsync in the background every sync interval. */
+    PERIODIC
+}
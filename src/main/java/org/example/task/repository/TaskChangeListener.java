@@ -0,0 +1,15 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+
+/**
+ * Told about committed changes, one call at a time and in each task's commit order. Runs
+ * while the write commits, with the task locked: keep it short, do not throw and do not call
+ * back into the repository. Every committed write is reported on its own, from exactly the
+ * version it replaced.
+ */
+@FunctionalInterface
+public interface TaskChangeListener {
+    /** {@code previous} is null for a new task, {@code current} null for a deleted one. */
+    void changed(Task previous, Task current);
+}
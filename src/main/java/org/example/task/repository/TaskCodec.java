@@ -0,0 +1,74 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/** Compact binary form of a {@link Task} shared by the on-disk formats and the replication stream. */
+public final class TaskCodec {
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private TaskCodec() {}
+
+    public static void write(DataOutput out, Task task) throws IOException {
+        writeString(out, task.getId());
+        writeString(out, task.getTitle());
+        writeString(out, task.getDescription());
+        out.writeByte(task.getStatus().ordinal());
+        out.writeLong(task.getDueDate() == null ? NO_DATE : task.getDueDate().toEpochDay());
+        out.writeLong(task.getVersion());
+    }
+
+    public static Task read(DataInput in) throws IOException {
+        String id = readString(in);
+        String title = readString(in);
+        String description = readString(in);
+        TaskStatus status = STATUSES[in.readByte()];
+        long epochDay = in.readLong();
+        long version = in.readLong();
+        return new Task(id, title, description, status, epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay), version);
+    }
+
+    static Task read(ByteBuffer in) {
+        String id = readString(in);
+        String title = readString(in);
+        String description = readString(in);
+        TaskStatus status = STATUSES[in.get()];
+        long epochDay = in.getLong();
+        long version = in.getLong();
+        return new Task(id, title, description, status, epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay), version);
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
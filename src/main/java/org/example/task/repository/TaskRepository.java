@@ -1,9 +1,18 @@
 package org.example.task.repository;
 
 import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface TaskRepository extends PagingAndSortingRepository<Task, String> {
     void save(Task entity);
@@ -12,4 +21,56 @@ public interface TaskRepository extends PagingAndSortingRepository<Task, String>
 
     void deleteById(String id);
 
+    /**
+     * Installs {@code updated} only if the stored task still has {@code expected}'s version,
+     * i.e. nobody replaced it since {@code expected} was read. Returns {@code false} when the
+     * task changed or is gone; callers re-read and retry.
+     */
+    boolean replace(Task expected, Task updated);
+
+    /** Saves every task as one write: a single index update and, where persistent, a single log append. */
+    void saveAll(Iterable<Task> entities);
+
+    void deleteAllById(Iterable<? extends String> ids);
+
+    /**
+     * Applies every write whose {@link TaskWrite#expected() expected} version still holds as
+     * one write: a single index update and, where persistent, a single log append. The other
+     * writes change nothing; their ids are returned. Takes at most one write per id.
+     */
+    Set<String> replaceAll(List<TaskWrite> writes);
+
+    Page<Task> findByStatus(TaskStatus status, Pageable pageable);
+
+    /**
+     * Counter bumped after every write has become visible. A result read at generation
+     * {@code g} is still current for as long as {@code generation()} returns {@code g}.
+     */
+    long generation();
+
+    /**
+     * Keyset page in (dueDate, id) order: up to {@code limit} tasks strictly after the
+     * {@code dueDate}/{@code id} keys of {@code position}, optionally restricted to one status.
+     */
+    Window<Task> findByStatusAfter(TaskStatus status, KeysetScrollPosition position, int limit);
+
+    /**
+     * Tasks whose title or description contains every word of {@code text} (case-insensitive,
+     * whole words), optionally restricted to one status, in (dueDate, id) order; the sort of
+     * {@code pageable} is ignored. A slice rather than a page because counting every match
+     * would cost as much as the whole scan that a first page of a common word avoids. Throws
+     * {@link IllegalArgumentException} when {@code text} has no words.
+     */
+    Slice<Task> search(String text, TaskStatus status, Pageable pageable);
+
+    /**
+     * Tasks per status and, among those not DONE, how many are due before {@code today} and
+     * how many from {@code today} up to but excluding {@code until}. Read from the per-status
+     * dueDate indexes by rank, so the cost does not depend on how many tasks there are.
+     */
+    TaskStatistics statistics(LocalDate today, LocalDate until);
+
+    /** Registers {@code listener} for every change committed from now on. */
+    void addChangeListener(TaskChangeListener listener);
+
 }
@@ -0,0 +1,213 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Immutable file of tasks sorted by id: {@code [magic][version]}, then one
+ * {@code [int length][task]} record per task. The file is memory-mapped; the heap holds
+ * only a sparse index (the id and offset of every {@value #INDEX_INTERVAL}th record), a
+ * Bloom filter over the ids and a bit per deleted record. Finding an id is a Bloom probe,
+ * a binary search of the sparse index and a scan of at most {@value #INDEX_INTERVAL}
+ * records. Deleting a task only marks it; the owner rewrites segments that fill up with
+ * deleted records.
+ * <p>
+ * Not thread-safe for deletes: callers guard them with their own lock.
+ */
+final class TaskSegment {
+    private static final int MAGIC = 0x54534547; // "TSEG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    static final int INDEX_INTERVAL = 32;
+    // Mapped as one buffer, so a segment stays under 2GB
+    private static final long MAX_BYTES = Integer.MAX_VALUE - (1 << 20);
+    // About a 1% false-positive rate
+    private static final int BLOOM_BITS_PER_TASK = 10;
+    private static final int BLOOM_HASHES = 7;
+
+    private final Path file;
+    private final MappedByteBuffer data;
+    private final int count;
+    private final String[] sparseIds;
+    private final int[] sparseOffsets;
+    private final long[] bloom;
+    private final BitSet deleted = new BitSet();
+    private int live;
+
+    private TaskSegment(Path file, MappedByteBuffer data, int count, String[] sparseIds, int[] sparseOffsets, long[] bloom) {
+        this.file = file;
+        this.data = data;
+        this.count = count;
+        this.sparseIds = sparseIds;
+        this.sparseOffsets = sparseOffsets;
+        this.bloom = bloom;
+        this.live = count;
+    }
+
+    /**
+     * Writes tasks {@code from} onwards of {@code sortedById} to {@code file}, as many as fit
+     * in one segment; the returned segment's {@link #count()} says how many that was.
+     */
+    static TaskSegment write(Path file, List<Task> sortedById, int from) throws IOException {
+        int capacity = (sortedById.size() - from) / INDEX_INTERVAL + 1;
+        String[] sparseIds = new String[capacity];
+        int[] sparseOffsets = new int[capacity];
+        long[] bloom = new long[Math.max(1, (int) Math.min(Integer.MAX_VALUE / 64,
+                ((long) (sortedById.size() - from) * BLOOM_BITS_PER_TASK + 63) / 64))];
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 20));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+            DataOutputStream record = new DataOutputStream(recordBytes);
+            long offset = HEADER_BYTES;
+            for (int i = from; i < sortedById.size(); i++) {
+                Task task = sortedById.get(i);
+                recordBytes.reset();
+                TaskCodec.write(record, task);
+                if (offset + 4 + recordBytes.size() > MAX_BYTES) {
+                    if (count == 0) throw new IOException("Task " + task.getId() + " does not fit in a segment");
+                    break;
+                }
+                if (count % INDEX_INTERVAL == 0) {
+                    sparseIds[count / INDEX_INTERVAL] = task.getId();
+                    sparseOffsets[count / INDEX_INTERVAL] = (int) offset;
+                }
+                addToBloom(bloom, task.getId());
+                out.writeInt(recordBytes.size());
+                recordBytes.writeTo(out);
+                offset += 4 + recordBytes.size();
+                count++;
+            }
+            out.flush();
+            int indexed = (count + INDEX_INTERVAL - 1) / INDEX_INTERVAL;
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, offset);
+            return new TaskSegment(file, data, count, Arrays.copyOf(sparseIds, indexed),
+                    Arrays.copyOf(sparseOffsets, indexed), bloom);
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    int live() {
+        return live;
+    }
+
+    boolean isLive(int ordinal) {
+        return !deleted.get(ordinal);
+    }
+
+    /** Marks the record deleted; false if it already was. */
+    boolean delete(int ordinal) {
+        if (deleted.get(ordinal)) return false;
+        deleted.set(ordinal);
+        live--;
+        return true;
+    }
+
+    /** Ordinal of the record for {@code id}, deleted or not, or -1 if this segment never held it. */
+    int ordinalOf(String id) {
+        if (!mightContain(bloom, id)) return -1;
+        int block = Arrays.binarySearch(sparseIds, id);
+        if (block >= 0) return block * INDEX_INTERVAL;
+        block = -block - 2;
+        if (block < 0) return -1;
+        int offset = sparseOffsets[block];
+        int end = Math.min(count, (block + 1) * INDEX_INTERVAL);
+        for (int ordinal = block * INDEX_INTERVAL; ordinal < end; ordinal++) {
+            int c = idAt(offset).compareTo(id);
+            if (c == 0) return ordinal;
+            if (c > 0) return -1;
+            offset += 4 + data.getInt(offset);
+        }
+        return -1;
+    }
+
+    Task read(int ordinal) {
+        int offset = offsetOf(ordinal);
+        return TaskCodec.read(data.slice(offset + 4, data.getInt(offset)));
+    }
+
+    /** Just the id of a record, without decoding the rest. */
+    String id(int ordinal) {
+        return idAt(offsetOf(ordinal));
+    }
+
+    /** Visits every record not deleted, in id order, with its ordinal. */
+    void forEachLive(ObjIntConsumer<Task> action) {
+        int offset = HEADER_BYTES;
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            int length = data.getInt(offset);
+            if (!deleted.get(ordinal)) action.accept(TaskCodec.read(data.slice(offset + 4, length)), ordinal);
+            offset += 4 + length;
+        }
+    }
+
+    /** Deletes the file; the mapping goes away once the segment is unreachable. */
+    void discard() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private int offsetOf(int ordinal) {
+        int offset = sparseOffsets[ordinal / INDEX_INTERVAL];
+        for (int skip = ordinal % INDEX_INTERVAL; skip > 0; skip--) offset += 4 + data.getInt(offset);
+        return offset;
+    }
+
+    // The id is the record's first field: [int length][utf-8 bytes]
+    private String idAt(int offset) {
+        int length = data.getInt(offset + 4);
+        byte[] bytes = new byte[length];
+        data.get(offset + 8, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void addToBloom(long[] bloom, String id) {
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long bits = (long) bloom.length * 64;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private static boolean mightContain(long[] bloom, String id) {
+        long hash = hash(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long bits = (long) bloom.length * 64;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /** 64-bit FNV-1a over the id's chars; its halves are the two hashes of the filter. */
+    private static long hash(String id) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            h ^= id.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
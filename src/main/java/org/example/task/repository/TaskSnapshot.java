@@ -0,0 +1,126 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Point-in-time dump of every task: {@code [magic][version]}, then one
+ * {@code [int length][task]} record per task, then {@code [long count][int crc32][magic]}.
+ * Files are written to a temporary name and renamed into place, and read back
+ * through memory-mapped windows rather than a stream.
+ */
+final class TaskSnapshot {
+    private static final int MAGIC = 0x54534e50; // "TSNP"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 8;
+    private static final int FOOTER_BYTES = 16;
+    private static final long WINDOW_BYTES = 1L << 30;
+
+    private TaskSnapshot() {}
+
+    /** Writes every task {@code source} emits to {@code file} atomically and returns how many were written. */
+    static long write(Path file, Consumer<Consumer<Task>> source) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long count;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream raw = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 20);
+            DataOutputStream header = new DataOutputStream(raw);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            CheckedOutputStream checked = new CheckedOutputStream(raw, new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+            DataOutputStream record = new DataOutputStream(recordBytes);
+            long[] written = {0};
+            try {
+                source.accept(task -> {
+                    try {
+                        recordBytes.reset();
+                        TaskCodec.write(record, task);
+                        out.writeInt(recordBytes.size());
+                        recordBytes.writeTo(out);
+                        written[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            count = written[0];
+            out.flush();
+            header.writeLong(count);
+            header.writeInt((int) checked.getChecksum().getValue());
+            header.writeInt(MAGIC);
+            header.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+
+    /** Reads back a snapshot written by {@link #write}, verifying its checksum. */
+    static List<Task> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + FOOTER_BYTES) throw corrupt(file);
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, size - FOOTER_BYTES, FOOTER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION || footer.getInt(12) != MAGIC) throw corrupt(file);
+            long count = footer.getLong(0);
+            int checksum = footer.getInt(8);
+
+            List<Task> tasks = new ArrayList<>((int) Math.min(count, Integer.MAX_VALUE - 8));
+            CRC32 crc = new CRC32();
+            long end = size - FOOTER_BYTES;
+            long offset = HEADER_BYTES;
+            long windowStart = offset;
+            MappedByteBuffer window = map(channel, windowStart, end);
+            while (offset < end) {
+                if (offset + 4 > windowStart + window.limit()) {
+                    windowStart = offset;
+                    window = map(channel, windowStart, end);
+                }
+                int length = window.getInt((int) (offset - windowStart));
+                if (length < 0 || offset + 4 + length > end) throw corrupt(file);
+                if (offset + 4 + length > windowStart + window.limit()) {
+                    windowStart = offset;
+                    window = map(channel, windowStart, end);
+                }
+                ByteBuffer record = window.slice((int) (offset - windowStart), 4 + length);
+                crc.update(record.duplicate());
+                record.position(4);
+                tasks.add(TaskCodec.read(record));
+                offset += 4 + length;
+            }
+            if (tasks.size() != count || (int) crc.getValue() != checksum) throw corrupt(file);
+            return tasks;
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw corrupt(file);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long from, long end) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(WINDOW_BYTES, end - from));
+    }
+
+    private static IOException corrupt(Path file) {
+        return new IOException("Corrupt task snapshot " + file);
+    }
+}
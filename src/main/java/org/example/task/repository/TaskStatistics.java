@@ -0,0 +1,17 @@
+package org.example.task.repository;
+
+import org.example.task.domain.TaskStatus;
+
+import java.util.Map;
+
+/**
+ * Task counts taken in one reading of a repository's indexes. {@code overdue} and
+ * {@code dueSoon} only count tasks that are not {@link TaskStatus#DONE}.
+ */
+public record TaskStatistics(Map<TaskStatus, Long> byStatus, long overdue, long dueSoon) {
+    public long total() {
+        long total = 0;
+        for (long count : byStatus.values()) total += count;
+        return total;
+    }
+}
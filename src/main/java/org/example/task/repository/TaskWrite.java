@@ -0,0 +1,19 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+
+/**
+ * One conditional write of {@link TaskRepository#replaceAll}: replaces {@code expected} with
+ * {@code updated}. A null {@code expected} creates a task whose id must still be free; a
+ * null {@code updated} deletes {@code expected}.
+ */
+public record TaskWrite(Task expected, Task updated) {
+    public String id() {
+        return expected != null ? expected.getId() : updated.getId();
+    }
+
+    /** Whether the write may replace {@code current}, the task stored now (null if none). */
+    boolean holds(Task current) {
+        return expected == null ? current == null : current != null && current.getVersion() == expected.getVersion();
+    }
+}
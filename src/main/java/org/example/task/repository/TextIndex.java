@@ -0,0 +1,324 @@
+package org.example.task.repository;
+
+import org.example.task.domain.TaskStatus;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+
+/**
+ * Inverted index from the words of a task's title and description to the task. The owner
+ * names tasks by a dense int handle (a row or slot number). Every time a task is indexed it
+ * gets a fresh document number, so posting lists only ever grow at the end and stay sorted
+ * as plain int arrays; the superseded document is just marked dead, and dead documents are
+ * dropped when they come to outnumber live ones. Each document also keeps its task's
+ * status and due day, so queries filter and order without touching the tasks.
+ * Not thread-safe: callers guard it with their own lock.
+ */
+final class TextIndex {
+    private static final int NO_DAY = Integer.MAX_VALUE;
+    private static final int MAX_WORD_LENGTH = 64;
+    private static final int MIN_COMPACTION = 1 << 16;
+
+    /** Handles of one page of hits in (dueDate, tie-break) order, and whether more follow. */
+    record Hits(int[] handles, boolean hasMore) {}
+
+    /** The owner's handles in (dueDate, id) order, optionally of one status, until the visitor returns false. */
+    interface DueDateOrder {
+        void walk(TaskStatus status, IntPredicate visitor);
+    }
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private int[] docHandle = new int[1024];
+    private int[] docDay = new int[1024];
+    private byte[] docStatus = new byte[1024];
+    private long[] live = new long[16];
+    private int docCount;
+    private int liveCount;
+    private int[] docOfHandle = new int[0];
+
+    /** (Re)indexes the task behind {@code handle}. */
+    void put(int handle, String title, String description, TaskStatus status, LocalDate dueDate) {
+        remove(handle);
+        if (docCount == docHandle.length) grow();
+        int doc = docCount++;
+        docHandle[doc] = handle;
+        docDay[doc] = dueDate == null ? NO_DAY : (int) dueDate.toEpochDay();
+        docStatus[doc] = (byte) status.ordinal();
+        live[doc >>> 6] |= 1L << doc;
+        liveCount++;
+        if (handle >= docOfHandle.length) {
+            int old = docOfHandle.length;
+            docOfHandle = Arrays.copyOf(docOfHandle, Math.max(handle + 1, old * 2));
+            Arrays.fill(docOfHandle, old, docOfHandle.length, -1);
+        }
+        docOfHandle[handle] = doc;
+        Set<String> words = new HashSet<>();
+        words(title, words);
+        words(description, words);
+        for (String word : words) postings.computeIfAbsent(word, w -> new Postings()).add(doc);
+    }
+
+    /** Updates status and due date when the text itself did not change; no posting list is touched. */
+    void retag(int handle, TaskStatus status, LocalDate dueDate) {
+        int doc = handle < docOfHandle.length ? docOfHandle[handle] : -1;
+        if (doc < 0) return;
+        docDay[doc] = dueDate == null ? NO_DAY : (int) dueDate.toEpochDay();
+        docStatus[doc] = (byte) status.ordinal();
+    }
+
+    void remove(int handle) {
+        if (handle >= docOfHandle.length || docOfHandle[handle] < 0) return;
+        int doc = docOfHandle[handle];
+        docOfHandle[handle] = -1;
+        live[doc >>> 6] &= ~(1L << doc);
+        liveCount--;
+        if (docCount - liveCount > Math.max(liveCount, MIN_COMPACTION)) compact();
+    }
+
+    /**
+     * Tasks containing every word of {@code query}, optionally of one status, ordered by due
+     * date (missing dates last) and then by {@code tieBreak} over handles, which must agree
+     * with {@code order}.
+     */
+    Hits search(String query, TaskStatus status, long offset, int limit, IntBinaryOperator tieBreak, DueDateOrder order) {
+        Set<String> words = new LinkedHashSet<>();
+        words(query, words);
+        if (words.isEmpty()) throw new IllegalArgumentException("query has no searchable words");
+        List<Postings> lists = new ArrayList<>(words.size());
+        for (String word : words) {
+            Postings p = postings.get(word);
+            if (p == null) return new Hits(new int[0], false);
+            lists.add(p);
+        }
+        lists.sort(Comparator.comparingInt(p -> p.size));
+        Hits walked = walk(lists, status, offset, limit, order);
+        if (walked != null) return walked;
+        int[] matches = intersect(lists, status == null ? -1 : status.ordinal());
+        return page(matches, offset, limit, tieBreak);
+    }
+
+    /**
+     * For words most tasks contain, following the owner's dueDate order and probing the
+     * posting lists finds a page after about {@code (offset + limit) / density} tasks,
+     * independent of how many match in all. Gives up, returning null, once that costs more
+     * than scanning the shortest list would.
+     */
+    private Hits walk(List<Postings> lists, TaskStatus status, long offset, int limit, DueDateOrder order) {
+        double density = 1;
+        for (Postings p : lists) density *= Math.min(1.0, (double) p.size / Math.max(1, liveCount));
+        // A visit (tree step plus a binary search per word) measures some 40x a scan step
+        long budget = lists.get(0).size / (32L * lists.size());
+        if (density == 0 || (offset + limit + 1) / density > budget) return null;
+        Walk walk = new Walk(lists, offset, limit, budget);
+        order.walk(status, walk);
+        return walk.overBudget ? null : new Hits(Arrays.copyOf(walk.handles, walk.found), walk.hasMore);
+    }
+
+    private final class Walk implements IntPredicate {
+        final List<Postings> lists;
+        final long offset;
+        final int[] handles;
+        final long budget;
+        long visited;
+        long skipped;
+        int found;
+        boolean hasMore;
+        boolean overBudget;
+
+        Walk(List<Postings> lists, long offset, int limit, long budget) {
+            this.lists = lists;
+            this.offset = offset;
+            this.handles = new int[limit];
+            this.budget = budget;
+        }
+
+        @Override
+        public boolean test(int handle) {
+            if (++visited > budget) {
+                overBudget = true;
+                return false;
+            }
+            int doc = handle < docOfHandle.length ? docOfHandle[handle] : -1;
+            if (doc < 0) return true;
+            for (Postings p : lists) {
+                if (Arrays.binarySearch(p.docs, 0, p.size, doc) < 0) return true;
+            }
+            if (skipped < offset) {
+                skipped++;
+                return true;
+            }
+            if (found == handles.length) {
+                hasMore = true;
+                return false;
+            }
+            handles[found++] = handle;
+            return true;
+        }
+    }
+
+    /** Walks the shortest list and gallops through the others, which only move forward. */
+    private int[] intersect(List<Postings> lists, int status) {
+        Postings first = lists.get(0);
+        int[] cursors = new int[lists.size()];
+        int[] out = new int[Math.min(first.size, liveCount)];
+        int n = 0;
+        candidates:
+        for (int i = 0; i < first.size; i++) {
+            int doc = first.docs[i];
+            if ((live[doc >>> 6] & (1L << doc)) == 0) continue;
+            if (status >= 0 && docStatus[doc] != status) continue;
+            for (int l = 1; l < lists.size(); l++) {
+                Postings p = lists.get(l);
+                int at = gallop(p.docs, cursors[l], p.size, doc);
+                cursors[l] = at;
+                if (at == p.size) break candidates;
+                if (p.docs[at] != doc) continue candidates;
+            }
+            out[n++] = doc;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** First index in {@code [from, to)} whose value is at least {@code key}. */
+    private static int gallop(int[] a, int from, int to, int key) {
+        int step = 1;
+        int lo = from;
+        int hi = from;
+        while (hi < to && a[hi] < key) {
+            lo = hi + 1;
+            hi += step;
+            step <<= 1;
+        }
+        hi = Math.min(hi, to);
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Counts matches per due day to find the days that hold the requested slice, then sorts
+     * only the matches on those days; a page costs one pass over the matches, not a sort.
+     */
+    private Hits page(int[] matches, long offset, int limit, IntBinaryOperator tieBreak) {
+        int total = matches.length;
+        if (offset >= total || limit <= 0) return new Hits(new int[0], false);
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int doc : matches) {
+            int day = docDay[doc];
+            if (day == NO_DAY) continue;
+            min = Math.min(min, day);
+            max = Math.max(max, day);
+        }
+        long end = Math.min(total, offset + limit);
+        int fromDay = NO_DAY;
+        int toDay = NO_DAY;
+        long before = 0;
+        if (min <= max && (long) max - min < Math.max(1 << 16, 4L * total)) {
+            int[] perDay = new int[max - min + 1];
+            for (int doc : matches) if (docDay[doc] != NO_DAY) perDay[docDay[doc] - min]++;
+            long seen = 0;
+            for (int d = 0; d < perDay.length && toDay == NO_DAY; d++) {
+                if (fromDay == NO_DAY && seen + perDay[d] > offset) {
+                    fromDay = min + d;
+                    before = seen;
+                }
+                seen += perDay[d];
+                if (fromDay != NO_DAY && seen >= end) toDay = min + d;
+            }
+            if (fromDay == NO_DAY) before = seen;
+        } else if (min <= max) {
+            // Due dates too sparse for a day histogram; sort every match instead
+            fromDay = min;
+        }
+        List<Integer> slice = new ArrayList<>();
+        for (int doc : matches) {
+            int day = docDay[doc];
+            if (day >= fromDay && (toDay == NO_DAY || day <= toDay)) slice.add(doc);
+        }
+        slice.sort((a, b) -> {
+            int c = Integer.compare(docDay[a], docDay[b]);
+            return c != 0 ? c : tieBreak.applyAsInt(docHandle[a], docHandle[b]);
+        });
+        int from = (int) (offset - before);
+        int to = (int) Math.min(slice.size(), from + (end - offset));
+        int[] handles = new int[Math.max(0, to - from)];
+        for (int i = from; i < to; i++) handles[i - from] = docHandle[slice.get(i)];
+        return new Hits(handles, end < total);
+    }
+
+    /** Renumbers live documents densely and rewrites every posting list without the dead ones. */
+    private void compact() {
+        int[] renumber = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if ((live[doc >>> 6] & (1L << doc)) == 0) {
+                renumber[doc] = -1;
+                continue;
+            }
+            renumber[doc] = next;
+            docHandle[next] = docHandle[doc];
+            docDay[next] = docDay[doc];
+            docStatus[next] = docStatus[doc];
+            docOfHandle[docHandle[next]] = next;
+            next++;
+        }
+        Iterator<Postings> it = postings.values().iterator();
+        while (it.hasNext()) {
+            Postings p = it.next();
+            int kept = 0;
+            for (int i = 0; i < p.size; i++) {
+                int doc = renumber[p.docs[i]];
+                if (doc >= 0) p.docs[kept++] = doc;
+            }
+            if (kept == 0) it.remove();
+            else p.trim(kept);
+        }
+        docCount = next;
+        Arrays.fill(live, 0);
+        for (int doc = 0; doc < next; doc++) live[doc >>> 6] |= 1L << doc;
+    }
+
+    private void grow() {
+        int capacity = docHandle.length * 2;
+        docHandle = Arrays.copyOf(docHandle, capacity);
+        docDay = Arrays.copyOf(docDay, capacity);
+        docStatus = Arrays.copyOf(docStatus, capacity);
+        live = Arrays.copyOf(live, (capacity + 63) >>> 6);
+    }
+
+    /** Lowercase runs of letters and digits; anything else separates words. */
+    static void words(String text, Collection<String> into) {
+        if (text == null) return;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start <= MAX_WORD_LENGTH) into.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            docs[size++] = doc;
+        }
+
+        void trim(int newSize) {
+            size = newSize;
+            if (docs.length > 4 * Math.max(4, newSize)) docs = Arrays.copyOf(docs, Math.max(4, newSize));
+        }
+    }
+}
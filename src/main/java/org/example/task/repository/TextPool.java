@@ -0,0 +1,112 @@
+package org.example.task.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only UTF-8 string storage packed into large shared byte chunks, addressed by a
+ * {@code long} reference ({@code chunk << 32 | offset}). Replaced strings become garbage
+ * that the owner reclaims by copying live references into a fresh pool.
+ * Not thread-safe: callers guard it with their own lock.
+ */
+final class TextPool {
+    static final long NULL = -1;
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    private byte[][] chunks = new byte[8][];
+    private int chunkCount;
+    private int tailOffset = CHUNK_BYTES;
+    private long usedBytes;
+    private long liveBytes;
+
+    long add(String value) {
+        return value == null ? NULL : add(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    long add(byte[] utf8) {
+        int needed = 4 + utf8.length;
+        byte[] chunk;
+        if (needed > CHUNK_BYTES) {
+            // Oversized strings get a chunk of their own; the next string starts a new shared chunk
+            chunk = newChunk(needed);
+            tailOffset = CHUNK_BYTES;
+        } else {
+            if (CHUNK_BYTES - tailOffset < needed) {
+                newChunk(CHUNK_BYTES);
+                tailOffset = 0;
+            }
+            chunk = chunks[chunkCount - 1];
+        }
+        int offset = needed > CHUNK_BYTES ? 0 : tailOffset;
+        putInt(chunk, offset, utf8.length);
+        System.arraycopy(utf8, 0, chunk, offset + 4, utf8.length);
+        if (needed <= CHUNK_BYTES) tailOffset += needed;
+        usedBytes += needed;
+        liveBytes += needed;
+        return ((long) (chunkCount - 1) << 32) | offset;
+    }
+
+    String get(long ref) {
+        if (ref == NULL) return null;
+        byte[] chunk = chunks[(int) (ref >>> 32)];
+        int offset = (int) ref;
+        return new String(chunk, offset + 4, getInt(chunk, offset), StandardCharsets.UTF_8);
+    }
+
+    byte[] bytes(long ref) {
+        if (ref == NULL) return null;
+        byte[] chunk = chunks[(int) (ref >>> 32)];
+        int offset = (int) ref;
+        return Arrays.copyOfRange(chunk, offset + 4, offset + 4 + getInt(chunk, offset));
+    }
+
+    /** Marks a reference as garbage. */
+    void release(long ref) {
+        if (ref == NULL) return;
+        liveBytes -= 4 + getInt(chunks[(int) (ref >>> 32)], (int) ref);
+    }
+
+    /**
+     * Orders by unsigned UTF-8 bytes, with nulls last. That equals {@link String#compareTo}
+     * except between supplementary characters and U+E000..U+FFFF.
+     */
+    int compare(long a, long b) {
+        if (a == b) return 0;
+        if (a == NULL) return 1;
+        if (b == NULL) return -1;
+        byte[] ca = chunks[(int) (a >>> 32)];
+        byte[] cb = chunks[(int) (b >>> 32)];
+        int oa = (int) a + 4;
+        int ob = (int) b + 4;
+        int la = getInt(ca, (int) a);
+        int lb = getInt(cb, (int) b);
+        return Arrays.compareUnsigned(ca, oa, oa + la, cb, ob, ob + lb);
+    }
+
+    /** True once most of the pool is garbage and it is big enough to be worth compacting. */
+    boolean needsCompaction() {
+        return usedBytes > 16L * CHUNK_BYTES && liveBytes < usedBytes / 2;
+    }
+
+    long usedBytes() {
+        return usedBytes;
+    }
+
+    private byte[] newChunk(int size) {
+        if (chunkCount == chunks.length) chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        byte[] chunk = new byte[size];
+        chunks[chunkCount++] = chunk;
+        return chunk;
+    }
+
+    private static void putInt(byte[] b, int offset, int value) {
+        b[offset] = (byte) (value >>> 24);
+        b[offset + 1] = (byte) (value >>> 16);
+        b[offset + 2] = (byte) (value >>> 8);
+        b[offset + 3] = (byte) value;
+    }
+
+    private static int getInt(byte[] b, int offset) {
+        return (b[offset] & 0xff) << 24 | (b[offset + 1] & 0xff) << 16 | (b[offset + 2] & 0xff) << 8 | (b[offset + 3] & 0xff);
+    }
+}
@@ -0,0 +1,558 @@
+package org.example.task.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * {@link TaskRepository} that keeps open and recently finished tasks in an
+ * {@link InMemoryTaskRepository} (the hot tier) and moves tasks that have been DONE, and not
+ * written, for {@code coldAfter} to a {@link ColdTaskStore} on disk (the cold tier). Reads
+ * cover both tiers: point reads fall through to the cold tier's cache and segments, and
+ * dueDate-ordered pages, keyset windows and DONE listings merge the two, locating a deep
+ * offset by binary search over both tiers' ranks. Search reads the cold tier sequentially,
+ * and other orders and unpaged listings load both tiers whole, as those are rare for
+ * finished work.
+ * <p>
+ * A write to a cold task first brings it back into the hot tier, so listeners see the
+ * change from its real previous version; moving tasks between tiers is not a change and
+ * is not reported. Like MEMORY mode this does not survive a restart: segments left over
+ * from an earlier run are deleted on open.
+ * <p>
+ * Reads that span the tiers and writes hold the read side of a tier lock; only the moves
+ * between tiers take its write side, so readers never see a task in both tiers or neither.
+ */
+@Slf4j
+public class TieredTaskRepository implements TaskRepository, Closeable {
+    private static final Comparator<Task> BY_DUE_DATE = (a, b) -> {
+        LocalDate x = a.getDueDate();
+        LocalDate y = b.getDueDate();
+        int c = x == null || y == null ? (x == y ? 0 : x == null ? 1 : -1) : x.compareTo(y);
+        return c != 0 ? c : a.getId().compareTo(b.getId());
+    };
+    private static final Comparator<Task> BY_TITLE = Comparator
+            .comparing(Task::getTitle, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+            .thenComparing(Task::getId);
+    private static final Comparator<Task> BY_STATUS = Comparator
+            .comparing(Task::getStatus)
+            .thenComparing(Task::getId);
+    private static final Map<String, Comparator<Task>> ORDERS = Map.of(
+            "dueDate", BY_DUE_DATE, "title", BY_TITLE, "status", BY_STATUS);
+
+    /** A task that was written while DONE, at {@code at} (epoch millis). */
+    private record Done(Task task, long at) {}
+
+    private final InMemoryTaskRepository hot = new InMemoryTaskRepository();
+    private final ColdTaskStore cold;
+    private final ReentrantReadWriteLock tierLock = new ReentrantReadWriteLock();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // The current version of each hot DONE task by id, oldest write first; guarded by doneLock
+    private final LinkedHashMap<String, Done> done = new LinkedHashMap<>();
+    private final ReentrantLock doneLock = new ReentrantLock();
+    private final Duration coldAfter;
+    private final Clock clock;
+    private final ScheduledExecutorService evictor;
+
+    private TieredTaskRepository(ColdTaskStore cold, Duration coldAfter, Duration evictionInterval, Clock clock) {
+        this.cold = cold;
+        this.coldAfter = coldAfter;
+        this.clock = clock;
+        hot.addChangeListener((previous, current) -> {
+            if (current != null && current.getStatus() == TaskStatus.DONE) {
+                queueDone(List.of(current));
+            } else {
+                doneLock.lock();
+                try {
+                    done.remove((current != null ? current : previous).getId());
+                } finally {
+                    doneLock.unlock();
+                }
+            }
+        });
+        if (evictionInterval.isZero() || evictionInterval.isNegative()) {
+            evictor = null;
+        } else {
+            evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "task-eviction");
+                t.setDaemon(true);
+                return t;
+            });
+            long intervalNanos = evictionInterval.toNanos();
+            evictor.scheduleWithFixedDelay(this::evictQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Opens an empty repository whose cold tier lives in {@code directory}, caching up to
+     * {@code cacheSize} cold tasks; every {@code evictionInterval} (0 disables) tasks DONE
+     * for {@code coldAfter} are moved there.
+     */
+    public static TieredTaskRepository open(Path directory, Duration coldAfter, int cacheSize,
+                                            Duration evictionInterval) throws IOException {
+        return open(directory, coldAfter, cacheSize, evictionInterval, Clock.systemUTC());
+    }
+
+    static TieredTaskRepository open(Path directory, Duration coldAfter, int cacheSize, Duration evictionInterval,
+                                     Clock clock) throws IOException {
+        return new TieredTaskRepository(new ColdTaskStore(directory, cacheSize), coldAfter, evictionInterval, clock);
+    }
+
+    /**
+     * Moves every task that has been DONE, without being written, for at least
+     * {@code coldAfter} to the cold tier, and rewrites cold segments that are mostly deleted.
+     * Returns how many tasks moved.
+     */
+    public int evict() throws IOException {
+        evictionLock.lock();
+        try {
+            long cutoff = clock.millis() - coldAfter.toMillis();
+            Map<String, Task> candidates = new LinkedHashMap<>();
+            doneLock.lock();
+            try {
+                for (Done d : done.values()) {
+                    if (d.at() > cutoff) break;
+                    candidates.put(d.task().getId(), d.task());
+                }
+            } finally {
+                doneLock.unlock();
+            }
+            if (candidates.isEmpty() && !needsCompaction()) return 0;
+            // Entries stay queued until their task has moved, so a failed run leaves them for the next
+            ColdTaskStore.Batch batch;
+            tierLock.readLock().lock();
+            try {
+                batch = cold.prepare(candidates.values());
+            } finally {
+                tierLock.readLock().unlock();
+            }
+            List<Task> evicted;
+            tierLock.writeLock().lock();
+            try {
+                evicted = hot.evict(candidates.values());
+                cold.install(batch, evicted);
+            } finally {
+                tierLock.writeLock().unlock();
+            }
+            cold.discard(batch);
+            doneLock.lock();
+            try {
+                for (Task t : evicted) {
+                    Done d = done.get(t.getId());
+                    if (d != null && d.task() == t) done.remove(t.getId());
+                }
+            } finally {
+                doneLock.unlock();
+            }
+            return evicted.size();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private boolean needsCompaction() {
+        tierLock.readLock().lock();
+        try {
+            return cold.needsCompaction();
+        } finally {
+            tierLock.readLock().unlock();
+        }
+    }
+
+    private void evictQuietly() {
+        try {
+            evict();
+        } catch (IOException | RuntimeException e) {
+            // Tasks stay in memory until the next run manages to write them; an exception would cancel the schedule
+            log.warn("Moving tasks to the cold tier failed", e);
+        }
+    }
+
+    /** Starts {@code coldAfter} over for these DONE versions, replacing any earlier entry for the same task. */
+    private void queueDone(List<Task> tasks) {
+        long now = clock.millis();
+        doneLock.lock();
+        try {
+            for (Task t : tasks) {
+                done.remove(t.getId());
+                done.put(t.getId(), new Done(t, now));
+            }
+        } finally {
+            doneLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Task> findById(String id) {
+        Optional<Task> found = hot.findById(id);
+        if (found.isPresent()) return found;
+        tierLock.readLock().lock();
+        try {
+            // It may have been brought back before the lock was ours
+            found = hot.findById(id);
+            return found.isPresent() ? found : Optional.ofNullable(cold.find(id));
+        } finally {
+            tierLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Iterable<Task> findAll(Sort sort) {
+        return read(() -> {
+            List<Task> all = new ArrayList<>((List<Task>) hot.findAll(sort));
+            cold.forEach(all::add);
+            Comparator<Task> comparator = comparator(sort);
+            // Two sorted runs when the order is dueDate; the sort merges them in one pass
+            if (comparator != null) all.sort(comparator);
+            return all;
+        });
+    }
+
+    @Override
+    public Page<Task> findAll(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            List<Task> all = (List<Task>) findAll(pageable.getSort());
+            return new PageImpl<>(all, pageable, all.size());
+        }
+        Sort.Order order = singleOrder(pageable.getSort());
+        boolean dueDateOrder = pageable.getSort().isUnsorted() || (order != null && order.getProperty().equals("dueDate"));
+        if (dueDateOrder) return page(null, order != null && order.isDescending(), pageable);
+        // Cold tasks have no index for other orders; fall back to sorting a snapshot
+        List<Task> sorted = (List<Task>) findAll(pageable.getSort());
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        int to = Math.min(from + pageable.getPageSize(), sorted.size());
+        return new PageImpl<>(sorted.subList(from, to), pageable, sorted.size());
+    }
+
+    @Override
+    public Page<Task> findByStatus(TaskStatus status, Pageable pageable) {
+        // Only DONE tasks go cold
+        if (status != TaskStatus.DONE) return hot.findByStatus(status, pageable);
+        Sort.Order order = singleOrder(pageable.getSort());
+        boolean dueDateOrder = pageable.getSort().isUnsorted() || (order != null && order.getProperty().equals("dueDate"));
+        if (pageable.isPaged() && dueDateOrder) return page(status, order != null && order.isDescending(), pageable);
+        List<Task> matching = new ArrayList<>();
+        for (Task t : findAll(pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("dueDate"))) {
+            if (t.getStatus() == status) matching.add(t);
+        }
+        if (pageable.isUnpaged()) return new PageImpl<>(matching, pageable, matching.size());
+        int from = (int) Math.min(pageable.getOffset(), matching.size());
+        int to = Math.min(from + pageable.getPageSize(), matching.size());
+        return new PageImpl<>(matching.subList(from, to), pageable, matching.size());
+    }
+
+    @Override
+    public Window<Task> findByStatusAfter(TaskStatus status, KeysetScrollPosition position, int limit) {
+        if (status != null && status != TaskStatus.DONE) return hot.findByStatusAfter(status, position, limit);
+        List<Task> rows = read(() -> {
+            List<Task> hotRows = hot.findByStatusAfter(status, position, limit + 1).getContent();
+            long from = 0;
+            if (!position.isInitial()) {
+                Map<String, Object> keys = position.getKeys();
+                from = cold.rank((LocalDate) keys.get("dueDate"), (String) keys.get("id"), true);
+            }
+            return merge(hotRows, cold.range(from, limit + 1, false), BY_DUE_DATE, 0, limit + 1);
+        });
+        boolean hasNext = rows.size() > limit;
+        List<Task> page = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(page, i -> keysOf(page.get(i)), hasNext);
+    }
+
+    @Override
+    public Slice<Task> search(String text, TaskStatus status, Pageable pageable) {
+        if (status != null && status != TaskStatus.DONE) return hot.search(text, status, pageable);
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        long limit = pageable.isPaged() ? pageable.getPageSize() : Long.MAX_VALUE;
+        // The first offset + limit hits of each tier hold the requested ones
+        long wanted = pageable.isPaged() ? offset + limit : Long.MAX_VALUE;
+        Pageable perTier = wanted >= Integer.MAX_VALUE ? Pageable.unpaged() : PageRequest.of(0, (int) wanted);
+        return read(() -> {
+            Slice<Task> hotHits = hot.search(text, status, perTier);
+            Set<String> words = new HashSet<>();
+            TextIndex.words(text, words);
+            List<Task> coldHits = new ArrayList<>();
+            cold.forEach(t -> {
+                Set<String> taskWords = new HashSet<>();
+                TextIndex.words(t.getTitle(), taskWords);
+                TextIndex.words(t.getDescription(), taskWords);
+                if (taskWords.containsAll(words)) coldHits.add(t);
+                return coldHits.size() <= wanted;
+            });
+            boolean hasMore = hotHits.hasNext() || hotHits.getNumberOfElements() + coldHits.size() > wanted;
+            return new SliceImpl<>(merge(hotHits.getContent(), coldHits, BY_DUE_DATE, offset, limit), pageable, hasMore);
+        });
+    }
+
+    @Override
+    public TaskStatistics statistics(LocalDate today, LocalDate until) {
+        return read(() -> {
+            TaskStatistics s = hot.statistics(today, until);
+            Map<TaskStatus, Long> counts = new EnumMap<>(s.byStatus());
+            counts.merge(TaskStatus.DONE, (long) cold.size(), Long::sum);
+            return new TaskStatistics(counts, s.overdue(), s.dueSoon());
+        });
+    }
+
+    /**
+     * One page of the dueDate order over both tiers. How many of the rows before the page
+     * are cold is found by binary search: with {@code c} cold rows and {@code offset - c} hot
+     * ones, too many are cold if the last cold row sorts after the next hot one, and too few
+     * if the last hot row sorts after the next cold one. Each probe reads one row per tier.
+     */
+    private Page<Task> page(TaskStatus status, boolean descending, Pageable pageable) {
+        Comparator<Task> order = descending ? BY_DUE_DATE.reversed() : BY_DUE_DATE;
+        return read(() -> {
+            hot.readLock().lock();
+            try {
+                return page(status, descending, order, pageable);
+            } finally {
+                hot.readLock().unlock();
+            }
+        });
+    }
+
+    private Page<Task> page(TaskStatus status, boolean descending, Comparator<Task> order, Pageable pageable) {
+        int size = pageable.getPageSize();
+        long hotCount = hot.count(status);
+        long coldCount = cold.size();
+        long total = hotCount + coldCount;
+        long offset = Math.min(pageable.getOffset(), total);
+        long lo = Math.max(0, offset - hotCount);
+        long hi = Math.min(offset, coldCount);
+        while (lo < hi) {
+            long c = (lo + hi) >>> 1;
+            long h = offset - c;
+            // c < hi <= coldCount and h > offset - hi >= 0, so both rows exist
+            Task nextCold = cold.range(c, 1, descending).get(0);
+            Task lastHot = hot.range("dueDate", status, descending, h - 1, 1).get(0);
+            if (order.compare(lastHot, nextCold) > 0) lo = c + 1;
+            else hi = c;
+        }
+        List<Task> hotRows = hot.range("dueDate", status, descending, offset - lo, size);
+        List<Task> coldRows = cold.range(lo, size, descending);
+        return new PageImpl<>(merge(hotRows, coldRows, order, 0, size), pageable, total);
+    }
+
+    /** Rows {@code skip} to {@code skip + limit} of the merge of two sorted runs. */
+    private static List<Task> merge(List<Task> a, List<Task> b, Comparator<Task> order, long skip, long limit) {
+        List<Task> out = new ArrayList<>((int) Math.max(0, Math.min(limit, a.size() + b.size() - skip)));
+        int i = 0;
+        int j = 0;
+        long seen = 0;
+        while ((i < a.size() || j < b.size()) && out.size() < limit) {
+            Task t = j == b.size() || (i < a.size() && order.compare(a.get(i), b.get(j)) <= 0) ? a.get(i++) : b.get(j++);
+            if (seen++ >= skip) out.add(t);
+        }
+        return out;
+    }
+
+    /**
+     * Runs a read across both tiers while no task moves between them. The cold tier changes
+     * only by such moves; a read that makes several calls into the hot tier also holds its lock.
+     */
+    private <T> T read(Supplier<T> read) {
+        tierLock.readLock().lock();
+        try {
+            return read.get();
+        } finally {
+            tierLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void save(Task entity) {
+        write(List.of(entity.getId()), () -> {
+            hot.save(entity);
+            return null;
+        });
+    }
+
+    @Override
+    public void saveAll(Iterable<Task> entities) {
+        List<Task> list = new ArrayList<>();
+        entities.forEach(list::add);
+        write(list.stream().map(Task::getId).toList(), () -> {
+            hot.saveAll(list);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean replace(Task expected, Task updated) {
+        return write(List.of(expected.getId()), () -> hot.replace(expected, updated));
+    }
+
+    @Override
+    public void deleteById(String id) {
+        write(List.of(id), () -> {
+            hot.deleteById(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        List<String> list = new ArrayList<>();
+        ids.forEach(list::add);
+        write(list, () -> {
+            hot.deleteAllById(list);
+            return null;
+        });
+    }
+
+    @Override
+    public Set<String> replaceAll(List<TaskWrite> writes) {
+        return write(writes.stream().map(TaskWrite::id).toList(), () -> hot.replaceAll(writes));
+    }
+
+    /**
+     * Runs a write to the hot tier. Writes to tasks that are all hot (or new) only share the
+     * tier lock; a write touching a cold task first brings it back under the exclusive lock.
+     */
+    private <T> T write(Collection<String> ids, Supplier<T> write) {
+        tierLock.readLock().lock();
+        try {
+            if (noneCold(ids)) return write.get();
+        } finally {
+            tierLock.readLock().unlock();
+        }
+        tierLock.writeLock().lock();
+        try {
+            List<Task> restored = new ArrayList<>();
+            for (String id : ids) {
+                Task t = cold.remove(id);
+                if (t != null) restored.add(t);
+            }
+            hot.restore(restored);
+            // Back in the hot tier they wait out coldAfter again, whether or not the write succeeds
+            queueDone(restored);
+            return write.get();
+        } finally {
+            tierLock.writeLock().unlock();
+        }
+    }
+
+    private boolean noneCold(Collection<String> ids) {
+        if (cold.size() == 0) return true;
+        for (String id : ids) if (cold.contains(id)) return false;
+        return true;
+    }
+
+    /** Tasks in the hot tier. */
+    public int hotCount() {
+        return hot.count(null);
+    }
+
+    /** Tasks in the cold tier. */
+    public int coldCount() {
+        tierLock.readLock().lock();
+        try {
+            return cold.size();
+        } finally {
+            tierLock.readLock().unlock();
+        }
+    }
+
+    /** DONE tasks in the hot tier waiting out {@code coldAfter}. */
+    int doneCount() {
+        doneLock.lock();
+        try {
+            return done.size();
+        } finally {
+            doneLock.unlock();
+        }
+    }
+
+    /** Point reads of cold tasks answered from the cache. */
+    public long coldCacheHits() {
+        return cold.hitCount();
+    }
+
+    /** Point reads of cold tasks that read a segment. */
+    public long coldCacheMisses() {
+        return cold.missCount();
+    }
+
+    /** Moves between the tiers leave the hot tier's generation behind too, which is harmless. */
+    @Override
+    public long generation() {
+        return hot.generation();
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+        hot.addChangeListener(listener);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (evictor != null) {
+            evictor.shutdown();
+            try {
+                evictor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        tierLock.writeLock().lock();
+        try {
+            cold.close();
+        } finally {
+            tierLock.writeLock().unlock();
+        }
+    }
+
+    private static ScrollPosition keysOf(Task task) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("dueDate", task.getDueDate());
+        keys.put("id", task.getId());
+        return ScrollPosition.forward(keys);
+    }
+
+    /** The only supported order in {@code sort}, if there is exactly one; unknown properties are ignored. */
+    private static Sort.Order singleOrder(Sort sort) {
+        Sort.Order found = null;
+        for (Sort.Order order : sort) {
+            if (!ORDERS.containsKey(order.getProperty())) continue;
+            if (found != null) return null;
+            found = order;
+        }
+        return found;
+    }
+
+    /** The order the in-memory store sorts by, so both tiers agree. */
+    private static Comparator<Task> comparator(Sort sort) {
+        Comparator<Task> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Task> c = ORDERS.get(order.getProperty());
+            if (c != null) {
+                if (order.isDescending()) c = c.reversed();
+                comparator = comparator == null ? c : comparator.thenComparing(c);
+            }
+        }
+        return comparator;
+    }
+}
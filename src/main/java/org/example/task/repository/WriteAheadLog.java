@@ -0,0 +1,321 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log of task mutations. Each record is
+ * {@code [int length][int crc32][byte op][payload]}; a torn or corrupt tail left by a
+ * crash is detected by its checksum and truncated on open. {@link #rotate} seals the
+ * current segment file and continues in a new one.
+ */
+final class WriteAheadLog implements Closeable {
+    private static final byte OP_SAVE = 1;
+    private static final byte OP_DELETE = 2;
+    private static final byte OP_BATCH = 3;
+    private static final int HEADER_BYTES = 8;
+    private static final BooleanSupplier ALWAYS = () -> true;
+
+    private volatile FileChannel channel;
+    private final SyncPolicy policy;
+    private final long groupCommitWindowNanos;
+    private final ScheduledExecutorService syncer;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+    private final CRC32 crc = new CRC32();
+    // Logical positions: bytes appended across all segments since open
+    private volatile long writtenPosition;
+    // Set when a failed append could not be cut off again; the log then refuses appends
+    private IOException failure;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private boolean syncInProgress;
+    private long syncedPosition;
+
+    private WriteAheadLog(FileChannel channel, long position, SyncPolicy policy, Duration groupCommitWindow, Duration syncInterval) {
+        this.channel = channel;
+        this.writtenPosition = position;
+        this.syncedPosition = position;
+        this.policy = policy;
+        this.groupCommitWindowNanos = groupCommitWindow.toNanos();
+        if (policy == SyncPolicy.PERIODIC) {
+            syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "task-wal-sync");
+                t.setDaemon(true);
+                return t;
+            });
+            long intervalNanos = Math.max(1, syncInterval.toNanos());
+            syncer.scheduleWithFixedDelay(this::syncQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        } else {
+            syncer = null;
+        }
+    }
+
+    /**
+     * Opens (or creates) the log at {@code file}, feeding every intact record to the
+     * callbacks in order before the log accepts new appends.
+     */
+    static WriteAheadLog open(Path file, SyncPolicy policy, Duration groupCommitWindow, Duration syncInterval,
+                              Consumer<Task> onSave, Consumer<String> onDelete) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long end = replay(channel, onSave, onDelete);
+            if (end < channel.size()) {
+                channel.truncate(end);
+                channel.force(true);
+            }
+            channel.position(end);
+            return new WriteAheadLog(channel, end, policy, groupCommitWindow, syncInterval);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Replays a sealed segment without opening it for appends. */
+    static void replay(Path file, Consumer<Task> onSave, Consumer<String> onDelete) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            replay(channel, onSave, onDelete);
+        }
+    }
+
+    /**
+     * Logs a save and runs {@code apply} while still holding the append lock, so records
+     * hit the log in the same order their effects become visible. Returns once the
+     * record is as durable as the sync policy promises.
+     */
+    void appendSave(Task task, Runnable apply) {
+        append(OP_SAVE, out -> TaskCodec.write(out, task), ALWAYS, apply);
+    }
+
+    /**
+     * Like {@link #appendSave} but first checks {@code condition} under the append lock and
+     * logs nothing, returning {@code false}, if it does not hold. Since every logged change
+     * goes through that lock, nothing can slip in between the check and {@code apply}.
+     */
+    boolean appendSaveIf(Task task, BooleanSupplier condition, Runnable apply) {
+        return append(OP_SAVE, out -> TaskCodec.write(out, task), condition, apply);
+    }
+
+    void appendDelete(String id, Runnable apply) {
+        append(OP_DELETE, out -> TaskCodec.writeString(out, id), ALWAYS, apply);
+    }
+
+    /** Logs a whole batch as one record, replayed as all of its saves followed by all of its deletes. */
+    void appendBatch(List<Task> saves, List<String> deletes, Runnable apply) {
+        appendBatchIf(saves, deletes, ALWAYS, apply);
+    }
+
+    /**
+     * Like {@link #appendBatch} but first checks {@code condition} under the append lock,
+     * logging nothing if it does not hold. The condition may fill {@code saves} and
+     * {@code deletes}; they are encoded only once it has run.
+     */
+    boolean appendBatchIf(List<Task> saves, List<String> deletes, BooleanSupplier condition, Runnable apply) {
+        return append(OP_BATCH, out -> {
+            out.writeInt(saves.size());
+            for (Task t : saves) TaskCodec.write(out, t);
+            out.writeInt(deletes.size());
+            for (String id : deletes) TaskCodec.writeString(out, id);
+        }, condition, apply);
+    }
+
+    private boolean append(byte op, RecordWriter payload, BooleanSupplier condition, Runnable apply) {
+        long end;
+        appendLock.lock();
+        try {
+            if (failure != null) throw new UncheckedIOException("Write-ahead log is unusable after a failed append", failure);
+            if (!condition.getAsBoolean()) return false;
+            recordBytes.reset();
+            record.writeLong(0); // header placeholder
+            record.writeByte(op);
+            payload.write(record);
+            byte[] bytes = recordBytes.toByteArray();
+            crc.reset();
+            crc.update(bytes, HEADER_BYTES, bytes.length - HEADER_BYTES);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            buffer.putInt(0, bytes.length - HEADER_BYTES);
+            buffer.putInt(4, (int) crc.getValue());
+            long start = channel.position();
+            try {
+                while (buffer.hasRemaining()) channel.write(buffer);
+                if (policy == SyncPolicy.PER_WRITE) channel.force(false);
+            } catch (IOException e) {
+                discardFrom(start, e);
+                throw e;
+            }
+            end = writtenPosition + bytes.length;
+            writtenPosition = end;
+            apply.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to write-ahead log", e);
+        } finally {
+            appendLock.unlock();
+        }
+        if (policy == SyncPolicy.GROUP) awaitDurable(end);
+        return true;
+    }
+
+    /**
+     * Cuts off whatever part of a failed record reached the file, so the next append does
+     * not land behind torn bytes that replay would stop at, taking it along. If that fails
+     * too the log is marked failed.
+     */
+    private void discardFrom(long start, IOException cause) {
+        try {
+            channel.truncate(start);
+            channel.position(start);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            failure = cause;
+        }
+    }
+
+    /**
+     * Group commit: the first writer to find no fsync in flight becomes the leader, waits
+     * out the commit window so concurrent appends can join, and issues one fsync that
+     * covers everything written before it started. Everyone else waits for that fsync.
+     */
+    private void awaitDurable(long position) {
+        syncLock.lock();
+        try {
+            while (syncedPosition < position) {
+                if (syncInProgress) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncInProgress = true;
+                long target = 0;
+                syncLock.unlock();
+                try {
+                    if (groupCommitWindowNanos > 0) LockSupport.parkNanos(groupCommitWindowNanos);
+                    target = writtenPosition;
+                    channel.force(false);
+                } catch (IOException e) {
+                    target = 0;
+                    throw new UncheckedIOException("Failed to sync write-ahead log", e);
+                } finally {
+                    syncLock.lock();
+                    syncInProgress = false;
+                    if (target > syncedPosition) syncedPosition = target;
+                    synced.signalAll();
+                }
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            // Also hit when a rotation closes the channel mid-sync. Retried on the next tick; PERIODIC accepts losing the unsynced window on a crash
+        }
+    }
+
+    /**
+     * Makes everything appended so far durable, then directs further appends to a new,
+     * empty segment at {@code next}. Appends block only for the duration of the switch.
+     */
+    void rotate(Path next) throws IOException {
+        FileChannel fresh = FileChannel.open(next, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        appendLock.lock();
+        try {
+            syncLock.lock();
+            try {
+                while (syncInProgress) synced.awaitUninterruptibly();
+                FileChannel sealed = channel;
+                sealed.force(false);
+                sealed.close();
+                channel = fresh;
+                syncedPosition = writtenPosition;
+                synced.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+        } catch (IOException | RuntimeException e) {
+            fresh.close();
+            throw e;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /** Logical offset of the next append; grows monotonically across rotations. */
+    long position() {
+        return writtenPosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (syncer != null) syncer.shutdownNow();
+        appendLock.lock();
+        try {
+            if (channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /** Applies intact records in order and returns the offset just past the last one. */
+    private static long replay(FileChannel channel, Consumer<Task> onSave, Consumer<String> onDelete) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        CRC32 crc = new CRC32();
+        while (size - position >= HEADER_BYTES) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length <= 0 || length > size - position - HEADER_BYTES) break;
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) break;
+            DataInputStream body = new DataInputStream(new ByteArrayInputStream(payload));
+            switch (body.readByte()) {
+                case OP_SAVE -> onSave.accept(TaskCodec.read(body));
+                case OP_DELETE -> onDelete.accept(TaskCodec.readString(body));
+                case OP_BATCH -> {
+                    for (int i = body.readInt(); i > 0; i--) onSave.accept(TaskCodec.read(body));
+                    for (int i = body.readInt(); i > 0; i--) onDelete.accept(TaskCodec.readString(body));
+                }
+                default -> throw new IOException("Unknown write-ahead log record at offset " + position);
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutput out) throws IOException;
+    }
+}
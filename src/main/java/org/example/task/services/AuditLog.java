@@ -0,0 +1,325 @@
+package org.example.task.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.task.domain.Task;
+import org.example.task.repository.TaskChangeListener;
+import org.slf4j.MDC;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Access and audit events written as JSON lines to {@code access.log} and {@code audit.log}
+ * by a background thread, so request threads never wait on a file. Events go into a
+ * preallocated ring of reusable slots: a producer claims a sequence with one CAS, fills
+ * the slot and publishes it through the slot's volatile sequence; the writer drains
+ * published slots in order, formats them and flushes once per batch. Each file is rotated
+ * when it reaches {@code maxFileSize}, keeping {@code maxFiles} old ones.
+ * <p>
+ * With the ring full, {@link Overflow#DROP} discards the event and counts it, while
+ * {@link Overflow#BLOCK} makes a request wait for room. Audit events are always dropped
+ * and counted: they come from the repository's change listener, which runs while a write
+ * commits, so waiting there would stall writers until the log caught up.
+ */
+@Slf4j
+public class AuditLog implements TaskChangeListener, Closeable {
+    public enum Overflow { DROP, BLOCK }
+
+    /** MDC key holding the current request's correlation id. */
+    public static final String CORRELATION_ID = "correlationId";
+
+    private static final byte ACCESS = 1;
+    private static final byte AUDIT = 2;
+    private static final String[] ACTIONS = {"CREATED", "UPDATED", "DELETED"};
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /** One event; fields are written by the producer that claimed it before {@code sequence} publishes them. */
+    private static final class Slot {
+        volatile long sequence = -1;
+        byte kind;
+        long time;
+        String correlationId;
+        String first;
+        String second;
+        long number;
+        long durationNanos;
+    }
+
+    private final Slot[] ring;
+    private final int mask;
+    private final Overflow overflow;
+    private final AtomicLong claimed = new AtomicLong();
+    // Next sequence the writer will read; producers may claim up to capacity beyond it
+    private volatile long consumed;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final RotatingFile accessFile;
+    private final RotatingFile auditFile;
+    private final StringBuilder line = new StringBuilder(256);
+    // Events in the files' buffers that no flush has succeeded for yet; writer thread only
+    private long unflushed;
+    private Thread writer;
+    private volatile boolean idle;
+    private volatile boolean closed;
+
+    public AuditLog(Path directory, int capacity, Overflow overflow, long maxFileSize, int maxFiles) throws IOException {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("capacity must be a power of two");
+        this.ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) ring[i] = new Slot();
+        this.mask = capacity - 1;
+        this.overflow = overflow;
+        Files.createDirectories(directory);
+        this.accessFile = new RotatingFile(directory, "access", maxFileSize, maxFiles);
+        this.auditFile = new RotatingFile(directory, "audit", maxFileSize, maxFiles);
+    }
+
+    /** Starts the background writer; events enqueued before are kept and written first. */
+    public void start() {
+        writer = new Thread(this::drain, "task-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Records one handled request; returns false if it was dropped. */
+    public boolean access(String correlationId, String method, String path, int status, long durationNanos) {
+        long sequence = claim(overflow == Overflow.BLOCK);
+        if (sequence < 0) return false;
+        Slot slot = ring[(int) (sequence & mask)];
+        slot.kind = ACCESS;
+        slot.time = System.currentTimeMillis();
+        slot.correlationId = correlationId;
+        slot.first = method;
+        slot.second = path;
+        slot.number = status;
+        slot.durationNanos = durationNanos;
+        publish(slot, sequence);
+        return true;
+    }
+
+    /** Records a committed change, tagged with the correlation id of the request that made it, if any. */
+    @Override
+    public void changed(Task previous, Task current) {
+        long sequence = claim(false);
+        if (sequence < 0) return;
+        Task task = current != null ? current : previous;
+        Slot slot = ring[(int) (sequence & mask)];
+        slot.kind = AUDIT;
+        slot.time = System.currentTimeMillis();
+        slot.correlationId = MDC.get(CORRELATION_ID);
+        slot.first = ACTIONS[previous == null ? 0 : current == null ? 2 : 1];
+        slot.second = task.getId();
+        slot.number = task.getVersion();
+        publish(slot, sequence);
+    }
+
+    /** Claims the next free slot's sequence, or -1 if the ring is full and {@code mayBlock} is false. */
+    private long claim(boolean mayBlock) {
+        for (;;) {
+            long sequence = claimed.get();
+            if (sequence - consumed >= ring.length) {
+                if (!mayBlock || closed) {
+                    dropped.increment();
+                    return -1;
+                }
+                wakeWriter();
+                LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+                continue;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) return sequence;
+        }
+    }
+
+    private void publish(Slot slot, long sequence) {
+        slot.sequence = sequence;
+        if (idle) wakeWriter();
+    }
+
+    private void wakeWriter() {
+        Thread thread = writer;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    private void drain() {
+        for (;;) {
+            boolean stopping = closed;
+            int count = writeAvailable();
+            if (count > 0) continue;
+            if (stopping) break;
+            idle = true;
+            // Re-check after announcing idleness, so a publish in between is not slept through
+            if (ring[(int) (consumed & mask)].sequence != consumed) LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            idle = false;
+        }
+        try {
+            accessFile.close();
+            auditFile.close();
+        } catch (IOException e) {
+            log.warn("Closing the audit log failed", e);
+        }
+    }
+
+    /**
+     * Writes every published event in order and flushes; returns how many there were. An
+     * event that cannot be written is dropped alone. If the flush fails the events stay in
+     * the files' buffers, are not counted as written, and the next call flushes them again.
+     */
+    private int writeAvailable() {
+        int count = 0;
+        long next = consumed;
+        for (;;) {
+            Slot slot = ring[(int) (next & mask)];
+            if (slot.sequence != next) break;
+            try {
+                if (slot.kind == ACCESS) accessFile.write(format(slot)); else auditFile.write(format(slot));
+                unflushed++;
+            } catch (IOException e) {
+                log.warn("Writing the audit log failed", e);
+                dropped.increment();
+            }
+            slot.correlationId = slot.first = slot.second = null;
+            consumed = ++next;
+            count++;
+        }
+        if (unflushed > 0) {
+            try {
+                accessFile.flush();
+                auditFile.flush();
+                written.add(unflushed);
+                unflushed = 0;
+            } catch (IOException e) {
+                log.warn("Flushing the audit log failed", e);
+            }
+        }
+        return count;
+    }
+
+    private byte[] format(Slot slot) {
+        StringBuilder out = line;
+        out.setLength(0);
+        out.append("{\"time\":\"").append(Instant.ofEpochMilli(slot.time)).append('"');
+        if (slot.correlationId != null) string(out.append(",\"correlationId\":"), slot.correlationId);
+        if (slot.kind == ACCESS) {
+            string(out.append(",\"method\":"), slot.first);
+            string(out.append(",\"path\":"), slot.second);
+            out.append(",\"status\":").append(slot.number);
+            out.append(",\"durationMicros\":").append(slot.durationNanos / 1_000);
+        } else {
+            out.append(",\"action\":\"").append(slot.first).append('"');
+            string(out.append(",\"id\":"), slot.second);
+            out.append(",\"version\":").append(slot.number);
+        }
+        return out.append("}\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void string(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') out.append('\\').append(c);
+            else if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+            else out.append(c);
+        }
+        out.append('"');
+    }
+
+    public long writtenCount() {
+        return written.sum();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /** Events enqueued and not written yet. */
+    public long pending() {
+        return Math.max(0, claimed.get() - consumed);
+    }
+
+    /** Stops taking events, writes out what is queued and closes the files. */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        Thread thread = writer;
+        if (thread == null) {
+            accessFile.close();
+            auditFile.close();
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** {@code name.log}, renamed to {@code name.1.log} (and older ones shifted up) when full. */
+    private static final class RotatingFile {
+        private final Path directory;
+        private final String name;
+        private final long maxSize;
+        private final int maxFiles;
+        private OutputStream out;
+        private long size;
+
+        RotatingFile(Path directory, String name, long maxSize, int maxFiles) throws IOException {
+            this.directory = directory;
+            this.name = name;
+            this.maxSize = maxSize;
+            this.maxFiles = maxFiles;
+            open();
+        }
+
+        private Path path(int index) {
+            return directory.resolve(index == 0 ? name + ".log" : name + "." + index + ".log");
+        }
+
+        private void open() throws IOException {
+            Path current = path(0);
+            size = Files.exists(current) ? Files.size(current) : 0;
+            out = new BufferedOutputStream(Files.newOutputStream(current,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        }
+
+        void write(byte[] bytes) throws IOException {
+            if (size > 0 && size + bytes.length > maxSize) rotate();
+            out.write(bytes);
+            size += bytes.length;
+        }
+
+        /** Reopens the current file even if shifting fails, so later writes append to it rather than to a closed stream. */
+        private void rotate() throws IOException {
+            try {
+                out.close();
+                Files.deleteIfExists(path(maxFiles));
+                for (int i = maxFiles - 1; i >= 0; i--) {
+                    if (Files.exists(path(i))) Files.move(path(i), path(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+                if (maxFiles == 0) Files.deleteIfExists(path(1));
+            } finally {
+                open();
+            }
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        void close() throws IOException {
+            out.close();
+        }
+    }
+}
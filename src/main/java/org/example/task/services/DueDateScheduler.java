@@ -0,0 +1,268 @@
+package org.example.task.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.example.task.repository.TaskChangeListener;
+import org.example.task.repository.TaskRepository;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fires events when tasks become due (on their due date) and overdue (the day after), from
+ * a hierarchical timing wheel with one-day ticks. Four wheels of 64 slots cover 64, 64^2,
+ * 64^3 and 64^4 days ahead; a timer sits in the wheel where its day first differs from the
+ * current one and moves down as that wheel's slot comes up, so advancing a day costs the
+ * timers that move or fire, never a pass over all tasks. DONE tasks and tasks without a due
+ * date have no timer.
+ * <p>
+ * Register it with {@link TaskRepository#addChangeListener}, or {@link #follow} to also pick
+ * up the tasks already stored, to follow every write, and call {@link #advance} periodically (or {@link #start}) to fire
+ * whatever the clock has reached. Events go to the {@link Listener} in batches, outside the
+ * scheduler's lock.
+ */
+@Slf4j
+public class DueDateScheduler implements TaskChangeListener, Closeable {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+    // Bucket indexes past the wheels: timers beyond the last wheel, and timers ready to fire
+    private static final int OVERFLOW = LEVELS * SLOTS;
+    private static final int EXPIRED = OVERFLOW + 1;
+
+    public interface Listener {
+        default void onDue(List<Task> tasks) {}
+
+        default void onOverdue(List<Task> tasks) {}
+    }
+
+    private enum Kind { DUE, OVERDUE }
+
+    private static final class Timer {
+        Task task;
+        Kind kind;
+        long day;
+        int bucket;
+        Timer prev;
+        Timer next;
+
+        Timer(Task task, Kind kind, long day) {
+            this.task = task;
+            this.kind = kind;
+            this.day = day;
+        }
+    }
+
+    private final Clock clock;
+    private final Listener listener;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Timer[] buckets = new Timer[EXPIRED + 1];
+    private final Map<String, Timer> byId = new HashMap<>();
+    // Ids reported to changed() while follow() reads the store; null otherwise
+    private Set<String> changedWhileSeeding;
+    // Day the wheel stands at; timers for it or earlier are in the expired bucket
+    private long now;
+    private ScheduledExecutorService ticker;
+
+    public DueDateScheduler(Clock clock, Listener listener) {
+        this.clock = clock;
+        this.listener = listener;
+        this.now = LocalDate.now(clock).toEpochDay();
+    }
+
+    /**
+     * Registers with {@code repository} and adds timers for the tasks it already holds,
+     * reading them in keyset chunks while writes go on. A task changed after registration is
+     * skipped when the read reaches it: {@link #changed} has seen a newer state than the read
+     * returns, including a deletion.
+     */
+    public void follow(TaskRepository repository) {
+        lock.lock();
+        try {
+            changedWhileSeeding = new HashSet<>();
+        } finally {
+            lock.unlock();
+        }
+        repository.addChangeListener(this);
+        try {
+            new TaskService(repository).forEachTask(null, null, null, this::seed);
+        } finally {
+            lock.lock();
+            try {
+                changedWhileSeeding = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void seed(Task task) {
+        lock.lock();
+        try {
+            if (changedWhileSeeding.contains(task.getId()) || byId.containsKey(task.getId())) return;
+            schedule(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void changed(Task previous, Task current) {
+        String id = current != null ? current.getId() : previous.getId();
+        lock.lock();
+        try {
+            if (changedWhileSeeding != null) changedWhileSeeding.add(id);
+            Timer timer = byId.get(id);
+            if (previous != null && current != null && !reschedules(previous, current)) {
+                // Same due date, still open or still done: keep the timer, so nothing fires twice
+                if (timer != null) timer.task = current;
+                return;
+            }
+            if (timer != null) {
+                unlink(timer);
+                byId.remove(id);
+            }
+            if (current != null) schedule(current);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Adds the timer {@code task} needs, if any. Under the lock, with no timer for it yet. */
+    private void schedule(Task task) {
+        if (task.getStatus() == TaskStatus.DONE || task.getDueDate() == null) return;
+        long dueDay = task.getDueDate().toEpochDay();
+        Timer timer = dueDay < now ? new Timer(task, Kind.OVERDUE, dueDay + 1) : new Timer(task, Kind.DUE, dueDay);
+        byId.put(task.getId(), timer);
+        insert(timer);
+    }
+
+    private static boolean reschedules(Task previous, Task current) {
+        return !Objects.equals(previous.getDueDate(), current.getDueDate())
+                || (previous.getStatus() == TaskStatus.DONE) != (current.getStatus() == TaskStatus.DONE);
+    }
+
+    /** Moves the wheel up to the clock's current day and delivers everything that fired. */
+    public void advance() {
+        long today = LocalDate.now(clock).toEpochDay();
+        List<Task> due = new ArrayList<>();
+        List<Task> overdue = new ArrayList<>();
+        lock.lock();
+        try {
+            fireExpired(due, overdue);
+            while (now < today) {
+                now++;
+                for (int level = LEVELS; level > 0; level--) {
+                    if ((now & ((1L << (SLOT_BITS * level)) - 1)) != 0) continue;
+                    cascade(level == LEVELS ? OVERFLOW : level * SLOTS + slot(now, level));
+                }
+                cascade(slot(now, 0));
+                fireExpired(due, overdue);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!due.isEmpty()) listener.onDue(due);
+        if (!overdue.isEmpty()) listener.onOverdue(overdue);
+    }
+
+    /** Timers still waiting to fire. */
+    public int pending() {
+        lock.lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Calls {@link #advance} every {@code interval} on a daemon thread until {@link #close}. */
+    public void start(Duration interval) {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "due-date-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(() -> {
+            try {
+                advance();
+            } catch (RuntimeException e) {
+                // Keep ticking; an exception would cancel the schedule
+                log.warn("Due date listener failed", e);
+            }
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) ticker.shutdownNow();
+    }
+
+    private void fireExpired(List<Task> due, List<Task> overdue) {
+        while (buckets[EXPIRED] != null) {
+            Timer timer = buckets[EXPIRED];
+            unlink(timer);
+            if (timer.kind == Kind.DUE) {
+                due.add(timer.task);
+                timer.kind = Kind.OVERDUE;
+                timer.day++;
+                insert(timer);
+            } else {
+                overdue.add(timer.task);
+                byId.remove(timer.task.getId());
+            }
+        }
+    }
+
+    /** Re-inserts every timer of {@code bucket} relative to the new {@code now}. */
+    private void cascade(int bucket) {
+        Timer timer = buckets[bucket];
+        buckets[bucket] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            insert(timer);
+            timer = next;
+        }
+    }
+
+    private void insert(Timer timer) {
+        int bucket;
+        if (timer.day <= now) {
+            bucket = EXPIRED;
+        } else {
+            int level = (63 - Long.numberOfLeadingZeros(timer.day ^ now)) / SLOT_BITS;
+            bucket = level >= LEVELS ? OVERFLOW : level * SLOTS + slot(timer.day, level);
+        }
+        timer.bucket = bucket;
+        timer.prev = null;
+        timer.next = buckets[bucket];
+        if (timer.next != null) timer.next.prev = timer;
+        buckets[bucket] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) timer.prev.next = timer.next;
+        else buckets[timer.bucket] = timer.next;
+        if (timer.next != null) timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    private static int slot(long day, int level) {
+        return (int) (day >>> (SLOT_BITS * level)) & (SLOTS - 1);
+    }
+}
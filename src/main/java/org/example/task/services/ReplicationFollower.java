@@ -0,0 +1,199 @@
+package org.example.task.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.task.domain.Task;
+import org.example.task.repository.TaskCodec;
+import org.example.task.repository.TaskRepository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Follower side of replication: keeps a connection to the {@link ReplicationServer} and
+ * applies what it streams to a local repository, which then serves reads. Reconnects with
+ * backoff whenever the connection drops, resuming from the last applied sequence.
+ * <p>
+ * A snapshot is read on the leader after it noted its position, so changes just after that
+ * position may already be in it. Until the follower is past the position the leader had
+ * when the snapshot ended, a change is applied only if it is not older than the stored
+ * version; after that every change is newer than anything the snapshot held.
+ */
+@Slf4j
+public class ReplicationFollower implements Closeable {
+    private static final int SNAPSHOT_BATCH = 1_024;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    // Several missed heartbeats before the leader is given up on
+    private static final Duration READ_TIMEOUT = ReplicationServer.HEARTBEAT_INTERVAL.multipliedBy(10);
+    private static final Duration MIN_BACKOFF = Duration.ofMillis(100);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(5);
+
+    private final TaskRepository repository;
+    private final InetSocketAddress leader;
+    private volatile Thread thread;
+    private volatile Socket socket;
+    private volatile boolean closed;
+    private volatile boolean connected;
+    private long epoch;
+    private long gatedUntil;
+    private volatile long position;
+    private volatile long leaderLatest;
+    private volatile long caughtUpAt = System.nanoTime();
+
+    /** Follows the leader at {@code leader} once {@link #start} is called, applying changes to {@code repository}. */
+    public ReplicationFollower(TaskRepository repository, InetSocketAddress leader) {
+        this.repository = repository;
+        this.leader = leader;
+    }
+
+    /** Connects to the leader, and keeps reconnecting until {@link #close}. */
+    public void start() {
+        thread = new Thread(this::run, "task-replication-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Leader sequence applied up to. */
+    public long position() {
+        return position;
+    }
+
+    /** Changes the leader has committed that are not applied here yet, as of its last message. */
+    public long lag() {
+        return Math.max(0, leaderLatest - position);
+    }
+
+    /** How long since this follower last had everything the leader had; 0 while it does. */
+    public Duration lagTime() {
+        return lag() == 0 && connected ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - caughtUpAt);
+    }
+
+    public boolean connected() {
+        return connected;
+    }
+
+    private void run() {
+        Duration backoff = MIN_BACKOFF;
+        while (!closed) {
+            try (Socket socket = new Socket()) {
+                this.socket = socket;
+                if (closed) return;
+                // Resolved on every attempt, so a leader that moves or comes up later is found
+                socket.connect(new InetSocketAddress(leader.getHostString(), leader.getPort()), (int) CONNECT_TIMEOUT.toMillis());
+                if (socket.getLocalSocketAddress().equals(socket.getRemoteSocketAddress())) {
+                    // A leader port in the ephemeral range can be "reached" by the socket connecting to itself
+                    throw new IOException("Connected to itself");
+                }
+                socket.setSoTimeout((int) READ_TIMEOUT.toMillis());
+                socket.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                out.writeInt(ReplicationServer.MAGIC);
+                out.writeLong(epoch);
+                out.writeLong(position);
+                out.flush();
+                connected = true;
+                backoff = MIN_BACKOFF;
+                log.info("Following leader {} from {}/{}", leader, epoch, position);
+                follow(new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024)));
+            } catch (IOException e) {
+                if (!closed) log.warn("Lost replication leader {}: {}", leader, e.toString());
+            } finally {
+                connected = false;
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff.multipliedBy(2);
+        }
+    }
+
+    private void follow(DataInputStream in) throws IOException {
+        for (;;) {
+            byte frame = in.readByte();
+            switch (frame) {
+                case ReplicationServer.SNAPSHOT -> loadSnapshot(in);
+                case ReplicationServer.CHANGE -> {
+                    long sequence = in.readLong();
+                    TaskChangeFeed.Type type = ReplicationServer.type(in.readByte());
+                    apply(type, TaskCodec.read(in), sequence <= gatedUntil);
+                    position = sequence;
+                }
+                case ReplicationServer.HEARTBEAT -> {
+                    leaderLatest = in.readLong();
+                    if (position >= leaderLatest) caughtUpAt = System.nanoTime();
+                }
+                default -> throw new IOException("Unexpected replication frame " + frame);
+            }
+        }
+    }
+
+    private void loadSnapshot(DataInputStream in) throws IOException {
+        long snapshotEpoch = in.readLong();
+        long sequence = in.readLong();
+        Set<String> ids = new HashSet<>();
+        List<Task> batch = new ArrayList<>(SNAPSHOT_BATCH);
+        byte frame;
+        while ((frame = in.readByte()) == ReplicationServer.TASK) {
+            Task task = TaskCodec.read(in);
+            ids.add(task.getId());
+            batch.add(task);
+            if (batch.size() == SNAPSHOT_BATCH) {
+                repository.saveAll(batch);
+                batch = new ArrayList<>(SNAPSHOT_BATCH);
+            }
+        }
+        if (frame != ReplicationServer.SNAPSHOT_END) throw new IOException("Unexpected replication frame " + frame);
+        if (!batch.isEmpty()) repository.saveAll(batch);
+        // Whatever the snapshot did not have was deleted on the leader (or belongs to an older epoch)
+        List<String> stale = new ArrayList<>();
+        new TaskService(repository).forEachTask(null, null, null, task -> {
+            if (!ids.contains(task.getId())) stale.add(task.getId());
+        });
+        if (!stale.isEmpty()) repository.deleteAllById(stale);
+        gatedUntil = in.readLong();
+        leaderLatest = gatedUntil;
+        epoch = snapshotEpoch;
+        position = sequence;
+        log.info("Loaded a snapshot of {} tasks at {}/{}", ids.size(), epoch, sequence);
+    }
+
+    private void apply(TaskChangeFeed.Type type, Task task, boolean gated) {
+        if (gated) {
+            Optional<Task> stored = repository.findById(task.getId());
+            if (stored.isPresent() && stored.get().getVersion() > task.getVersion()) return;
+        }
+        if (type == TaskChangeFeed.Type.DELETED) {
+            repository.deleteById(task.getId());
+        } else {
+            repository.save(task);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        Socket current = socket;
+        if (current != null) current.close();
+        Thread running = thread;
+        if (running == null) return;
+        running.interrupt();
+        try {
+            running.join(CONNECT_TIMEOUT.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.task.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.task.domain.Task;
+import org.example.task.repository.TaskCodec;
+import org.example.task.repository.TaskRepository;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Leader side of replication: streams the {@link TaskChangeFeed} to every follower that
+ * connects over TCP. A follower opens with the epoch and sequence it has applied up to; if
+ * the feed still holds everything after that, the leader sends just those changes, otherwise
+ * (new follower, leader restarted, or fell out of the ring) a full snapshot first. The
+ * snapshot is streamed in keyset chunks after noting the feed's position, so it may already
+ * contain some of the changes that follow it, and may miss a task that such a change moved
+ * behind the cursor; the change itself is sent next. Followers tell those apart by version
+ * (see {@link ReplicationFollower}).
+ * Idle connections get a heartbeat carrying the latest sequence, from which followers
+ * compute their lag.
+ * <p>
+ * Frames, leader to follower, after the follower's {@code MAGIC epoch position} hello:
+ * {@code SNAPSHOT epoch sequence}, {@code TASK task}..., {@code SNAPSHOT_END latest};
+ * {@code CHANGE sequence type task}; {@code HEARTBEAT latest}.
+ */
+@Slf4j
+public class ReplicationServer implements Closeable {
+    static final int MAGIC = 0x54524550;
+    static final byte SNAPSHOT = 1;
+    static final byte TASK = 2;
+    static final byte SNAPSHOT_END = 3;
+    static final byte CHANGE = 4;
+    static final byte HEARTBEAT = 5;
+    static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(1);
+    private static final int BATCH = 1_024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final TaskChangeFeed.Type[] TYPES = TaskChangeFeed.Type.values();
+
+    private final TaskChangeFeed feed;
+    private final TaskRepository repository;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    /** Listens on {@code port} (0 picks a free one); followers are accepted once {@link #start} is called. */
+    public ReplicationServer(TaskChangeFeed feed, TaskRepository repository, int port) throws IOException {
+        this.feed = feed;
+        this.repository = repository;
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port));
+        this.sessions = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "task-replication-leader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Starts accepting followers. */
+    public void start() {
+        sessions.execute(this::accept);
+        log.info("Replication leader listening on port {}", port());
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** Followers currently connected. */
+    public int followers() {
+        return followers.size();
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                followers.add(socket);
+                sessions.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!closed) log.warn("Accepting a follower failed", e);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+            if (in.readInt() != MAGIC) throw new IOException("Not a replication client");
+            long epoch = in.readLong();
+            long position = in.readLong();
+            log.info("Follower {} connected at {}/{}", socket.getRemoteSocketAddress(), epoch, position);
+            // Position 0 could mean an empty follower of a store that was loaded before the feed existed
+            boolean resumable = epoch == feed.epoch() && position > 0 && position <= feed.latest();
+            if (!resumable) position = snapshot(out);
+            while (!closed) {
+                TaskChangeFeed.Read read = feed.read(position, BATCH);
+                if (read.behind()) {
+                    log.info("Follower {} fell behind the change feed; resending a snapshot", socket.getRemoteSocketAddress());
+                    position = snapshot(out);
+                    continue;
+                }
+                if (read.changes().isEmpty()) {
+                    if (!feed.await(position, HEARTBEAT_INTERVAL)) {
+                        out.writeByte(HEARTBEAT);
+                        out.writeLong(feed.latest());
+                        out.flush();
+                    }
+                    continue;
+                }
+                for (TaskChangeFeed.Change change : read.changes()) {
+                    out.writeByte(CHANGE);
+                    out.writeLong(change.sequence());
+                    out.writeByte(change.type().ordinal());
+                    TaskCodec.write(out, change.task());
+                    position = change.sequence();
+                }
+                out.writeByte(HEARTBEAT);
+                out.writeLong(feed.latest());
+                // Keep filling the buffer while a backlog remains; flush once caught up
+                if (read.changes().size() < BATCH) out.flush();
+            }
+        } catch (IOException e) {
+            if (!closed) log.info("Follower {} disconnected: {}", socket.getRemoteSocketAddress(), e.toString());
+        } finally {
+            followers.remove(socket);
+        }
+    }
+
+    /** Sends every stored task and returns the feed position the follower continues from. */
+    private long snapshot(DataOutputStream out) throws IOException {
+        long sequence = feed.latest();
+        out.writeByte(SNAPSHOT);
+        out.writeLong(feed.epoch());
+        out.writeLong(sequence);
+        out.flush();
+        long count = 0;
+        KeysetScrollPosition after = ScrollPosition.keyset();
+        Window<Task> window;
+        do {
+            window = repository.findByStatusAfter(null, after, BATCH);
+            for (Task task : window) {
+                out.writeByte(TASK);
+                TaskCodec.write(out, task);
+                count++;
+            }
+            if (!window.isEmpty()) after = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        } while (window.hasNext());
+        out.writeByte(SNAPSHOT_END);
+        out.writeLong(feed.latest());
+        out.flush();
+        log.info("Sent a snapshot of {} tasks at sequence {}", count, sequence);
+        return sequence;
+    }
+
+    static TaskChangeFeed.Type type(int ordinal) {
+        return TYPES[ordinal];
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket socket : followers) socket.close();
+        sessions.shutdownNow();
+    }
+}
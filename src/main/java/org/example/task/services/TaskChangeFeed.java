@@ -0,0 +1,100 @@
+package org.example.task.services;
+
+import org.example.task.domain.Task;
+import org.example.task.repository.TaskChangeListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The last {@code capacity} task changes, numbered from 1, in a preallocated ring. Changes
+ * come in through {@link #changed}, which repositories call one at a time under their write
+ * lock, so there is a single writer: it stores the record in its slot and then publishes the
+ * sequence through a volatile cursor, never waiting on readers. Readers keep their own
+ * position; a reader the writer has lapped sees a newer sequence in the slot it wanted and
+ * is told it fell behind, and has to resync from a full read instead.
+ */
+public class TaskChangeFeed implements TaskChangeListener {
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    /** {@code task} is the new state, or the last state for a deletion. */
+    public record Change(long sequence, Type type, Task task) {}
+
+    /** Changes after the requested position, or {@code behind} when some of them were already overwritten. */
+    public record Read(List<Change> changes, boolean behind) {}
+
+    private final Change[] ring;
+    private final int mask;
+    private volatile long cursor;
+    private final Set<Thread> waiting = ConcurrentHashMap.newKeySet();
+    private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+
+    public TaskChangeFeed(int capacity) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("capacity must be a power of two");
+        this.ring = new Change[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public void changed(Task previous, Task current) {
+        Type type = previous == null ? Type.CREATED : current == null ? Type.DELETED : Type.UPDATED;
+        long sequence = cursor + 1;
+        ring[(int) (sequence & mask)] = new Change(sequence, type, current != null ? current : previous);
+        cursor = sequence;
+        for (Thread reader : waiting) LockSupport.unpark(reader);
+    }
+
+    /**
+     * Random id of this feed's numbering. Sequences start over with every feed (and so every
+     * restart), so a position is only meaningful together with the epoch it was read in.
+     */
+    public long epoch() {
+        return epoch;
+    }
+
+    /** Sequence of the latest change, 0 before the first. */
+    public long latest() {
+        return cursor;
+    }
+
+    /** Oldest sequence still held. */
+    public long oldest() {
+        return Math.max(1, cursor - ring.length + 1);
+    }
+
+    /** Up to {@code max} changes with sequences after {@code after}. */
+    public Read read(long after, int max) {
+        long last = Math.min(cursor, after + max);
+        if (after + 1 < oldest()) return new Read(List.of(), true);
+        List<Change> changes = new ArrayList<>((int) Math.max(0, last - after));
+        for (long sequence = after + 1; sequence <= last; sequence++) {
+            Change change = ring[(int) (sequence & mask)];
+            // Records are immutable, so a lapped slot shows up as a different sequence, never a torn one
+            if (change == null || change.sequence() != sequence) return new Read(List.of(), true);
+            changes.add(change);
+        }
+        return new Read(changes, false);
+    }
+
+    /** Waits until a change after {@code after} exists or {@code timeout} passes; returns whether one does. */
+    public boolean await(long after, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Thread self = Thread.currentThread();
+        waiting.add(self);
+        try {
+            while (cursor <= after) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0 || self.isInterrupted()) return false;
+                LockSupport.parkNanos(this, left);
+            }
+            return true;
+        } finally {
+            waiting.remove(self);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.task.services;
+
+import java.util.UUID;
+
+/** Source of ids for new tasks. Ids are canonical lowercase UUID strings either way. */
+@FunctionalInterface
+public interface TaskIdGenerator {
+    enum Kind { RANDOM, TIME_ORDERED }
+
+    String newId();
+
+    static TaskIdGenerator of(Kind kind) {
+        return switch (kind) {
+            case RANDOM -> () -> UUID.randomUUID().toString();
+            case TIME_ORDERED -> new TimeOrderedIdGenerator();
+        };
+    }
+}
@@ -0,0 +1,256 @@
+package org.example.task.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.example.task.repository.TaskRepository;
+import org.example.task.repository.TaskWrite;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Bulk-loads tasks from NDJSON or CSV. The input is read incrementally in chunks of
+ * lines; chunks are parsed and validated on a pool of worker threads and each chunk's
+ * valid tasks are written with one {@link TaskRepository#replaceAll}. At most a few chunks
+ * per worker are in flight, so memory use does not depend on the input size.
+ * Invalid lines are skipped and reported with their line number, as are lines naming an
+ * id that is already taken: an import only ever creates tasks.
+ */
+public class TaskImporter {
+    public enum Format { NDJSON, CSV }
+
+    public record LineError(long line, String error) {}
+
+    public record Progress(long linesProcessed, long imported, long failed) {}
+
+    /** Totals for the whole input; {@code errors} holds at most the first {@value #MAX_REPORTED_ERRORS} by line. */
+    public record Report(long linesProcessed, long imported, long failed, List<LineError> errors) {}
+
+    static final int MAX_REPORTED_ERRORS = 1_000;
+    private static final int CHUNK_LINES = 5_000;
+
+    private final TaskRepository taskRepository;
+    private final ObjectMapper objectMapper;
+    private final int parallelism;
+    private final TaskIdGenerator idGenerator;
+
+    public TaskImporter(TaskRepository taskRepository, ObjectMapper objectMapper, int parallelism) {
+        this(taskRepository, objectMapper, parallelism, new TimeOrderedIdGenerator());
+    }
+
+    public TaskImporter(TaskRepository taskRepository, ObjectMapper objectMapper, int parallelism,
+                        TaskIdGenerator idGenerator) {
+        this.taskRepository = taskRepository;
+        this.objectMapper = objectMapper;
+        this.parallelism = Math.max(1, parallelism);
+        this.idGenerator = idGenerator;
+    }
+
+    public Report importTasks(InputStream input, Format format, Consumer<Progress> progress) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+        LocalDate today = LocalDate.now();
+        long lineNumber = 0;
+        Map<String, Integer> columns = null;
+        if (format == Format.CSV) {
+            String header = reader.readLine();
+            if (header == null) return new Report(0, 0, 0, List.of());
+            lineNumber++;
+            columns = csvColumns(header);
+        }
+
+        Counters counters = new Counters();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "task-import");
+            t.setDaemon(true);
+            return t;
+        });
+        int permits = parallelism * 2;
+        Semaphore inFlight = new Semaphore(permits);
+        try {
+            while (counters.failure.get() == null) {
+                String[] lines = new String[CHUNK_LINES];
+                int count = 0;
+                String line;
+                while (count < CHUNK_LINES && (line = reader.readLine()) != null) lines[count++] = line;
+                if (count == 0) break;
+                long firstLine = lineNumber + 1;
+                lineNumber += count;
+                int size = count;
+                Map<String, Integer> csv = columns;
+                inFlight.acquireUninterruptibly();
+                workers.execute(() -> {
+                    try {
+                        processChunk(lines, size, firstLine, csv, today, counters);
+                        progress.accept(new Progress(counters.lines.get(), counters.imported.get(), counters.failed.get()));
+                    } catch (Throwable t) {
+                        counters.failure.compareAndSet(null, t);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                if (size < CHUNK_LINES) break;
+            }
+            inFlight.acquireUninterruptibly(permits);
+        } finally {
+            workers.shutdown();
+        }
+        Throwable failure = counters.failure.get();
+        if (failure instanceof RuntimeException e) throw e;
+        if (failure instanceof Error e) throw e;
+        List<LineError> errors = new ArrayList<>(counters.errors);
+        errors.sort(Comparator.comparingLong(LineError::line));
+        return new Report(counters.lines.get(), counters.imported.get(), counters.failed.get(), errors);
+    }
+
+    private void processChunk(String[] lines, int count, long firstLine, Map<String, Integer> csv, LocalDate today,
+                              Counters counters) {
+        List<TaskWrite> valid = new ArrayList<>(count);
+        // Line of each task in the chunk by id; an id already stored, or used twice, fails the later line
+        Map<String, Long> lineOf = new HashMap<>();
+        long failed = 0;
+        for (int i = 0; i < count; i++) {
+            String line = lines[i];
+            if (line.isBlank()) continue;
+            try {
+                Row row = csv == null ? parseJson(line) : parseCsv(line, csv);
+                TaskService.validateTitle(row.title);
+                TaskService.validateDueDate(row.dueDate, today);
+                String id = row.id == null || row.id.isBlank() ? idGenerator.newId() : row.id;
+                if (lineOf.putIfAbsent(id, firstLine + i) != null) throw new IllegalArgumentException("id already exists: " + id);
+                valid.add(new TaskWrite(null, new Task(id, row.title, row.description,
+                        row.status == null ? TaskStatus.PENDING : row.status, row.dueDate)));
+            } catch (IllegalArgumentException e) {
+                failed++;
+                reportError(counters, firstLine + i, e.getMessage());
+            }
+        }
+        long imported = valid.size();
+        if (!valid.isEmpty()) {
+            for (String id : taskRepository.replaceAll(valid)) {
+                imported--;
+                failed++;
+                reportError(counters, lineOf.get(id), "id already exists: " + id);
+            }
+        }
+        counters.imported.addAndGet(imported);
+        counters.failed.addAndGet(failed);
+        counters.lines.addAndGet(count);
+    }
+
+    private static void reportError(Counters counters, long line, String error) {
+        if (counters.reportedErrors.getAndIncrement() < MAX_REPORTED_ERRORS) counters.errors.add(new LineError(line, error));
+    }
+
+    private Row parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, Row.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static Row parseCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        Row row = new Row();
+        row.id = field(fields, columns.get("id"));
+        row.title = field(fields, columns.get("title"));
+        row.description = field(fields, columns.get("description"));
+        String status = field(fields, columns.get("status"));
+        if (status != null && !status.isBlank()) {
+            try {
+                row.status = TaskStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("invalid status: " + status);
+            }
+        }
+        String dueDate = field(fields, columns.get("duedate"));
+        if (dueDate != null && !dueDate.isBlank()) {
+            try {
+                row.dueDate = LocalDate.parse(dueDate.trim());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("invalid due_date: " + dueDate);
+            }
+        }
+        return row;
+    }
+
+    private static Map<String, Integer> csvColumns(String header) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "");
+            columns.put(name, i);
+        }
+        if (!columns.containsKey("title") || !columns.containsKey("duedate")) {
+            throw new IllegalArgumentException("CSV header must name title and dueDate columns");
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, Integer index) {
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    /** RFC 4180 fields within one line: quoted fields may contain commas and doubled quotes, but not newlines. */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("unterminated quoted field");
+        fields.add(current.toString());
+        return fields;
+    }
+
+    static class Row {
+        public String id;
+        public String title;
+        public String description;
+        public TaskStatus status;
+        public LocalDate dueDate;
+    }
+
+    private static class Counters {
+        final AtomicLong lines = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicInteger reportedErrors = new AtomicInteger();
+        final Queue<LineError> errors = new ConcurrentLinkedQueue<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+    }
+}
@@ -1,30 +1,49 @@
 package org.example.task.services;
 
+import lombok.extern.slf4j.Slf4j;
 import org.example.task.domain.Task;
 import org.example.task.domain.TaskStatus;
 import org.example.task.repository.TaskRepository;
+import org.example.task.repository.TaskStatistics;
+import org.example.task.repository.TaskWrite;
+import org.example.task.domain.ConflictException;
 import org.example.task.domain.NotFoundException;
+import org.example.task.domain.PreconditionFailedException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 
+@Slf4j
 public class TaskService {
+    private static final int EXPORT_CHUNK_SIZE = 1_000;
+
     private final TaskRepository taskRepository;
+    private final TaskIdGenerator idGenerator;
 
     public TaskService(TaskRepository taskRepository) {
+        this(taskRepository, new TimeOrderedIdGenerator());
+    }
+
+    public TaskService(TaskRepository taskRepository, TaskIdGenerator idGenerator) {
         this.taskRepository = taskRepository;
+        this.idGenerator = idGenerator;
     }
 
     public Task create(String title, String description, TaskStatus status, LocalDate dueDate) {
         validateTitle(title);
         validateDueDate(dueDate);
-        String id = UUID.randomUUID().toString();
+        String id = idGenerator.newId();
         Task task = new Task(id, title, description, status == null ? TaskStatus.PENDING : status, dueDate);
         taskRepository.save(task);
-        System.out.println(task);
+        log.debug("Created task {}", id);
         return task;
     }
 
@@ -33,13 +52,31 @@ public class TaskService {
     }
 
     public Task update(String id, String title, String description, TaskStatus status, LocalDate dueDate) {
-        Task task = taskRepository.findById(id).orElseThrow(() -> new NotFoundException("Task not found"));
-        if (title != null) { validateTitle(title); task.setTitle(title); }
-        if (dueDate != null) { validateDueDate(dueDate); task.setDueDate(dueDate); }
-        if (description != null) task.setDescription(description);
-        if (status != null) task.setStatus(status);
-        taskRepository.save(task);
-        return task;
+        return update(id, title, description, status, dueDate, null);
+    }
+
+    /**
+     * Builds the next version of the task and installs it with a compare-and-set, retrying
+     * on a fresh read if a concurrent update won. With {@code expectedVersion} set the
+     * caller insists on the version it last saw, so a lost race fails instead of retrying.
+     */
+    public Task update(String id, String title, String description, TaskStatus status, LocalDate dueDate,
+                       Long expectedVersion) {
+        if (title != null) validateTitle(title);
+        if (dueDate != null) validateDueDate(dueDate);
+        for (;;) {
+            Task current = get(id);
+            if (expectedVersion != null && current.getVersion() != expectedVersion) {
+                throw new PreconditionFailedException("Task has been modified");
+            }
+            Task next = new Task(current.getId(),
+                    title != null ? title : current.getTitle(),
+                    description != null ? description : current.getDescription(),
+                    status != null ? status : current.getStatus(),
+                    dueDate != null ? dueDate : current.getDueDate(),
+                    current.getVersion() + 1);
+            if (taskRepository.replace(current, next)) return next;
+        }
     }
 
     public void delete(String id) {
@@ -47,32 +84,169 @@ public class TaskService {
         taskRepository.deleteById(id);
     }
 
+    /**
+     * Applies a batch of operations in order, validating each one against the state the
+     * earlier operations left, then writes all surviving changes with one
+     * {@link TaskRepository#replaceAll}. A failing operation is reported in its result and
+     * skipped; it does not abort the rest of the batch. Each change is conditional on the
+     * version the batch read, so a concurrent write to the same task is never overwritten:
+     * every operation on that task is reported as a {@link ConflictException}.
+     */
+    public List<BatchResult> applyBatch(List<BatchOperation> operations) {
+        LocalDate today = LocalDate.now();
+        // Pending state per id touched by the batch; a null value means deleted
+        Map<String, Task> staged = new LinkedHashMap<>();
+        // Stored version each touched task was read at; absent for tasks the batch creates
+        Map<String, Task> read = new HashMap<>();
+        List<BatchResult> results = new ArrayList<>(operations.size());
+        List<String> touched = new ArrayList<>(operations.size());
+        for (BatchOperation op : operations) {
+            try {
+                Task task = apply(op, staged, read, today);
+                results.add(new BatchResult(task, null));
+                touched.add(task != null ? task.getId() : op.id());
+            } catch (IllegalArgumentException | NotFoundException e) {
+                results.add(new BatchResult(null, e));
+                touched.add(null);
+            }
+        }
+        List<TaskWrite> writes = new ArrayList<>(staged.size());
+        staged.forEach((id, task) -> {
+            // A task both created and deleted by the batch was never stored
+            if (task != null || read.containsKey(id)) writes.add(new TaskWrite(read.get(id), task));
+        });
+        Set<String> conflicts = writes.isEmpty() ? Set.of() : taskRepository.replaceAll(writes);
+        for (int i = 0; i < results.size(); i++) {
+            if (touched.get(i) != null && conflicts.contains(touched.get(i))) {
+                results.set(i, new BatchResult(null, new ConflictException("Task has been modified")));
+            }
+        }
+        return results;
+    }
+
+    private Task apply(BatchOperation op, Map<String, Task> staged, Map<String, Task> read, LocalDate today) {
+        if (op.type() == null) throw new IllegalArgumentException("op is required");
+        switch (op.type()) {
+            case CREATE -> {
+                validateTitle(op.title());
+                validateDueDate(op.dueDate(), today);
+                Task task = new Task(idGenerator.newId(), op.title(), op.description(),
+                        op.status() == null ? TaskStatus.PENDING : op.status(), op.dueDate());
+                staged.put(task.getId(), task);
+                return task;
+            }
+            case UPDATE -> {
+                Task current = current(op.id(), staged, read);
+                if (op.title() != null) validateTitle(op.title());
+                if (op.dueDate() != null) validateDueDate(op.dueDate(), today);
+                // Work on a copy so nothing is visible until the batch is written
+                Task task = new Task(current.getId(),
+                        op.title() != null ? op.title() : current.getTitle(),
+                        op.description() != null ? op.description() : current.getDescription(),
+                        op.status() != null ? op.status() : current.getStatus(),
+                        op.dueDate() != null ? op.dueDate() : current.getDueDate(),
+                        current.getVersion() + 1);
+                staged.put(task.getId(), task);
+                return task;
+            }
+            case DELETE -> {
+                Task current = current(op.id(), staged, read);
+                staged.put(current.getId(), null);
+                return null;
+            }
+            default -> throw new IllegalArgumentException("unknown op " + op.type());
+        }
+    }
+
+    private Task current(String id, Map<String, Task> staged, Map<String, Task> read) {
+        if (id != null && staged.containsKey(id)) {
+            Task task = staged.get(id);
+            if (task == null) throw new NotFoundException("Task not found");
+            return task;
+        }
+        Task task = id == null ? null : taskRepository.findById(id).orElse(null);
+        if (task == null) throw new NotFoundException("Task not found");
+        read.put(id, task);
+        return task;
+    }
+
     public Page<Task> getTasks(TaskStatus taskStatus, int page, int size) {
         // Use repository sorting by dueDate
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by("dueDate"));
-        Page<Task> taskPage = taskRepository.findAll(pageRequest);
         if (taskStatus != null) {
-            // Filter by status, but keep paging info
-            List<Task> filtered = taskPage.stream()
-                .filter(task -> task.getStatus() == taskStatus)
-                .toList();
-            return new org.springframework.data.domain.PageImpl<>(filtered, pageRequest, filtered.size());
+            return taskRepository.findByStatus(taskStatus, pageRequest);
+        }
+        return taskRepository.findAll(pageRequest);
+    }
+
+    /** Tasks whose title or description contains every word of {@code query}, in (dueDate, id) order. */
+    public Slice<Task> searchTasks(String query, TaskStatus taskStatus, int page, int size) {
+        return taskRepository.search(query, taskStatus, PageRequest.of(page, size));
+    }
+
+    /** Counts per status, plus open tasks overdue and due within the next {@code days} days (today included). */
+    public TaskStatistics statistics(int days) {
+        LocalDate today = LocalDate.now();
+        return taskRepository.statistics(today, today.plusDays(days));
+    }
+
+    /** Changes whenever any task is written; results read at one generation stay valid until it moves. */
+    public long generation() {
+        return taskRepository.generation();
+    }
+
+    public Window<Task> scrollTasks(TaskStatus taskStatus, KeysetScrollPosition position, int size) {
+        // Keyset paging in (dueDate, id) order; cost does not depend on how deep the position is
+        return taskRepository.findByStatusAfter(taskStatus, position, size);
+    }
+
+    /**
+     * Visits every task matching the optional filters in (dueDate, id) order, fetching
+     * them in keyset chunks so memory use does not depend on how many tasks match.
+     */
+    public void forEachTask(TaskStatus taskStatus, LocalDate dueFrom, LocalDate dueTo, Consumer<Task> action) {
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        if (dueFrom != null) {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            // Every id sorts after the empty string, so this starts at the first task due on dueFrom
+            keys.put("dueDate", dueFrom);
+            keys.put("id", "");
+            position = ScrollPosition.forward(keys);
+        }
+        while (true) {
+            Window<Task> window = taskRepository.findByStatusAfter(taskStatus, position, EXPORT_CHUNK_SIZE);
+            for (Task task : window) {
+                if (dueTo != null && task.getDueDate() != null && task.getDueDate().isAfter(dueTo)) return;
+                action.accept(task);
+            }
+            if (!window.hasNext()) return;
+            position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
         }
-        return taskPage;
     }
 
-    private void validateTitle(String title) {
+    static void validateTitle(String title) {
         if (title == null || title.isBlank()) {
             throw new IllegalArgumentException("title is required");
         }
     }
 
     private void validateDueDate(LocalDate dueDate) {
+        validateDueDate(dueDate, LocalDate.now());
+    }
+
+    static void validateDueDate(LocalDate dueDate, LocalDate today) {
         if (dueDate == null) {
             throw new IllegalArgumentException("due_date is required");
         }
-        if (!dueDate.isAfter(LocalDate.now())) {
+        if (!dueDate.isAfter(today)) {
             throw new IllegalArgumentException("due_date must be in the future");
         }
     }
+
+    public record BatchOperation(Type type, String id, String title, String description, TaskStatus status, LocalDate dueDate) {
+        public enum Type { CREATE, UPDATE, DELETE }
+    }
+
+    /** Outcome of one batch operation: the resulting task (null after a delete) or the error that rejected it. */
+    public record BatchResult(Task task, RuntimeException error) {}
 }
@@ -0,0 +1,60 @@
+package org.example.task.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void admits_up_to_the_limit_and_counts_rejections() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(3, 1, 10, 10, 0);
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(1, limit.rejectedCount());
+        limit.release(MILLI);
+        assertTrue(limit.tryAcquire());
+        assertEquals(3, limit.inFlight());
+    }
+
+    @Test
+    void grows_while_latency_holds_and_shrinks_when_it_climbs() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 10, 0);
+        for (int w = 0; w < 30; w++) saturatedWindow(limit, MILLI);
+        int grown = limit.limit();
+        assertTrue(grown > 10, "limit " + grown);
+
+        for (int w = 0; w < 10; w++) saturatedWindow(limit, 10 * MILLI);
+        assertTrue(limit.limit() < grown / 2, "limit " + limit.limit() + " after " + grown);
+
+        // Latency back to normal: the long-term average recovers and the limit climbs again
+        int low = limit.limit();
+        for (int w = 0; w < 60; w++) saturatedWindow(limit, MILLI);
+        assertTrue(limit.limit() > low, "limit " + limit.limit() + " after " + low);
+    }
+
+    @Test
+    void does_not_grow_when_requests_never_reach_the_limit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 100, 10, 0);
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(MILLI);
+        }
+        assertEquals(20, limit.limit());
+    }
+
+    /** Completes a window's worth of requests with the given latency, each while the limit is full. */
+    private static void saturatedWindow(AdaptiveConcurrencyLimit limit, long latencyNanos) {
+        for (int i = 0; i < 10; i++) {
+            int held = 0;
+            while (limit.tryAcquire()) held++;
+            limit.release(latencyNanos);
+            for (int j = 1; j < held; j++) limit.release();
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package org.example.task.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.task.domain.TaskStatus;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -15,6 +22,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 public class TaskControllerIntegrationTest {
     @Autowired
     private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private AdmissionControl admissionControl;
 
     @Test
     void create_and_get() throws Exception {
@@ -28,4 +41,234 @@ public class TaskControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.title").value("T1"));
     }
+
+    @Test
+    void point_reads_over_their_limit_are_shed_while_queries_still_run() throws Exception {
+        String createJson = "{\"title\":\"A1\",\"dueDate\":\"" + java.time.LocalDate.now().plusDays(2) + "\"}";
+        String created = mockMvc.perform(post("/tasks").contentType(MediaType.APPLICATION_JSON).content(createJson))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String id = created.replaceAll(".*\"id\":\"([^\"]+)\".*", "$1");
+        AdaptiveConcurrencyLimit reads = admissionControl.limit(AdmissionControl.Operation.READ);
+        int held = 0;
+        while (reads.tryAcquire()) held++;
+        try {
+            mockMvc.perform(get("/tasks/" + id))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.status").value(503));
+            mockMvc.perform(get("/tasks?status=PENDING")).andExpect(status().isOk());
+        } finally {
+            for (int i = 0; i < held; i++) reads.release();
+        }
+        mockMvc.perform(get("/tasks/" + id)).andExpect(status().isOk());
+        assertEquals(0, reads.inFlight());
+        assertTrue(reads.rejectedCount() >= 1);
+    }
+
+    @Test
+    void task_json_matches_what_jackson_writes() throws Exception {
+        java.time.LocalDate due = java.time.LocalDate.now().plusDays(4);
+        String createJson = "{\"title\":\"Q \\\"x\\\" \\u00e9t\\u00e9 \\ud83d\\ude80\",\"status\":\"IN_PROGRESS\",\"dueDate\":\"" + due + "\"}";
+        String created = mockMvc.perform(post("/tasks").contentType(MediaType.APPLICATION_JSON).content(createJson))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String id = created.replaceAll(".*\"id\":\"([^\"]+)\".*", "$1");
+        TaskController.TaskResponse expected = new TaskController.TaskResponse(id, "Q \"x\" été 🚀", null, TaskStatus.IN_PROGRESS, due);
+        for (int i = 0; i < 2; i++) {
+            byte[] body = mockMvc.perform(get("/tasks/" + id))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Type", MediaType.APPLICATION_JSON_VALUE))
+                    .andReturn().getResponse().getContentAsByteArray();
+            assertArrayEquals(objectMapper.writeValueAsBytes(expected), body);
+        }
+        byte[] page = mockMvc.perform(get("/tasks").param("status", "IN_PROGRESS").param("size", "1000"))
+                .andReturn().getResponse().getContentAsByteArray();
+        List<TaskController.TaskResponse> rows = objectMapper.readValue(page,
+                new com.fasterxml.jackson.core.type.TypeReference<List<TaskController.TaskResponse>>() {});
+        assertTrue(rows.contains(expected));
+        assertArrayEquals(objectMapper.writeValueAsBytes(rows), page);
+    }
+
+    @Test
+    void list_page_is_not_modified_until_a_write() throws Exception {
+        String due = java.time.LocalDate.now().plusDays(2).toString();
+        String createJson = "{\"title\":\"E1\",\"status\":\"DONE\",\"dueDate\":\"" + due + "\"}";
+        mockMvc.perform(post("/tasks").contentType(MediaType.APPLICATION_JSON).content(createJson))
+                .andExpect(status().isCreated());
+        String eTag = mockMvc.perform(get("/tasks?status=DONE"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/tasks?status=DONE").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(post("/tasks").contentType(MediaType.APPLICATION_JSON).content(createJson))
+                .andExpect(status().isCreated());
+        String changed = mockMvc.perform(get("/tasks?status=DONE").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(eTag, changed);
+    }
+
+    @Test
+    void search_filters_by_words_and_status_in_dueDate_order() throws Exception {
+        java.time.LocalDate base = java.time.LocalDate.now().plusDays(3);
+        String[][] tasks = {
+                {"Quokka report", "PENDING", base.plusDays(2).toString()},
+                {"Draft quokka report", "DONE", base.toString()},
+                {"Quokka", "PENDING", base.plusDays(1).toString()}};
+        for (String[] t : tasks) {
+            mockMvc.perform(post("/tasks").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\":\"" + t[0] + "\",\"status\":\"" + t[1] + "\",\"dueDate\":\"" + t[2] + "\"}"))
+                    .andExpect(status().isCreated());
+        }
+        mockMvc.perform(get("/tasks/search?q=quokka REPORT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].title").value("Draft quokka report"))
+                .andExpect(jsonPath("$[1].title").value("Quokka report"));
+        mockMvc.perform(get("/tasks/search?q=quokka&status=PENDING&size=1&page=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Quokka report"));
+        mockMvc.perform(get("/tasks/search").param("q", " - ")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void stats_count_a_new_task_as_due_soon() throws Exception {
+        String before = mockMvc.perform(get("/tasks/stats?dueWithinDays=3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dueWithinDays").value(3))
+                .andReturn().getResponse().getContentAsString();
+        long dueSoon = Long.parseLong(before.replaceAll(".*\"dueSoon\":(\\d+).*", "$1"));
+        String createJson = "{\"title\":\"S1\",\"status\":\"IN_PROGRESS\",\"dueDate\":\"" + java.time.LocalDate.now().plusDays(1) + "\"}";
+        mockMvc.perform(post("/tasks").contentType(MediaType.APPLICATION_JSON).content(createJson))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/tasks/stats?dueWithinDays=3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dueSoon").value(dueSoon + 1))
+                .andExpect(jsonPath("$.byStatus.IN_PROGRESS").isNumber());
+        mockMvc.perform(get("/tasks/stats?dueWithinDays=0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void errors_are_counted_by_exception_type() throws Exception {
+        mockMvc.perform(get("/tasks/missing-for-metrics")).andExpect(status().isNotFound());
+        assertEquals(1, meterRegistry.get("tasks.errors").tag("exception", "NotFoundException").counter().count(), 0.5);
+        assertTrue(meterRegistry.get("tasks.repository.operations").tag("operation", "findById").timer().count() >= 1);
+    }
+
+    @Test
+    void batch_creates_and_reports_per_item_status() throws Exception {
+        String due = java.time.LocalDate.now().plusDays(2).toString();
+        String batchJson = "{\"operations\":["
+                + "{\"op\":\"CREATE\",\"title\":\"B1\",\"dueDate\":\"" + due + "\"},"
+                + "{\"op\":\"CREATE\",\"dueDate\":\"" + due + "\"},"
+                + "{\"op\":\"DELETE\",\"id\":\"missing\"}]}";
+        String response = mockMvc.perform(post("/tasks/batch").contentType(MediaType.APPLICATION_JSON).content(batchJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[0].task.title").value("B1"))
+                .andExpect(jsonPath("$.results[1].status").value(400))
+                .andExpect(jsonPath("$.results[2].status").value(404))
+                .andReturn().getResponse().getContentAsString();
+        String createdId = response.replaceAll(".*\"id\":\"([^\"]+)\".*", "$1");
+        mockMvc.perform(get("/tasks/" + createdId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("B1"));
+    }
+
+    @Test
+    void batch_rejects_empty_operations() throws Exception {
+        mockMvc.perform(post("/tasks/batch").contentType(MediaType.APPLICATION_JSON).content("{\"operations\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void export_streams_matching_tasks_as_ndjson() throws Exception {
+        java.time.LocalDate far = java.time.LocalDate.now().plusYears(50);
+        for (int i = 0; i < 3; i++) {
+            String json = "{\"title\":\"E" + i + "\",\"status\":\"IN_PROGRESS\",\"dueDate\":\"" + far.plusDays(i) + "\"}";
+            mockMvc.perform(post("/tasks").contentType(MediaType.APPLICATION_JSON).content(json)).andExpect(status().isCreated());
+        }
+        MvcResult started = mockMvc.perform(get("/tasks/export?status=IN_PROGRESS&dueFrom=" + far.plusDays(1)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"title\":\"E1\""));
+        assertTrue(lines[1].contains("\"title\":\"E2\""));
+    }
+
+    @Test
+    void change_feed_replays_changes_after_a_sequence() throws Exception {
+        String createJson = "{\"title\":\"F1\",\"status\":\"PENDING\",\"dueDate\":\"" + java.time.LocalDate.now().plusDays(2) + "\"}";
+        String created = mockMvc.perform(post("/tasks").contentType(MediaType.APPLICATION_JSON).content(createJson))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        String id = created.replaceAll(".*\"id\":\"([^\"]+)\".*", "$1");
+        MvcResult started = mockMvc.perform(get("/tasks/changes?follow=false&from=0"))
+                .andExpect(request().asyncStarted()).andReturn();
+        String all = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String epoch = all.replaceAll("(?s).*id: (\\d+)-\\d+\nevent: created\ndata: [^\n]*\"" + id + "\".*", "$1");
+        long sequence = Long.parseLong(all.replaceAll("(?s).*id: \\d+-(\\d+)\nevent: created\ndata: [^\n]*\"" + id + "\".*", "$1"));
+        mockMvc.perform(delete("/tasks/" + id)).andExpect(status().isNoContent());
+        started = mockMvc.perform(get("/tasks/changes?follow=false").header("Last-Event-ID", epoch + "-" + sequence))
+                .andExpect(request().asyncStarted()).andReturn();
+        String events = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertEquals("id: " + epoch + "-" + (sequence + 1) + "\nevent: deleted\ndata: {\"sequence\":" + (sequence + 1)
+                + ",\"type\":\"DELETED\",\"task\":{\"id\":\"" + id + "\",\"title\":\"F1\",\"description\":null,"
+                + "\"status\":\"PENDING\",\"dueDate\":\"" + java.time.LocalDate.now().plusDays(2) + "\"}}\n\n", events);
+    }
+
+    @Test
+    void change_feed_resyncs_a_client_resuming_from_another_epoch() throws Exception {
+        for (String lastEventId : List.of("1-0", "0")) {
+            MvcResult started = mockMvc.perform(get("/tasks/changes").header("Last-Event-ID", lastEventId))
+                    .andExpect(request().asyncStarted()).andReturn();
+            String events = mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+            assertTrue(events.startsWith("event: resync\ndata: {\"sequence\":"), events);
+        }
+    }
+
+    @Test
+    void import_loads_csv_upload_and_reports_errors() throws Exception {
+        String csv = "title,dueDate\nImported," + java.time.LocalDate.now().plusDays(4) + "\n,2000-01-01\n";
+        mockMvc.perform(post("/tasks/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    void import_streams_progress_then_the_report() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 6_000; i++) {
+            ndjson.append("{\"title\":\"P").append(i).append("\",\"dueDate\":\"")
+                    .append(java.time.LocalDate.now().plusDays(4)).append("\"}\n");
+        }
+        MvcResult started = mockMvc.perform(post("/tasks/import?progress=true")
+                        .contentType("application/x-ndjson").content(ndjson.toString()))
+                .andExpect(request().asyncStarted()).andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString().split("\n");
+        // One line per chunk unless both chunks finish before the first reports
+        long previous = 0;
+        for (int i = 0; i < lines.length - 1; i++) {
+            long processed = objectMapper.readTree(lines[i]).get("linesProcessed").asLong();
+            assertTrue(processed > previous, lines[i]);
+            previous = processed;
+        }
+        assertEquals(6_000, previous);
+        assertEquals(6_000, objectMapper.readTree(lines[lines.length - 1]).get("imported").asLong());
+        assertTrue(objectMapper.readTree(lines[lines.length - 1]).has("errors"));
+    }
 }
@@ -1,31 +1,42 @@
 package org.example.task.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.example.task.domain.NotFoundException;
+import org.example.task.domain.ReadOnlyReplicaException;
 import org.example.task.domain.Task;
 import org.example.task.domain.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.hamcrest.Matchers.endsWith;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(TaskController.class)
+@Import({TaskPageCache.class, SimpleMeterRegistry.class, TaskControllerTest.JsonCache.class})
 @ExtendWith(MockitoExtension.class)
 @AutoConfigureMockMvc(addFilters = false)
 class TaskControllerTest {
@@ -35,6 +46,25 @@ class TaskControllerTest {
     private ObjectMapper objectMapper;
     @MockBean
     private org.example.task.services.TaskService taskService;
+    @MockBean
+    private org.example.task.services.TaskImporter taskImporter;
+    @MockBean
+    private org.example.task.services.TaskChangeFeed changeFeed;
+    private static final AtomicLong generation = new AtomicLong();
+
+    @TestConfiguration
+    static class JsonCache {
+        @Bean
+        TaskJsonCache taskJsonCache(ObjectMapper objectMapper) {
+            return new TaskJsonCache(objectMapper, 1024);
+        }
+    }
+
+    @BeforeEach
+    void newGeneration() {
+        // The page cache outlives each test; a fresh generation keeps earlier tests' pages from matching
+        when(taskService.generation()).thenReturn(generation.incrementAndGet());
+    }
 
     @Test
     void createTask_success() throws Exception {
@@ -76,24 +106,46 @@ class TaskControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void deleteTask_onFollower_isUnavailable() throws Exception {
+        doThrow(new ReadOnlyReplicaException("read-only follower")).when(taskService).delete("1");
+        mockMvc.perform(delete("/tasks/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("read-only follower"));
+    }
+
     @Test
     void updateTask_success() throws Exception {
         TaskController.UpdateTaskRequest req = new TaskController.UpdateTaskRequest();
         req.title = "Updated";
         var updated = new Task("1", req.title, null, TaskStatus.PENDING, LocalDate.now().plusDays(2));
-        when(taskService.update(eq("1"), any(), any(), any(), any())).thenReturn(updated);
+        when(taskService.update(eq("1"), any(), any(), any(), any(), any())).thenReturn(updated.withVersion(4));
         mockMvc.perform(put("/tasks/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(req)))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
                 .andExpect(jsonPath("$.title").value("Updated"));
     }
 
+    @Test
+    void updateTask_staleIfMatch_returns412() throws Exception {
+        TaskController.UpdateTaskRequest req = new TaskController.UpdateTaskRequest();
+        req.title = "Updated";
+        when(taskService.update(eq("1"), any(), any(), any(), any(), eq(3L)))
+                .thenThrow(new org.example.task.domain.PreconditionFailedException("Task has been modified"));
+        mockMvc.perform(put("/tasks/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void updateTask_notFound() throws Exception {
         TaskController.UpdateTaskRequest req = new TaskController.UpdateTaskRequest();
         req.title = "Updated";
-        when(taskService.update(eq("404"), any(), any(), any(), any())).thenThrow(new org.example.task.domain.NotFoundException("Task not found"));
+        when(taskService.update(eq("404"), any(), any(), any(), any(), any())).thenThrow(new org.example.task.domain.NotFoundException("Task not found"));
         mockMvc.perform(put("/tasks/404")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(req)))
@@ -123,5 +175,38 @@ class TaskControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value("1"));
     }
-}
 
+    @Test
+    void getAllTasks_ignores_a_tag_for_the_same_generation_of_another_process() throws Exception {
+        Page<Task> page = new PageImpl<>(List.of(), PageRequest.of(0, 50), 0);
+        when(taskService.getTasks(any(), anyInt(), anyInt())).thenReturn(page);
+        long current = taskService.generation();
+        mockMvc.perform(get("/tasks?status=PENDING").header("If-None-Match", "\"g" + current + "\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", endsWith("-" + current + "\"")));
+    }
+
+    @Test
+    void getAllTasks_cursor_mode_returns_next_cursor() throws Exception {
+        var task = new Task("1", "T", null, TaskStatus.PENDING, LocalDate.of(2030, 1, 2));
+        Window<Task> window = Window.from(List.of(task),
+                i -> ScrollPosition.forward(java.util.Map.of("dueDate", task.getDueDate(), "id", task.getId())), true);
+        when(taskService.scrollTasks(eq(TaskStatus.PENDING), any(), eq(1))).thenReturn(window);
+        String next = mockMvc.perform(get("/tasks?status=PENDING&size=1&cursor="))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("1"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+        when(taskService.scrollTasks(eq(TaskStatus.PENDING), argThat(p -> "1".equals(p.getKeys().get("id"))), eq(1)))
+                .thenReturn(Window.from(List.of(), i -> null, false));
+        mockMvc.perform(get("/tasks?status=PENDING&size=1&cursor=" + next))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void getAllTasks_invalid_cursor() throws Exception {
+        mockMvc.perform(get("/tasks?status=PENDING&cursor=%%%"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.task.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskJsonCacheTest {
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void writes_the_same_bytes_as_jackson() throws Exception {
+        TaskJsonCache cache = new TaskJsonCache(mapper, 16);
+        Random random = new Random(5);
+        String[] texts = {null, "", "plain", "quote \" and \\ backslash", "tab\tnew\nline", "été 中文 🚀", "\u0001"};
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tasks.add(new Task("id-" + i, texts[random.nextInt(texts.length)], texts[random.nextInt(texts.length)],
+                    TaskStatus.values()[random.nextInt(3)],
+                    random.nextInt(5) == 0 ? null : LocalDate.of(2030, 1, 1).plusDays(random.nextInt(1000))));
+        }
+        for (int round = 0; round < 2; round++) {
+            // The second round is served largely from the slots the first one filled
+            for (Task task : tasks) assertArrayEquals(jackson(task), cache.json(task));
+            for (int from = 0; from < tasks.size(); from += 37) {
+                List<Task> page = tasks.subList(from, Math.min(tasks.size(), from + 50));
+                assertArrayEquals(jackson(page), cache.json(page));
+            }
+        }
+        assertArrayEquals(jackson(List.of()), cache.json(List.of()));
+        assertTrue(cache.hitCount() > 0);
+
+        ObjectMapper indenting = mapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+        assertArrayEquals(indenting.writerFor(new TypeReference<List<TaskController.TaskResponse>>() {})
+                        .writeValueAsBytes(tasks.stream().map(TaskController.TaskResponse::from).toList()),
+                new TaskJsonCache(indenting, 16).json(tasks));
+    }
+
+    @Test
+    void never_serves_a_task_rewritten_at_the_same_version() throws Exception {
+        TaskJsonCache cache = new TaskJsonCache(mapper, 16);
+        Task first = new Task("a", "Before", null, TaskStatus.PENDING, LocalDate.of(2030, 1, 1));
+        assertArrayEquals(jackson(first), cache.json(first));
+        Task copy = new Task("a", "Before", null, TaskStatus.PENDING, LocalDate.of(2030, 1, 1));
+        assertSame(cache.json(first), cache.json(copy));
+        Task rewritten = new Task("a", "After", null, TaskStatus.PENDING, LocalDate.of(2030, 1, 1));
+        assertArrayEquals(jackson(rewritten), cache.json(rewritten));
+        Task next = rewritten.withVersion(1);
+        assertArrayEquals(jackson(next), cache.json(next));
+        assertEquals(3, cache.missCount());
+    }
+
+    private byte[] jackson(Task task) throws Exception {
+        return mapper.writeValueAsBytes(TaskController.TaskResponse.from(task));
+    }
+
+    private byte[] jackson(List<Task> tasks) throws Exception {
+        return mapper.writeValueAsBytes(tasks.stream().map(TaskController.TaskResponse::from).toList());
+    }
+}
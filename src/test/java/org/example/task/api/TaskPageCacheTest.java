@@ -0,0 +1,39 @@
+package org.example.task.api;
+
+import org.example.task.domain.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskPageCacheTest {
+    private static final TaskPageCache.Key FIRST = new TaskPageCache.Key(TaskStatus.PENDING, 0, 50);
+    private static final TaskPageCache.Key SECOND = new TaskPageCache.Key(TaskStatus.PENDING, 1, 50);
+    private static final TaskPageCache.Key THIRD = new TaskPageCache.Key(TaskStatus.DONE, 0, 50);
+
+    @Test
+    void answers_only_for_the_generation_a_page_was_rendered_at() {
+        TaskPageCache cache = new TaskPageCache(1024);
+        cache.put(FIRST, 7, new byte[]{1});
+        assertArrayEquals(new byte[]{1}, cache.get(FIRST, 7));
+        assertNull(cache.get(FIRST, 8));
+        cache.put(FIRST, 8, new byte[]{2});
+        cache.put(FIRST, 7, new byte[]{3});
+        assertArrayEquals(new byte[]{2}, cache.get(FIRST, 8));
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void evicts_least_recently_used_pages_beyond_the_byte_budget() {
+        TaskPageCache cache = new TaskPageCache(20);
+        cache.put(FIRST, 1, new byte[8]);
+        cache.put(SECOND, 1, new byte[8]);
+        cache.get(FIRST, 1);
+        cache.put(THIRD, 1, new byte[8]);
+        assertNotNull(cache.get(FIRST, 1));
+        assertNull(cache.get(SECOND, 1));
+        assertNotNull(cache.get(THIRD, 1));
+        assertEquals(1, cache.evictionCount());
+        assertEquals(16, cache.sizeInBytes());
+    }
+}
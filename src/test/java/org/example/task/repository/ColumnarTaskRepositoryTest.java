@@ -0,0 +1,108 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTaskRepositoryTest {
+    private final ColumnarTaskRepository columnar = new ColumnarTaskRepository();
+    private final InMemoryTaskRepository reference = new InMemoryTaskRepository();
+
+    @Test
+    void matches_object_repository_under_random_mutations() {
+        Random random = new Random(42);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) ids.add(i % 10 == 0 ? "legacy-" + i : UUID.randomUUID().toString());
+        LocalDate base = LocalDate.now();
+        for (int op = 0; op < 20_000; op++) {
+            String id = ids.get(random.nextInt(ids.size()));
+            if (random.nextInt(5) == 0) {
+                columnar.deleteById(id);
+                reference.deleteById(id);
+            } else {
+                String title = random.nextInt(10) == 0 ? null : "title " + random.nextInt(500);
+                Task task = new Task(id, title, "d" + op, TaskStatus.values()[random.nextInt(3)],
+                        random.nextInt(50) == 0 ? null : base.plusDays(random.nextInt(400)));
+                columnar.save(task);
+                reference.save(new Task(id, task.getTitle(), task.getDescription(), task.getStatus(), task.getDueDate()));
+            }
+        }
+        for (String property : List.of("dueDate", "title", "status")) {
+            for (Sort sort : List.of(Sort.by(property), Sort.by(property).descending())) {
+                assertSameRows(reference.findAll(PageRequest.of(3, 100, sort)).getContent(),
+                        columnar.findAll(PageRequest.of(3, 100, sort)).getContent());
+            }
+        }
+        assertSameRows(toList(reference.findAll(Sort.by("status", "title"))), toList(columnar.findAll(Sort.by("status", "title"))));
+        for (TaskStatus status : TaskStatus.values()) {
+            var expected = reference.findByStatus(status, PageRequest.of(2, 50, Sort.by("dueDate")));
+            var actual = columnar.findByStatus(status, PageRequest.of(2, 50, Sort.by("dueDate")));
+            assertEquals(expected.getTotalElements(), actual.getTotalElements());
+            assertSameRows(expected.getContent(), actual.getContent());
+            Window<Task> first = reference.findByStatusAfter(status, ScrollPosition.keyset(), 40);
+            KeysetScrollPosition next = (KeysetScrollPosition) first.positionAt(first.size() - 1);
+            assertSameRows(reference.findByStatusAfter(status, next, 40).getContent(),
+                    columnar.findByStatusAfter(status, next, 40).getContent());
+        }
+        for (String query : List.of("title", "title 42", "TITLE 7")) {
+            for (TaskStatus status : new TaskStatus[]{null, TaskStatus.IN_PROGRESS}) {
+                var expected = reference.search(query, status, PageRequest.of(1, 30));
+                var actual = columnar.search(query, status, PageRequest.of(1, 30));
+                assertEquals(expected.hasNext(), actual.hasNext());
+                assertSameRows(expected.getContent(), actual.getContent());
+            }
+        }
+        LocalDate today = base.plusDays(100);
+        TaskStatistics stats = reference.statistics(today, today.plusDays(30));
+        assertEquals(stats, columnar.statistics(today, today.plusDays(30)));
+        long overdue = 0, dueSoon = 0;
+        for (Task t : reference.findAll(Sort.by("dueDate"))) {
+            if (t.getStatus() == TaskStatus.DONE || t.getDueDate() == null) continue;
+            if (t.getDueDate().isBefore(today)) overdue++;
+            else if (t.getDueDate().isBefore(today.plusDays(30))) dueSoon++;
+        }
+        assertEquals(overdue, stats.overdue());
+        assertEquals(dueSoon, stats.dueSoon());
+        assertEquals(reference.findAll(PageRequest.of(0, 1)).getTotalElements(), stats.total());
+        for (String id : ids) {
+            assertEquals(reference.findById(id).map(ColumnarTaskRepositoryTest::describe),
+                    columnar.findById(id).map(ColumnarTaskRepositoryTest::describe));
+        }
+    }
+
+    @Test
+    void reclaims_replaced_text() {
+        String big = "x".repeat(300_000);
+        for (int i = 0; i < 200; i++) {
+            columnar.save(new Task("a", "T" + i, big + i, TaskStatus.PENDING, LocalDate.now().plusDays(1)));
+        }
+        Task a = columnar.findById("a").orElseThrow();
+        assertEquals("T199", a.getTitle());
+        assertEquals(big + 199, a.getDescription());
+    }
+
+    private static void assertSameRows(List<Task> expected, List<Task> actual) {
+        assertEquals(expected.stream().map(ColumnarTaskRepositoryTest::describe).toList(),
+                actual.stream().map(ColumnarTaskRepositoryTest::describe).toList());
+    }
+
+    private static String describe(Task t) {
+        return t.getId() + "|" + t.getTitle() + "|" + t.getDescription() + "|" + t.getStatus() + "|" + t.getDueDate();
+    }
+
+    private static List<Task> toList(Iterable<Task> tasks) {
+        List<Task> list = new ArrayList<>();
+        tasks.forEach(list::add);
+        return list;
+    }
+}
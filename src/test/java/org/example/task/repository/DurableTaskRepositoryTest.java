@@ -0,0 +1,236 @@
+package org.example.task.repository;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableTaskRepositoryTest {
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @EnumSource(SyncPolicy.class)
+    void replays_saves_updates_and_deletes_after_restart(SyncPolicy policy) throws Exception {
+        LocalDate due = LocalDate.now().plusDays(3);
+        try (DurableTaskRepository repo = open(policy)) {
+            repo.save(new Task("a", "A", "first", TaskStatus.PENDING, due));
+            repo.save(new Task("b", "B", null, TaskStatus.PENDING, due));
+            Task a = repo.findById("a").orElseThrow();
+            repo.save(a.withStatus(TaskStatus.DONE));
+            repo.deleteById("b");
+        }
+        try (DurableTaskRepository repo = open(policy)) {
+            Task a = repo.findById("a").orElseThrow();
+            assertEquals("A", a.getTitle());
+            assertEquals("first", a.getDescription());
+            assertEquals(TaskStatus.DONE, a.getStatus());
+            assertEquals(due, a.getDueDate());
+            assertTrue(repo.findById("b").isEmpty());
+            assertEquals(1, repo.findByStatus(TaskStatus.DONE, PageRequest.of(0, 10)).getTotalElements());
+        }
+    }
+
+    @Test
+    void torn_tail_is_discarded_and_log_stays_appendable() throws Exception {
+        try (DurableTaskRepository repo = open(SyncPolicy.PER_WRITE)) {
+            repo.save(new Task("a", "A", null, TaskStatus.PENDING, LocalDate.now().plusDays(1)));
+            repo.save(new Task("b", "B", null, TaskStatus.PENDING, LocalDate.now().plusDays(1)));
+        }
+        Path wal = dir.resolve("tasks-0000000000000000000.wal");
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try (DurableTaskRepository repo = open(SyncPolicy.PER_WRITE)) {
+            assertTrue(repo.findById("a").isPresent());
+            assertTrue(repo.findById("b").isEmpty());
+            repo.save(new Task("c", "C", null, TaskStatus.PENDING, LocalDate.now().plusDays(1)));
+        }
+        try (DurableTaskRepository repo = open(SyncPolicy.PER_WRITE)) {
+            assertTrue(repo.findById("a").isPresent());
+            assertTrue(repo.findById("c").isPresent());
+        }
+    }
+
+    @Test
+    void conditional_batch_is_one_log_record_applied_whole_or_not_at_all() throws Exception {
+        LocalDate due = LocalDate.now().plusDays(1);
+        Task a = new Task("a", "A", null, TaskStatus.PENDING, due);
+        Task b = new Task("b", "B", null, TaskStatus.PENDING, due);
+        Task stale = new Task("c", "C", null, TaskStatus.PENDING, due, 7);
+        try (DurableTaskRepository repo = open(SyncPolicy.PER_WRITE)) {
+            repo.saveAll(List.of(a, b, stale.withVersion(0)));
+            Set<String> conflicts = repo.replaceAll(List.of(
+                    new TaskWrite(a, a.withStatus(TaskStatus.DONE).withVersion(1)),
+                    new TaskWrite(b, null),
+                    new TaskWrite(null, new Task("d", "D", null, TaskStatus.PENDING, due)),
+                    new TaskWrite(stale, null)));
+            assertEquals(Set.of("c"), conflicts);
+        }
+        try (DurableTaskRepository repo = open(SyncPolicy.PER_WRITE)) {
+            assertEquals(TaskStatus.DONE, repo.findById("a").orElseThrow().getStatus());
+            assertTrue(repo.findById("b").isEmpty());
+            assertTrue(repo.findById("c").isPresent());
+            assertTrue(repo.findById("d").isPresent());
+        }
+        // Tearing the batch's record drops all of it, not just its last change
+        Path wal = dir.resolve("tasks-0000000000000000000.wal");
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        try (DurableTaskRepository repo = open(SyncPolicy.PER_WRITE)) {
+            assertEquals(TaskStatus.PENDING, repo.findById("a").orElseThrow().getStatus());
+            assertTrue(repo.findById("b").isPresent());
+            assertTrue(repo.findById("d").isEmpty());
+        }
+    }
+
+    @Test
+    void group_commit_acknowledges_concurrent_writers() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try (DurableTaskRepository repo = open(SyncPolicy.GROUP)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        repo.save(new Task(thread + "-" + i, "T", null, TaskStatus.PENDING, LocalDate.now().plusDays(1)));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        try (DurableTaskRepository repo = open(SyncPolicy.GROUP)) {
+            assertEquals(1600, repo.findAll(PageRequest.of(0, 10)).getTotalElements());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(SyncPolicy.class)
+    void writers_on_virtual_threads_never_pin_their_carrier(SyncPolicy policy) throws Exception {
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream events = new RecordingStream();
+             DurableTaskRepository repo = open(policy)) {
+            events.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            events.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            events.startAsync();
+            LocalDate due = LocalDate.now().plusDays(1);
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 200; i++) {
+                    String id = "t" + i;
+                    pool.submit(() -> {
+                        repo.save(new Task(id, "T", null, TaskStatus.PENDING, due));
+                        Task current = repo.findById(id).orElseThrow();
+                        repo.replace(current, current.withStatus(TaskStatus.DONE).withVersion(current.getVersion() + 1));
+                    });
+                }
+            }
+            events.stop();
+        }
+        assertEquals(List.of(), pinned);
+    }
+
+    private DurableTaskRepository open(SyncPolicy policy) throws Exception {
+        return DurableTaskRepository.open(dir, policy, Duration.ofMillis(1), Duration.ofMillis(10), Duration.ZERO);
+    }
+
+    @Test
+    void snapshot_plus_log_tail_restores_state_and_drops_old_segments() throws Exception {
+        LocalDate due = LocalDate.now().plusDays(1);
+        try (DurableTaskRepository repo = open(SyncPolicy.GROUP)) {
+            for (int i = 0; i < 100; i++) repo.save(new Task("t" + i, "T" + i, null, TaskStatus.PENDING, due.plusDays(i)));
+            repo.snapshot();
+            repo.deleteById("t0");
+            repo.save(new Task("t1", "renamed", null, TaskStatus.DONE, due));
+            repo.save(new Task("new", "N", null, TaskStatus.PENDING, due));
+            repo.snapshot();
+            repo.deleteById("t2");
+        }
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of("tasks-0000000000000000002.snap", "tasks-0000000000000000002.wal"),
+                    files.map(f -> f.getFileName().toString()).sorted().toList());
+        }
+        try (DurableTaskRepository repo = open(SyncPolicy.GROUP)) {
+            assertTrue(repo.findById("t0").isEmpty());
+            assertTrue(repo.findById("t2").isEmpty());
+            assertEquals("renamed", repo.findById("t1").orElseThrow().getTitle());
+            assertEquals(99, repo.findAll(PageRequest.of(0, 10)).getTotalElements());
+            assertEquals(1, repo.findByStatus(TaskStatus.DONE, PageRequest.of(0, 10)).getTotalElements());
+            assertEquals(List.of("new", "t1"), repo.findAll(PageRequest.of(0, 2, Sort.by("dueDate"))).getContent().stream().map(Task::getId).toList());
+        }
+    }
+
+    @Test
+    void snapshot_does_not_block_concurrent_writers() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try (DurableTaskRepository repo = open(SyncPolicy.PERIODIC)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        repo.save(new Task(thread + "-" + i, "T", null, TaskStatus.PENDING, LocalDate.now().plusDays(1)));
+                        if (i % 3 == 0) repo.deleteById(thread + "-" + (i / 2));
+                    }
+                }));
+            }
+            for (int s = 0; s < 5; s++) repo.snapshot();
+            for (Future<?> f : futures) f.get();
+            try (DurableTaskRepository reopened = reopenCopy(repo)) {
+                assertEquals(repo.findAll(PageRequest.of(0, 10)).getTotalElements(),
+                        reopened.findAll(PageRequest.of(0, 10)).getTotalElements());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private DurableTaskRepository reopenCopy(DurableTaskRepository live) throws Exception {
+        live.snapshot();
+        Path copy = Files.createDirectory(dir.resolve("copy"));
+        try (var files = Files.list(dir)) {
+            for (Path f : files.filter(Files::isRegularFile).toList()) Files.copy(f, copy.resolve(f.getFileName()));
+        }
+        return DurableTaskRepository.open(copy, SyncPolicy.GROUP, Duration.ofMillis(1), Duration.ofMillis(10), Duration.ZERO);
+    }
+
+    @Test
+    void batches_are_logged_and_replayed() throws Exception {
+        LocalDate due = LocalDate.now().plusDays(1);
+        try (DurableTaskRepository repo = open(SyncPolicy.GROUP)) {
+            List<Task> batch = new ArrayList<>();
+            for (int i = 0; i < 50; i++) batch.add(new Task("b" + i, "T", null, TaskStatus.PENDING, due));
+            repo.saveAll(batch);
+            repo.deleteAllById(List.of("b0", "b1", "nope"));
+        }
+        try (DurableTaskRepository repo = open(SyncPolicy.GROUP)) {
+            assertEquals(48, repo.findAll(PageRequest.of(0, 10)).getTotalElements());
+            assertTrue(repo.findById("b0").isEmpty());
+            assertTrue(repo.findById("b49").isPresent());
+        }
+    }
+}
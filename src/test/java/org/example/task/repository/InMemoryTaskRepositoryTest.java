@@ -0,0 +1,204 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryTaskRepositoryTest {
+    private InMemoryTaskRepository repo;
+
+    @BeforeEach
+    void setup() {
+        repo = new InMemoryTaskRepository();
+    }
+
+    @Test
+    void findAll_pages_in_dueDate_then_id_order() {
+        LocalDate base = LocalDate.now().plusDays(1);
+        for (int i = 0; i < 100; i++) {
+            repo.save(new Task(String.format("id-%03d", i), "T" + i, null, TaskStatus.PENDING, base.plusDays(i % 7)));
+        }
+        List<Task> seen = new ArrayList<>();
+        for (int page = 0; page < 5; page++) {
+            Page<Task> p = repo.findAll(PageRequest.of(page, 30, Sort.by("dueDate")));
+            assertEquals(100, p.getTotalElements());
+            seen.addAll(p.getContent());
+        }
+        assertEquals(100, seen.size());
+        for (int i = 1; i < seen.size(); i++) {
+            Task a = seen.get(i - 1), b = seen.get(i);
+            int c = a.getDueDate().compareTo(b.getDueDate());
+            assertTrue(c < 0 || (c == 0 && a.getId().compareTo(b.getId()) < 0));
+        }
+    }
+
+    @Test
+    void findAll_descending_and_by_title() {
+        LocalDate base = LocalDate.now().plusDays(1);
+        repo.save(new Task("a", "b", null, TaskStatus.PENDING, base.plusDays(2)));
+        repo.save(new Task("b", "c", null, TaskStatus.DONE, base));
+        repo.save(new Task("c", "a", null, TaskStatus.IN_PROGRESS, base.plusDays(1)));
+        assertEquals(List.of("a", "c", "b"), ids(repo.findAll(PageRequest.of(0, 10, Sort.by("dueDate").descending())).getContent()));
+        assertEquals(List.of("c", "a", "b"), ids(repo.findAll(Sort.by("title"))));
+        assertEquals(List.of("b"), ids(repo.findAll(PageRequest.of(1, 2, Sort.by("title"))).getContent()));
+    }
+
+    @Test
+    void save_reindexes_replaced_task() {
+        LocalDate base = LocalDate.now().plusDays(1);
+        Task first = new Task("a", "A", null, TaskStatus.PENDING, base);
+        repo.save(first);
+        repo.save(new Task("b", "B", null, TaskStatus.PENDING, base.plusDays(1)));
+        repo.save(first.withDueDate(base.plusDays(5)));
+        assertEquals(List.of("b", "a"), ids(repo.findAll(PageRequest.of(0, 10, Sort.by("dueDate"))).getContent()));
+        repo.deleteById("b");
+        assertEquals(List.of("a"), ids(repo.findAll(PageRequest.of(0, 10, Sort.by("dueDate"))).getContent()));
+        assertEquals(1, repo.findAll(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void concurrent_writers_never_produce_missing_or_duplicate_rows() throws Exception {
+        int taskCount = 2_000;
+        LocalDate base = LocalDate.now().plusDays(1);
+        for (int i = 0; i < taskCount; i++) {
+            repo.save(new Task("id-" + i, "T", null, TaskStatus.PENDING, base.plusDays(i % 30)));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    int i = random.nextInt(taskCount);
+                    repo.save(new Task("id-" + i, "T", null, TaskStatus.PENDING, base.plusDays(random.nextInt(365))));
+                }
+            }));
+        }
+        for (int r = 0; r < 4; r++) {
+            futures.add(pool.submit(() -> {
+                for (int round = 0; round < 200; round++) {
+                    Page<Task> page = repo.findAll(PageRequest.of(0, taskCount, Sort.by("dueDate")));
+                    Set<String> ids = new HashSet<>();
+                    for (Task t : page.getContent()) assertTrue(ids.add(t.getId()), "duplicate " + t.getId());
+                    assertEquals(taskCount, ids.size());
+                }
+            }));
+        }
+        try {
+            for (Future<?> f : futures.subList(4, futures.size())) f.get(60, TimeUnit.SECONDS);
+        } finally {
+            running.set(false);
+            pool.shutdown();
+        }
+        for (Future<?> f : futures) f.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void every_committed_write_reaches_listeners_from_the_version_it_replaced() throws Exception {
+        List<long[]> changes = new ArrayList<>();
+        List<String> lifecycle = new ArrayList<>();
+        repo.addChangeListener((previous, current) -> {
+            if (previous != null && current != null) {
+                if (current.getId().equals("shared")) changes.add(new long[]{previous.getVersion(), current.getVersion()});
+            } else {
+                lifecycle.add((previous == null ? "+" : "-") + (previous == null ? current : previous).getId());
+            }
+        });
+        repo.save(new Task("shared", "T", null, TaskStatus.PENDING, LocalDate.now().plusDays(1)));
+        int threads = 8;
+        int updates = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int w = 0; w < threads; w++) {
+            int writer = w;
+            futures.add(pool.submit(() -> {
+                int won = 0;
+                for (int i = 0; i < updates; i++) {
+                    Task current = repo.findById("shared").orElseThrow();
+                    if (repo.replace(current, current.withVersion(current.getVersion() + 1))) won++;
+                    // Creates and deletes of one id racing with each other
+                    String id = "churn-" + (i % 4);
+                    if (writer % 2 == 0) repo.save(new Task(id, "C", null, TaskStatus.PENDING, null));
+                    else repo.deleteById(id);
+                }
+                return won;
+            }));
+        }
+        int won = 0;
+        for (Future<Integer> f : futures) won += f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(won, changes.size());
+        for (int i = 0; i < changes.size(); i++) {
+            assertEquals(i, changes.get(i)[0]);
+            assertEquals(i + 1, changes.get(i)[1]);
+        }
+        // Per id, creates and deletes alternate and end in the state the store holds
+        for (int c = 0; c < 4; c++) {
+            String id = "churn-" + c;
+            List<String> events = lifecycle.stream().filter(e -> e.substring(1).equals(id)).toList();
+            for (int i = 0; i < events.size(); i++) assertEquals(i % 2 == 0 ? "+" : "-", events.get(i).substring(0, 1));
+            assertEquals(events.size() % 2 == 1, repo.findById(id).isPresent());
+        }
+    }
+
+    @Test
+    void search_matches_brute_force_through_rewrites_and_deletes() {
+        String[] words = {"alpha", "beta", "gamma", "delta", "Epsilon", "zeta"};
+        Random random = new Random(7);
+        LocalDate base = LocalDate.now();
+        // Enough rewrites that the text index compacts its dead documents, and enough tasks
+        // that common words are answered by walking the dueDate index rather than scanning
+        for (int op = 0; op < 150_000; op++) {
+            String id = "id-" + random.nextInt(20_000);
+            if (random.nextInt(10) == 0) {
+                repo.deleteById(id);
+                continue;
+            }
+            String title = words[random.nextInt(words.length)] + ", " + words[random.nextInt(words.length)];
+            String description = random.nextBoolean() ? null : words[random.nextInt(words.length)] + "-x" + random.nextInt(3);
+            repo.save(new Task(id, title, description, TaskStatus.values()[random.nextInt(3)],
+                    random.nextInt(20) == 0 ? null : base.plusDays(random.nextInt(60))));
+        }
+        Comparator<Task> byDueDate = Comparator.comparing(Task::getDueDate, Comparator.nullsLast(Comparator.<LocalDate>naturalOrder()))
+                .thenComparing(Task::getId);
+        for (String query : List.of("alpha", "ALPHA beta", "epsilon x1", "zeta zeta", "gamma-x2", "nothing")) {
+            for (TaskStatus status : new TaskStatus[]{null, TaskStatus.DONE}) {
+                List<Task> expected = new ArrayList<>();
+                for (Task t : repo.findAll(Sort.by("dueDate"))) {
+                    String text = (t.getTitle() + " " + t.getDescription()).toLowerCase(Locale.ROOT);
+                    Set<String> have = new HashSet<>(Arrays.asList(text.split("[^a-z0-9]+")));
+                    boolean all = Arrays.stream(query.toLowerCase(Locale.ROOT).split("[^a-z0-9]+")).allMatch(have::contains);
+                    if (all && (status == null || t.getStatus() == status)) expected.add(t);
+                }
+                expected.sort(byDueDate);
+                for (int page = 0; page < 3; page++) {
+                    Slice<Task> actual = repo.search(query, status, PageRequest.of(page, 40));
+                    int from = Math.min(page * 40, expected.size());
+                    assertEquals(expected.size() > from + 40, actual.hasNext(), query);
+                    assertEquals(ids(expected.subList(from, Math.min(from + 40, expected.size()))), ids(actual.getContent()), query);
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> repo.search(" -- ", null, PageRequest.of(0, 10)));
+    }
+
+    private static List<String> ids(Iterable<Task> tasks) {
+        List<String> ids = new ArrayList<>();
+        tasks.forEach(t -> ids.add(t.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.task.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeteredTaskRepositoryTest {
+    @Test
+    void times_operations_and_reports_store_size_per_status() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TaskRepository repo = new MeteredTaskRepository(new InMemoryTaskRepository(), registry);
+        LocalDate due = LocalDate.now().plusDays(1);
+        repo.save(new Task("a", "A", null, TaskStatus.PENDING, due));
+        repo.save(new Task("b", "B", null, TaskStatus.DONE, due));
+        repo.findById("a");
+        repo.deleteById("b");
+
+        assertEquals(2, registry.get("tasks.repository.operations").tag("operation", "save").timer().count());
+        assertEquals(1, registry.get("tasks.repository.operations").tag("operation", "findById").timer().count());
+        assertEquals(1, registry.get("tasks.store.size").gauge().value());
+        assertEquals(1, registry.get("tasks.stored").tag("status", "PENDING").gauge().value());
+        assertEquals(0, registry.get("tasks.stored").tag("status", "DONE").gauge().value());
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedTaskRepositoryTest {
+    private final PartitionedTaskRepository partitioned = new PartitionedTaskRepository(7);
+    private final InMemoryTaskRepository reference = new InMemoryTaskRepository();
+
+    @Test
+    void matches_single_store_at_every_offset() {
+        Random random = new Random(7);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) ids.add(UUID.randomUUID().toString());
+        LocalDate base = LocalDate.now();
+        for (int op = 0; op < 20_000; op++) {
+            String id = ids.get(random.nextInt(ids.size()));
+            if (random.nextInt(5) == 0) {
+                partitioned.deleteById(id);
+                reference.deleteById(id);
+            } else {
+                String title = random.nextInt(10) == 0 ? null : "title " + random.nextInt(500);
+                Task task = new Task(id, title, "d" + op, TaskStatus.values()[random.nextInt(3)],
+                        random.nextInt(50) == 0 ? null : base.plusDays(random.nextInt(400)));
+                partitioned.save(task);
+                reference.save(task);
+            }
+        }
+        long total = reference.findAll(PageRequest.of(0, 1)).getTotalElements();
+        for (String property : List.of("dueDate", "title", "status")) {
+            for (Sort sort : List.of(Sort.by(property), Sort.by(property).descending())) {
+                for (int offset : new int[]{0, 1, 6, 7, 99, 1_000, (int) total - 30, (int) total + 5}) {
+                    // Single-row pages start exactly at each offset, including ones the selection steps land beside
+                    for (int size : new int[]{1, 30}) {
+                        Page<Task> expected = reference.findAll(PageRequest.of(offset / size, size, sort));
+                        Page<Task> actual = partitioned.findAll(PageRequest.of(offset / size, size, sort));
+                        assertEquals(expected.getTotalElements(), actual.getTotalElements());
+                        assertSameRows(expected.getContent(), actual.getContent());
+                    }
+                }
+                assertSameRows(toList(reference.findAll(sort)), toList(partitioned.findAll(sort)));
+            }
+        }
+        assertSameRows(toList(reference.findAll(Sort.by("status", "title"))), toList(partitioned.findAll(Sort.by("status", "title"))));
+        for (TaskStatus status : TaskStatus.values()) {
+            for (int page : new int[]{0, 3, 17}) {
+                Page<Task> expected = reference.findByStatus(status, PageRequest.of(page, 50, Sort.by("dueDate").descending()));
+                Page<Task> actual = partitioned.findByStatus(status, PageRequest.of(page, 50, Sort.by("dueDate").descending()));
+                assertEquals(expected.getTotalElements(), actual.getTotalElements());
+                assertSameRows(expected.getContent(), actual.getContent());
+            }
+            assertSameRows(reference.findByStatus(status, PageRequest.of(1, 40, Sort.by("title"))).getContent(),
+                    partitioned.findByStatus(status, PageRequest.of(1, 40, Sort.by("title"))).getContent());
+            KeysetScrollPosition position = ScrollPosition.keyset();
+            for (;;) {
+                Window<Task> expected = reference.findByStatusAfter(status, position, 75);
+                Window<Task> actual = partitioned.findByStatusAfter(status, position, 75);
+                assertSameRows(expected.getContent(), actual.getContent());
+                assertEquals(expected.hasNext(), actual.hasNext());
+                if (!actual.hasNext()) break;
+                position = (KeysetScrollPosition) actual.positionAt(actual.size() - 1);
+            }
+        }
+        for (String query : List.of("title", "title 42", "TITLE 7", "d1")) {
+            for (TaskStatus status : new TaskStatus[]{null, TaskStatus.IN_PROGRESS}) {
+                for (int page : new int[]{0, 1, 40}) {
+                    var expected = reference.search(query, status, PageRequest.of(page, 30));
+                    var actual = partitioned.search(query, status, PageRequest.of(page, 30));
+                    assertEquals(expected.hasNext(), actual.hasNext());
+                    assertSameRows(expected.getContent(), actual.getContent());
+                }
+            }
+        }
+        LocalDate today = base.plusDays(100);
+        assertEquals(reference.statistics(today, today.plusDays(30)), partitioned.statistics(today, today.plusDays(30)));
+        for (String id : ids) {
+            assertEquals(reference.findById(id).map(PartitionedTaskRepositoryTest::describe),
+                    partitioned.findById(id).map(PartitionedTaskRepositoryTest::describe));
+        }
+    }
+
+    @Test
+    void concurrent_writers_never_produce_missing_or_duplicate_rows() throws Exception {
+        int taskCount = 2_000;
+        LocalDate base = LocalDate.now().plusDays(1);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) tasks.add(new Task("id-" + i, "T", null, TaskStatus.PENDING, base.plusDays(i % 30)));
+        partitioned.saveAll(tasks);
+        AtomicInteger inListener = new AtomicInteger();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        partitioned.addChangeListener((previous, current) -> {
+            if (inListener.incrementAndGet() > 1) overlapped.set(true);
+            inListener.decrementAndGet();
+        });
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    int i = random.nextInt(taskCount);
+                    partitioned.save(new Task("id-" + i, "T", null, TaskStatus.PENDING, base.plusDays(random.nextInt(365))));
+                }
+            }));
+        }
+        for (int r = 0; r < 4; r++) {
+            futures.add(pool.submit(() -> {
+                for (int round = 0; round < 200; round++) {
+                    // Pages of 97 against 7 shards: every page boundary needs its own selection
+                    Set<String> ids = new HashSet<>();
+                    long generation = partitioned.generation();
+                    for (int page = 0; page * 97 < taskCount; page++) {
+                        for (Task t : partitioned.findAll(PageRequest.of(page, 97, Sort.by("dueDate"))).getContent()) {
+                            ids.add(t.getId());
+                        }
+                    }
+                    if (partitioned.generation() == generation) assertEquals(taskCount, ids.size());
+                    Page<Task> all = partitioned.findAll(PageRequest.of(0, taskCount, Sort.by("dueDate")));
+                    Set<String> once = new HashSet<>();
+                    for (Task t : all.getContent()) assertTrue(once.add(t.getId()), "duplicate " + t.getId());
+                    assertEquals(taskCount, once.size());
+                }
+            }));
+        }
+        try {
+            for (Future<?> f : futures.subList(4, futures.size())) f.get(60, TimeUnit.SECONDS);
+        } finally {
+            running.set(false);
+            pool.shutdown();
+        }
+        for (Future<?> f : futures) f.get(10, TimeUnit.SECONDS);
+        assertFalse(overlapped.get(), "listener called concurrently");
+    }
+
+    private static void assertSameRows(List<Task> expected, List<Task> actual) {
+        assertEquals(expected.stream().map(PartitionedTaskRepositoryTest::describe).toList(),
+                actual.stream().map(PartitionedTaskRepositoryTest::describe).toList());
+    }
+
+    private static String describe(Task t) {
+        return t.getId() + "|" + t.getTitle() + "|" + t.getDescription() + "|" + t.getStatus() + "|" + t.getDueDate();
+    }
+
+    private static List<Task> toList(Iterable<Task> tasks) {
+        List<Task> list = new ArrayList<>();
+        tasks.forEach(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,220 @@
+package org.example.task.repository;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredTaskRepositoryTest {
+    private static final LocalDate BASE = LocalDate.of(2030, 1, 1);
+
+    @TempDir
+    Path dir;
+
+    private final TestClock clock = new TestClock();
+    private TieredTaskRepository tiered;
+
+    @AfterEach
+    void close() throws IOException {
+        if (tiered != null) tiered.close();
+    }
+
+    @Test
+    void moves_only_tasks_done_for_cold_after() throws Exception {
+        tiered = open(Duration.ofHours(1), 10);
+        tiered.save(new Task("a", "A", null, TaskStatus.DONE, BASE));
+        tiered.save(new Task("b", "B", null, TaskStatus.PENDING, BASE));
+        clock.advance(Duration.ofMinutes(30));
+        tiered.save(new Task("c", "C", null, TaskStatus.DONE, BASE));
+        assertEquals(0, tiered.evict());
+
+        clock.advance(Duration.ofMinutes(40));
+        assertEquals(1, tiered.evict());
+        assertEquals(2, tiered.hotCount());
+        assertEquals(1, tiered.coldCount());
+        assertEquals("A", tiered.findById("a").orElseThrow().getTitle());
+
+        clock.advance(Duration.ofMinutes(30));
+        assertEquals(1, tiered.evict());
+        assertEquals(1, tiered.hotCount());
+        assertEquals(2, tiered.coldCount());
+        assertEquals(3, tiered.findAll(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void writing_a_cold_task_promotes_it_and_reports_the_previous_version() throws Exception {
+        tiered = open(Duration.ZERO, 1);
+        List<String> changes = new ArrayList<>();
+        tiered.addChangeListener((previous, current) -> changes.add(
+                (previous == null ? "-" : previous.getTitle()) + ">" + (current == null ? "-" : current.getTitle())));
+        tiered.save(new Task("a", "A", null, TaskStatus.DONE, BASE));
+        tiered.save(new Task("b", "B", null, TaskStatus.DONE, BASE));
+        assertEquals(2, tiered.evict());
+        assertEquals(0, tiered.hotCount());
+
+        Task a = tiered.findById("a").orElseThrow();
+        assertTrue(tiered.replace(a, new Task("a", "A2", null, TaskStatus.PENDING, BASE, a.getVersion() + 1)));
+        tiered.deleteById("b");
+        assertEquals(List.of("->A", "->B", "A>A2", "B>-"), changes);
+        assertEquals(1, tiered.hotCount());
+        assertEquals(0, tiered.coldCount());
+        assertTrue(tiered.findById("b").isEmpty());
+        assertFalse(tiered.replace(a, a.withStatus(TaskStatus.DONE)));
+    }
+
+    @Test
+    void keeps_one_entry_per_hot_done_task_through_rewrites_and_deletes() throws Exception {
+        tiered = open(Duration.ofHours(1), 10);
+        for (int i = 0; i < 100; i++) {
+            tiered.save(new Task("a", "A" + i, null, TaskStatus.DONE, BASE, i));
+            Task b = new Task("b" + i, "B", null, TaskStatus.DONE, BASE);
+            tiered.save(b);
+            if (i % 2 == 0) tiered.deleteById(b.getId());
+            else assertTrue(tiered.replace(b, b.withStatus(TaskStatus.PENDING).withVersion(b.getVersion() + 1)));
+        }
+        assertEquals(1, tiered.doneCount());
+
+        tiered.save(new Task("c", "C", null, TaskStatus.DONE, BASE));
+        clock.advance(Duration.ofHours(2));
+        assertEquals(2, tiered.evict());
+        assertEquals(0, tiered.doneCount());
+        Task c = tiered.findById("c").orElseThrow();
+        assertTrue(tiered.replace(c, c.withTitle("C2").withVersion(c.getVersion() + 1)));
+        assertEquals(1, tiered.doneCount());
+    }
+
+    @Test
+    void reads_match_a_single_store_across_tiers() throws Exception {
+        tiered = open(Duration.ZERO, 50);
+        InMemoryTaskRepository reference = new InMemoryTaskRepository();
+        Random random = new Random(7);
+        String[] words = {"alpha", "beta", "gamma", "delta"};
+        List<String> ids = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            for (int op = 0; op < 300; op++) {
+                if (ids.isEmpty() || random.nextInt(10) < 6) {
+                    String id = UUID.randomUUID().toString();
+                    ids.add(id);
+                    Task task = new Task(id, words[random.nextInt(4)] + " " + op,
+                            random.nextBoolean() ? null : words[random.nextInt(4)],
+                            random.nextInt(10) < 7 ? TaskStatus.DONE : TaskStatus.values()[random.nextInt(3)],
+                            random.nextInt(20) == 0 ? null : BASE.plusDays(random.nextInt(60)));
+                    tiered.save(task);
+                    reference.save(task);
+                } else if (random.nextInt(4) == 0) {
+                    String id = ids.get(random.nextInt(ids.size()));
+                    tiered.deleteById(id);
+                    reference.deleteById(id);
+                } else {
+                    Task current = reference.findById(ids.get(random.nextInt(ids.size()))).orElse(null);
+                    if (current == null) continue;
+                    Task updated = current.withStatus(TaskStatus.values()[random.nextInt(3)]);
+                    assertTrue(tiered.replace(tiered.findById(current.getId()).orElseThrow(), updated));
+                    assertTrue(reference.replace(current, updated));
+                }
+            }
+            tiered.evict();
+            assertSameReads(reference, random);
+        }
+        assertTrue(tiered.coldCount() > 0);
+        assertEquals(reference.findAll(PageRequest.of(0, 1)).getTotalElements(), tiered.hotCount() + tiered.coldCount());
+    }
+
+    private void assertSameReads(InMemoryTaskRepository reference, Random random) {
+        long total = reference.findAll(PageRequest.of(0, 1)).getTotalElements();
+        for (Sort sort : List.of(Sort.by("dueDate"), Sort.by("dueDate").descending(), Sort.by("title"))) {
+            assertSameRows(toList(reference.findAll(sort)), toList(tiered.findAll(sort)));
+            for (int page = 0; page < 4; page++) {
+                int size = 1 + random.nextInt(40);
+                int offset = random.nextInt((int) total + 1);
+                PageRequest request = PageRequest.of(offset / size, size, sort);
+                assertSameRows(reference.findAll(request).getContent(), tiered.findAll(request).getContent());
+                assertEquals(total, tiered.findAll(request).getTotalElements());
+                for (TaskStatus status : TaskStatus.values()) {
+                    assertSameRows(reference.findByStatus(status, request).getContent(),
+                            tiered.findByStatus(status, request).getContent());
+                }
+            }
+        }
+        for (TaskStatus status : new TaskStatus[]{null, TaskStatus.DONE}) {
+            KeysetScrollPosition expectedAt = ScrollPosition.keyset(), actualAt = expectedAt;
+            while (true) {
+                Window<Task> expected = reference.findByStatusAfter(status, expectedAt, 25);
+                Window<Task> actual = tiered.findByStatusAfter(status, actualAt, 25);
+                assertSameRows(expected.getContent(), actual.getContent());
+                assertEquals(expected.hasNext(), actual.hasNext());
+                if (!expected.hasNext()) break;
+                expectedAt = (KeysetScrollPosition) expected.positionAt(expected.size() - 1);
+                actualAt = (KeysetScrollPosition) actual.positionAt(actual.size() - 1);
+            }
+            for (String query : List.of("alpha", "beta gamma")) {
+                PageRequest request = PageRequest.of(random.nextInt(3), 10);
+                assertSameRows(reference.search(query, status, request).getContent(),
+                        tiered.search(query, status, request).getContent());
+            }
+        }
+        assertEquals(reference.statistics(BASE.plusDays(20), BASE.plusDays(27)),
+                tiered.statistics(BASE.plusDays(20), BASE.plusDays(27)));
+    }
+
+    private TieredTaskRepository open(Duration coldAfter, int cacheSize) throws IOException {
+        return TieredTaskRepository.open(dir, coldAfter, cacheSize, Duration.ZERO, clock);
+    }
+
+    private static void assertSameRows(List<Task> expected, List<Task> actual) {
+        assertEquals(expected.stream().map(TieredTaskRepositoryTest::describe).toList(),
+                actual.stream().map(TieredTaskRepositoryTest::describe).toList());
+    }
+
+    private static String describe(Task t) {
+        return t.getId() + "|" + t.getTitle() + "|" + t.getDescription() + "|" + t.getStatus() + "|" + t.getDueDate()
+                + "|" + t.getVersion();
+    }
+
+    private static List<Task> toList(Iterable<Task> tasks) {
+        List<Task> list = new ArrayList<>();
+        tasks.forEach(list::add);
+        return list;
+    }
+
+    private static final class TestClock extends Clock {
+        Instant now = Instant.parse("2030-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.task.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.example.task.repository.InMemoryTaskRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writes_every_event_from_concurrent_producers_across_rotated_files() throws Exception {
+        int producers = 4, perProducer = 5_000;
+        try (AuditLog log = new AuditLog(dir, 64, AuditLog.Overflow.BLOCK, 64 * 1024, 100)) {
+            log.start();
+            ExecutorService pool = Executors.newFixedThreadPool(producers);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        assertTrue(log.access(producer + "-" + i, "GET", "/tasks/\"" + i + "\"", 200, 1_500));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+            pool.shutdown();
+        }
+        Set<String> ids = new HashSet<>();
+        List<Path> files = files("access");
+        assertTrue(files.size() > 1, "expected rotation, got " + files);
+        for (Path file : files) {
+            assertTrue(Files.size(file) <= 64 * 1024);
+            for (String line : Files.readAllLines(file)) {
+                JsonNode event = mapper.readTree(line);
+                assertTrue(event.get("path").asText().startsWith("/tasks/\""));
+                assertEquals(1, event.get("durationMicros").asInt());
+                assertTrue(ids.add(event.get("correlationId").asText()), "written twice: " + line);
+            }
+        }
+        assertEquals(producers * perProducer, ids.size());
+    }
+
+    @Test
+    void drop_counts_what_does_not_fit_and_block_waits_for_the_writer() throws Exception {
+        AuditLog dropping = new AuditLog(dir.resolve("drop"), 8, AuditLog.Overflow.DROP, 1 << 20, 1);
+        for (int i = 0; i < 10; i++) dropping.access("c" + i, "GET", "/tasks", 200, 0);
+        assertEquals(8, dropping.pending());
+        assertEquals(2, dropping.droppedCount());
+        dropping.start();
+        dropping.close();
+        assertEquals(8, Files.readAllLines(dir.resolve("drop/access.log")).size());
+
+        try (AuditLog blocking = new AuditLog(dir.resolve("block"), 8, AuditLog.Overflow.BLOCK, 1 << 20, 1)) {
+            for (int i = 0; i < 8; i++) blocking.access("c" + i, "GET", "/tasks", 200, 0);
+            CompletableFuture<Boolean> ninth = CompletableFuture.supplyAsync(
+                    () -> blocking.access("c8", "GET", "/tasks", 200, 0));
+            Thread.sleep(100);
+            assertFalse(ninth.isDone());
+            blocking.start();
+            assertTrue(ninth.get(10, TimeUnit.SECONDS));
+            assertEquals(0, blocking.droppedCount());
+        }
+        assertEquals(9, Files.readAllLines(dir.resolve("block/access.log")).size());
+    }
+
+    @Test
+    void block_still_drops_audit_events_so_writers_never_wait() throws Exception {
+        try (AuditLog blocking = new AuditLog(dir, 8, AuditLog.Overflow.BLOCK, 1 << 20, 1)) {
+            for (int i = 0; i < 8; i++) blocking.access("c" + i, "GET", "/tasks", 200, 0);
+            blocking.changed(null, new Task("a", "A", null, TaskStatus.PENDING, LocalDate.now().plusDays(1)));
+            assertEquals(1, blocking.droppedCount());
+            assertEquals(8, blocking.pending());
+        }
+    }
+
+    @Test
+    void audits_changes_with_the_correlation_id_of_the_request() throws Exception {
+        InMemoryTaskRepository repo = new InMemoryTaskRepository();
+        TaskService service = new TaskService(repo);
+        Task task;
+        try (AuditLog log = new AuditLog(dir, 16, AuditLog.Overflow.DROP, 1 << 20, 1)) {
+            repo.addChangeListener(log);
+            log.start();
+            MDC.put(AuditLog.CORRELATION_ID, "req-1");
+            try {
+                task = service.create("A", null, TaskStatus.PENDING, LocalDate.now().plusDays(1));
+                service.update(task.getId(), null, null, TaskStatus.DONE, null);
+            } finally {
+                MDC.remove(AuditLog.CORRELATION_ID);
+            }
+            service.delete(task.getId());
+        }
+
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : Files.readAllLines(dir.resolve("audit.log"))) events.add(mapper.readTree(line));
+        assertEquals(List.of("CREATED", "UPDATED", "DELETED"), events.stream().map(e -> e.get("action").asText()).toList());
+        assertEquals(List.of(0, 1, 1), events.stream().map(e -> e.get("version").asInt()).toList());
+        assertTrue(events.stream().allMatch(e -> e.get("id").asText().equals(task.getId())));
+        assertEquals("req-1", events.get(1).get("correlationId").asText());
+        assertNull(events.get(2).get("correlationId"));
+    }
+
+    private List<Path> files(String name) throws IOException {
+        try (var stream = Files.list(dir)) {
+            return stream.filter(p -> p.getFileName().toString().startsWith(name + ".")).sorted().toList();
+        }
+    }
+}
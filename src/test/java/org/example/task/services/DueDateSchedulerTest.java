@@ -0,0 +1,144 @@
+package org.example.task.services;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.example.task.repository.InMemoryTaskRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.time.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DueDateSchedulerTest {
+    private final TestClock clock = new TestClock(LocalDate.of(2030, 1, 1));
+    private final List<String> due = new ArrayList<>();
+    private final List<String> overdue = new ArrayList<>();
+    private final DueDateScheduler scheduler = new DueDateScheduler(clock, new DueDateScheduler.Listener() {
+        @Override
+        public void onDue(List<Task> tasks) {
+            tasks.forEach(t -> due.add(t.getId() + "@" + clock.date));
+        }
+
+        @Override
+        public void onOverdue(List<Task> tasks) {
+            tasks.forEach(t -> overdue.add(t.getId() + "@" + clock.date));
+        }
+    });
+
+    @Test
+    void follows_repository_writes() {
+        InMemoryTaskRepository repo = new InMemoryTaskRepository();
+        repo.addChangeListener(scheduler);
+        TaskService service = new TaskService(repo);
+        LocalDate start = clock.date;
+        Task a = service.create("A", null, TaskStatus.PENDING, start.plusDays(2));
+        Task b = service.create("B", null, TaskStatus.PENDING, start.plusDays(2));
+        Task c = service.create("C", null, TaskStatus.PENDING, start.plusDays(3));
+        service.update(b.getId(), null, null, TaskStatus.DONE, null);
+        service.update(c.getId(), null, null, null, start.plusDays(5));
+
+        clock.date = start.plusDays(2);
+        scheduler.advance();
+        assertEquals(List.of(a.getId() + "@" + start.plusDays(2)), due);
+        service.update(a.getId(), "renamed", null, TaskStatus.IN_PROGRESS, null);
+        clock.date = start.plusDays(3);
+        scheduler.advance();
+        assertEquals(List.of(a.getId() + "@" + start.plusDays(3)), overdue);
+        assertEquals(1, due.size(), "edits that keep the due date do not fire again");
+
+        service.delete(c.getId());
+        clock.date = start.plusDays(10);
+        scheduler.advance();
+        assertEquals(1, due.size());
+        assertEquals(1, overdue.size());
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test
+    void seeding_skips_tasks_changed_after_registration() {
+        LocalDate start = clock.date;
+        Task kept = new Task("kept", "K", null, TaskStatus.PENDING, start.plusDays(1));
+        Task deleted = new Task("deleted", "D", null, TaskStatus.PENDING, start.plusDays(1));
+        Task moved = new Task("moved", "M", null, TaskStatus.PENDING, start.plusDays(1));
+        InMemoryTaskRepository repo = new InMemoryTaskRepository() {
+            @Override
+            public Window<Task> findByStatusAfter(TaskStatus status, KeysetScrollPosition position, int limit) {
+                Window<Task> window = super.findByStatusAfter(status, position, limit);
+                // Writes land after the chunk was read but before the scheduler sees it
+                if (position.isInitial()) {
+                    deleteById(deleted.getId());
+                    save(moved.withDueDate(start.plusDays(4)));
+                }
+                return window;
+            }
+        };
+        repo.saveAll(List.of(kept, deleted, moved));
+
+        scheduler.follow(repo);
+        assertEquals(2, scheduler.pending());
+        clock.date = start.plusDays(1);
+        scheduler.advance();
+        assertEquals(List.of("kept@" + start.plusDays(1)), due);
+        clock.date = start.plusDays(4);
+        scheduler.advance();
+        assertEquals(List.of("kept@" + start.plusDays(1), "moved@" + start.plusDays(4)), due);
+    }
+
+    @Test
+    void fires_each_task_once_on_its_day_across_jumps() {
+        Random random = new Random(3);
+        LocalDate start = clock.date;
+        Map<String, LocalDate> dueDates = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Spread over ~30 years so timers start in the first three wheels, a few already past
+            LocalDate dueDate = start.plusDays(random.nextInt(11_000) - 50);
+            dueDates.put("t" + i, dueDate);
+            scheduler.changed(null, new Task("t" + i, "T", null, TaskStatus.PENDING, dueDate));
+        }
+        LocalDate end = start.plusDays(11_000);
+        TreeSet<LocalDate> ticks = new TreeSet<>();
+        while (clock.date.isBefore(end)) {
+            clock.date = clock.date.plusDays(1 + random.nextInt(random.nextInt(10) == 0 ? 500 : 3));
+            ticks.add(clock.date);
+            scheduler.advance();
+        }
+        Map<String, String> expectedDue = new HashMap<>();
+        Map<String, String> expectedOverdue = new HashMap<>();
+        dueDates.forEach((id, dueDate) -> {
+            // Each event fires at the first advance on or after its day
+            if (!dueDate.isBefore(start)) expectedDue.put(id, id + "@" + ticks.ceiling(dueDate));
+            expectedOverdue.put(id, id + "@" + ticks.ceiling(dueDate.plusDays(1)));
+        });
+        assertEquals(new TreeSet<>(expectedDue.values()), new TreeSet<>(due));
+        assertEquals(expectedDue.size(), due.size());
+        assertEquals(new TreeSet<>(expectedOverdue.values()), new TreeSet<>(overdue));
+        assertEquals(expectedOverdue.size(), overdue.size());
+        assertEquals(0, scheduler.pending());
+    }
+
+    private static final class TestClock extends Clock {
+        LocalDate date;
+
+        TestClock(LocalDate date) {
+            this.date = date;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.example.task.services;
+
+import org.example.task.domain.NotFoundException;
+import org.example.task.domain.ReadOnlyReplicaException;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.example.task.repository.InMemoryTaskRepository;
+import org.example.task.repository.ReadOnlyTaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationTest {
+    private final InMemoryTaskRepository leaderStore = new InMemoryTaskRepository();
+    private final TaskService leader = new TaskService(leaderStore);
+    private final List<Closeable> open = new ArrayList<>();
+
+    @AfterEach
+    void closeAll() throws IOException {
+        for (Closeable c : open) c.close();
+    }
+
+    @Test
+    void followers_converge_on_concurrent_leader_writes() throws Exception {
+        for (int i = 0; i < 500; i++) leader.create("before " + i, null, TaskStatus.PENDING, LocalDate.now().plusDays(1 + i % 30));
+        TaskChangeFeed feed = feed(1 << 16);
+        ReplicationServer server = lead(feed, 0);
+        List<InMemoryTaskRepository> stores = new ArrayList<>();
+        List<ReplicationFollower> followers = new ArrayList<>();
+        for (int f = 0; f < 3; f++) {
+            InMemoryTaskRepository store = new InMemoryTaskRepository();
+            stores.add(store);
+            followers.add(follow(store, server));
+        }
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            futures.add(writers.submit(() -> randomWrites(2_000)));
+        }
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        writers.shutdown();
+        for (int f = 0; f < followers.size(); f++) {
+            awaitCaughtUp(followers.get(f), feed);
+            assertSameTasks(leaderStore, stores.get(f));
+        }
+        assertEquals(3, server.followers());
+
+        TaskService followerService = new TaskService(new ReadOnlyTaskRepository(stores.get(0), "read-only"));
+        Task any = leaderStore.findAll(PageRequest.of(0, 1)).getContent().get(0);
+        assertEquals(any.getTitle(), followerService.get(any.getId()).getTitle());
+        assertThrows(ReadOnlyReplicaException.class, () -> followerService.create("x", null, null, LocalDate.now().plusDays(1)));
+        assertThrows(ReadOnlyReplicaException.class, () -> followerService.delete(any.getId()));
+    }
+
+    @Test
+    void follower_catches_up_after_restarts() throws Exception {
+        TaskChangeFeed feed = feed(256);
+        ReplicationServer server = lead(feed, 0);
+        InMemoryTaskRepository store = new InMemoryTaskRepository();
+        ReplicationFollower follower = follow(store, server);
+        randomWrites(200);
+        awaitCaughtUp(follower, feed);
+        assertSameTasks(leaderStore, store);
+
+        // The follower process restarts: empty memory, so it loads a snapshot of what it missed
+        follower.close();
+        randomWrites(300);
+        InMemoryTaskRepository restarted = new InMemoryTaskRepository();
+        follower = follow(restarted, server);
+        awaitCaughtUp(follower, feed);
+        assertSameTasks(leaderStore, restarted);
+
+        // The leader's replication port restarts on the same feed: the follower resumes from its position
+        server.close();
+        randomWrites(50);
+        int port = server.port();
+        server = rebind(feed, port);
+        long resumedFrom = follower.position();
+        awaitCaughtUp(follower, feed);
+        assertSameTasks(leaderStore, restarted);
+        assertTrue(resumedFrom > 0);
+
+        // Cut off for longer than the feed holds: the leader falls back to a snapshot, which also drops deleted tasks
+        server.close();
+        randomWrites(2_000);
+        server = rebind(feed, port);
+        awaitCaughtUp(follower, feed);
+        assertSameTasks(leaderStore, restarted);
+    }
+
+    private TaskChangeFeed feed(int capacity) {
+        TaskChangeFeed feed = new TaskChangeFeed(capacity);
+        leaderStore.addChangeListener(feed);
+        return feed;
+    }
+
+    private void randomWrites(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            List<Task> some = leaderStore.findAll(PageRequest.of(random.nextInt(20), 10)).getContent();
+            int op = random.nextInt(10);
+            if (some.isEmpty() || op < 4) {
+                leader.create("t" + random.nextInt(1_000), "d", TaskStatus.PENDING, LocalDate.now().plusDays(1 + random.nextInt(100)));
+                continue;
+            }
+            Task t = some.get(random.nextInt(some.size()));
+            try {
+                if (op < 8) {
+                    leader.update(t.getId(), "u" + random.nextInt(1_000), null, TaskStatus.values()[random.nextInt(3)], null);
+                } else {
+                    leader.delete(t.getId());
+                }
+            } catch (NotFoundException deletedMeanwhile) {
+                // Another writer deleted it first
+            }
+        }
+    }
+
+    private ReplicationServer rebind(TaskChangeFeed feed, int port) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return lead(feed, port);
+            } catch (BindException e) {
+                // The follower's reconnect attempts can briefly hold the (ephemeral) port
+                if (attempt == 50) throw e;
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private ReplicationServer lead(TaskChangeFeed feed, int port) throws IOException {
+        ReplicationServer server = open(new ReplicationServer(feed, leaderStore, port));
+        server.start();
+        return server;
+    }
+
+    private ReplicationFollower follow(InMemoryTaskRepository store, ReplicationServer server) {
+        ReplicationFollower follower = open(new ReplicationFollower(store, new InetSocketAddress("localhost", server.port())));
+        follower.start();
+        return follower;
+    }
+
+    private <T extends Closeable> T open(T closeable) {
+        open.add(closeable);
+        return closeable;
+    }
+
+    private static void awaitCaughtUp(ReplicationFollower follower, TaskChangeFeed feed) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (follower.position() < feed.latest() || follower.lag() > 0 || !follower.connected()) {
+            assertTrue(System.nanoTime() < deadline, "follower stuck at " + follower.position() + " of " + feed.latest());
+            Thread.sleep(10);
+        }
+    }
+
+    private static void assertSameTasks(InMemoryTaskRepository expected, InMemoryTaskRepository actual) {
+        assertEquals(describe(expected), describe(actual));
+    }
+
+    private static List<String> describe(InMemoryTaskRepository store) {
+        List<String> rows = new ArrayList<>();
+        for (Task t : store.findAll(Sort.unsorted())) {
+            rows.add(t.getId() + "|" + t.getTitle() + "|" + t.getStatus() + "|" + t.getDueDate() + "|" + t.getVersion());
+        }
+        Collections.sort(rows);
+        return rows;
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.task.services;
+
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.example.task.repository.InMemoryTaskRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskChangeFeedTest {
+    private final TaskChangeFeed feed = new TaskChangeFeed(8);
+    private final InMemoryTaskRepository repo = new InMemoryTaskRepository();
+    private final TaskService service = new TaskService(repo);
+
+    TaskChangeFeedTest() {
+        repo.addChangeListener(feed);
+    }
+
+    @Test
+    void numbers_changes_and_resumes_from_any_held_sequence() {
+        Task task = service.create("A", null, TaskStatus.PENDING, LocalDate.now().plusDays(1));
+        service.update(task.getId(), null, null, TaskStatus.DONE, null);
+        service.delete(task.getId());
+        TaskChangeFeed.Read all = feed.read(0, 10);
+        assertFalse(all.behind());
+        assertEquals(List.of(TaskChangeFeed.Type.CREATED, TaskChangeFeed.Type.UPDATED, TaskChangeFeed.Type.DELETED),
+                all.changes().stream().map(TaskChangeFeed.Change::type).toList());
+        assertEquals(TaskStatus.DONE, all.changes().get(2).task().getStatus());
+        assertEquals(List.of(3L), feed.read(2, 10).changes().stream().map(TaskChangeFeed.Change::sequence).toList());
+        assertEquals(List.of(2L), feed.read(1, 1).changes().stream().map(TaskChangeFeed.Change::sequence).toList());
+        assertTrue(feed.read(3, 10).changes().isEmpty());
+    }
+
+    @Test
+    void lapped_reader_is_told_to_resync() {
+        for (int i = 0; i < 20; i++) service.create("T" + i, null, TaskStatus.PENDING, LocalDate.now().plusDays(1));
+        assertEquals(20, feed.latest());
+        assertEquals(13, feed.oldest());
+        assertTrue(feed.read(5, 10).behind());
+        assertEquals(8, feed.read(12, 10).changes().size());
+    }
+
+    @Test
+    void await_wakes_on_the_next_change() throws Exception {
+        assertFalse(feed.await(0, Duration.ofMillis(20)));
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> feed.await(0, Duration.ofSeconds(30)));
+        Thread.sleep(50);
+        service.create("A", null, TaskStatus.PENDING, LocalDate.now().plusDays(1));
+        assertTrue(waiting.get(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.task.services;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.task.domain.Task;
+import org.example.task.domain.TaskStatus;
+import org.example.task.repository.InMemoryTaskRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskImporterTest {
+    private final InMemoryTaskRepository repo = new InMemoryTaskRepository();
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final TaskImporter importer = new TaskImporter(repo, mapper, 4);
+
+    @Test
+    void imports_ndjson_across_chunks_and_reports_bad_lines() throws Exception {
+        LocalDate due = LocalDate.now().plusDays(3);
+        StringBuilder input = new StringBuilder();
+        for (int i = 1; i <= 12_000; i++) {
+            if (i % 1000 == 0) input.append("{\"title\":\"\",\"dueDate\":\"").append(due).append("\"}\n");
+            else if (i == 7) input.append("{not json\n");
+            else input.append("{\"title\":\"T").append(i).append("\",\"status\":\"DONE\",\"dueDate\":\"").append(due).append("\"}\n");
+        }
+        List<TaskImporter.Progress> progress = new CopyOnWriteArrayList<>();
+        TaskImporter.Report report = importer.importTasks(stream(input.toString()), TaskImporter.Format.NDJSON, progress::add);
+        assertEquals(12_000, report.linesProcessed());
+        assertEquals(11_987, report.imported());
+        assertEquals(13, report.failed());
+        assertEquals(7, report.errors().get(0).line());
+        assertEquals(1000, report.errors().get(1).line());
+        assertEquals("title is required", report.errors().get(1).error());
+        assertEquals(3, progress.size());
+        assertEquals(11_987, repo.findByStatus(TaskStatus.DONE, PageRequest.of(0, 1)).getTotalElements());
+    }
+
+    @Test
+    void imports_csv_with_quoted_fields_and_any_column_order() throws Exception {
+        LocalDate due = LocalDate.now().plusDays(3);
+        String csv = "due_date,title,description,id\n"
+                + due + ",\"Plan, then \"\"ship\"\"\",desc,keep-me\n"
+                + "yesterday,Bad,x,\n"
+                + LocalDate.now().minusDays(1) + ",Past,x,\n";
+        TaskImporter.Report report = importer.importTasks(stream(csv), TaskImporter.Format.CSV, p -> {});
+        assertEquals(1, report.imported());
+        assertEquals(List.of(3L, 4L), report.errors().stream().map(TaskImporter.LineError::line).toList());
+        Task task = repo.findById("keep-me").orElseThrow();
+        assertEquals("Plan, then \"ship\"", task.getTitle());
+        assertEquals(TaskStatus.PENDING, task.getStatus());
+    }
+
+    @Test
+    void lines_naming_a_taken_id_fail_and_leave_the_stored_task_alone() throws Exception {
+        LocalDate due = LocalDate.now().plusDays(3);
+        repo.save(new Task("taken", "Stored", null, TaskStatus.IN_PROGRESS, due, 4));
+        String csv = "id,title,dueDate\n"
+                + "taken,Imported," + due + "\n"
+                + "fresh,First," + due + "\n"
+                + "fresh,Second," + due + "\n";
+        TaskImporter.Report report = importer.importTasks(stream(csv), TaskImporter.Format.CSV, p -> {});
+        assertEquals(1, report.imported());
+        assertEquals(List.of(new TaskImporter.LineError(2, "id already exists: taken"),
+                new TaskImporter.LineError(4, "id already exists: fresh")), report.errors());
+        Task stored = repo.findById("taken").orElseThrow();
+        assertEquals("Stored", stored.getTitle());
+        assertEquals(4, stored.getVersion());
+        assertEquals("First", repo.findById("fresh").orElseThrow().getTitle());
+    }
+
+    @Test
+    void csv_without_required_columns_is_rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importer.importTasks(stream("name,when\n"), TaskImporter.Format.CSV, p -> {}));
+    }
+
+    private static ByteArrayInputStream stream(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,15 +1,29 @@
 package org.example.task.services;
 
+import org.example.task.domain.ConflictException;
 import org.example.task.domain.NotFoundException;
+import org.example.task.domain.PreconditionFailedException;
 import org.example.task.domain.Task;
 import org.example.task.domain.TaskStatus;
 import org.example.task.repository.InMemoryTaskRepository;
 import org.example.task.repository.TaskRepository;
+import org.example.task.repository.TaskStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -60,6 +74,70 @@ class TaskServiceTest {
         assertEquals(TaskStatus.DONE, updated.getStatus());
     }
 
+    @Test
+    void update_installs_next_version_and_rejects_stale_expected_version() {
+        Task created = service.create("T", "D", TaskStatus.PENDING, LocalDate.now().plusDays(2));
+        Task updated = service.update(created.getId(), "T2", null, null, null, created.getVersion());
+        assertEquals(created.getVersion() + 1, updated.getVersion());
+        assertEquals("T", created.getTitle());
+        assertThrows(PreconditionFailedException.class, () ->
+            service.update(created.getId(), "T3", null, null, null, created.getVersion()));
+        assertEquals("T2", service.get(created.getId()).getTitle());
+    }
+
+    @Test
+    void concurrent_updates_are_never_lost() throws Exception {
+        Task created = service.create("T", null, TaskStatus.PENDING, LocalDate.now().plusDays(2));
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(() -> {
+                for (int j = 0; j < perThread; j++) service.update(created.getId(), null, "d" + j, null, null);
+            }));
+        }
+        for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+        assertEquals(created.getVersion() + threads * perThread, service.get(created.getId()).getVersion());
+    }
+
+    @Test
+    void statistics_stay_exact_under_concurrent_updates_and_deletes() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            ids.add(service.create("T" + i, null, TaskStatus.PENDING, LocalDate.now().plusDays(1 + i % 20)).getId());
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            int worker = w;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 300; i++) {
+                    String id = ids.get((i * 7 + worker * 13) % ids.size());
+                    try {
+                        if (i % 25 == worker) service.delete(id);
+                        else service.update(id, null, null, TaskStatus.values()[(i + worker) % 3], null);
+                    } catch (NotFoundException deleted) {
+                        // another worker removed it first
+                    }
+                }
+            }));
+        }
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+        TaskStatistics stats = service.statistics(7);
+        long[] byStatus = new long[3];
+        long dueSoon = 0;
+        for (Task t : repo.findAll(Sort.by("dueDate"))) {
+            byStatus[t.getStatus().ordinal()]++;
+            if (t.getStatus() != TaskStatus.DONE && t.getDueDate().isBefore(LocalDate.now().plusDays(7))) dueSoon++;
+        }
+        for (TaskStatus status : TaskStatus.values()) assertEquals(byStatus[status.ordinal()], stats.byStatus().get(status));
+        assertEquals(0, stats.overdue());
+        assertEquals(dueSoon, stats.dueSoon());
+    }
+
     @Test
     void update_task_not_found() {
         assertThrows(NotFoundException.class, () ->
@@ -87,5 +165,103 @@ class TaskServiceTest {
         assertEquals(2, page.getTotalElements());
         assertTrue(page.getContent().stream().allMatch(t -> t.getStatus() == TaskStatus.PENDING));
     }
-}
 
+    @Test
+    void getTasks_status_filter_pages_are_full_and_counts_exact() {
+        for (int i = 0; i < 10; i++) {
+            service.create("T" + i, null, i % 2 == 0 ? TaskStatus.DONE : TaskStatus.PENDING, LocalDate.now().plusDays(i + 1));
+        }
+        Page<Task> second = service.getTasks(TaskStatus.DONE, 1, 2);
+        assertEquals(5, second.getTotalElements());
+        assertEquals(2, second.getContent().size());
+        assertEquals("T4", second.getContent().get(0).getTitle());
+        assertEquals("T6", second.getContent().get(1).getTitle());
+    }
+
+    @Test
+    void getTasks_status_filter_follows_status_update() {
+        Task created = service.create("T", "D", TaskStatus.PENDING, LocalDate.now().plusDays(2));
+        service.update(created.getId(), null, null, TaskStatus.DONE, null);
+        assertEquals(0, service.getTasks(TaskStatus.PENDING, 0, 10).getTotalElements());
+        Page<Task> done = service.getTasks(TaskStatus.DONE, 0, 10);
+        assertEquals(1, done.getTotalElements());
+        assertEquals(created.getId(), done.getContent().get(0).getId());
+    }
+
+    @Test
+    void scrollTasks_walks_every_row_once_despite_inserts() {
+        for (int i = 0; i < 7; i++) service.create("T" + i, null, TaskStatus.PENDING, LocalDate.now().plusDays(i + 2));
+        List<String> seen = new ArrayList<>();
+        Window<Task> window = service.scrollTasks(null, ScrollPosition.keyset(), 3);
+        seen.addAll(window.stream().map(Task::getTitle).toList());
+        // Inserted ahead of the cursor: must not shift the remaining pages
+        service.create("early", null, TaskStatus.PENDING, LocalDate.now().plusDays(1));
+        while (window.hasNext()) {
+            window = service.scrollTasks(null, (KeysetScrollPosition) window.positionAt(window.size() - 1), 3);
+            seen.addAll(window.stream().map(Task::getTitle).toList());
+        }
+        assertEquals(List.of("T0", "T1", "T2", "T3", "T4", "T5", "T6"), seen);
+    }
+
+    @Test
+    void applyBatch_reports_per_item_results_and_applies_survivors() {
+        Task existing = service.create("T", "D", TaskStatus.PENDING, LocalDate.now().plusDays(2));
+        Task doomed = service.create("X", null, TaskStatus.PENDING, LocalDate.now().plusDays(2));
+        LocalDate due = LocalDate.now().plusDays(5);
+        List<TaskService.BatchResult> results = service.applyBatch(List.of(
+                new TaskService.BatchOperation(TaskService.BatchOperation.Type.CREATE, null, "new", null, null, due),
+                new TaskService.BatchOperation(TaskService.BatchOperation.Type.CREATE, null, null, null, null, due),
+                new TaskService.BatchOperation(TaskService.BatchOperation.Type.UPDATE, existing.getId(), null, null, TaskStatus.DONE, null),
+                new TaskService.BatchOperation(TaskService.BatchOperation.Type.UPDATE, existing.getId(), "T2", null, null, LocalDate.now().minusDays(1)),
+                new TaskService.BatchOperation(TaskService.BatchOperation.Type.DELETE, doomed.getId(), null, null, null, null),
+                new TaskService.BatchOperation(TaskService.BatchOperation.Type.DELETE, doomed.getId(), null, null, null, null)));
+        assertEquals("new", results.get(0).task().getTitle());
+        assertInstanceOf(IllegalArgumentException.class, results.get(1).error());
+        assertEquals(TaskStatus.DONE, results.get(2).task().getStatus());
+        assertInstanceOf(IllegalArgumentException.class, results.get(3).error());
+        assertNull(results.get(4).error());
+        assertInstanceOf(NotFoundException.class, results.get(5).error());
+
+        assertEquals("new", service.get(results.get(0).task().getId()).getTitle());
+        Task updated = service.get(existing.getId());
+        assertEquals(TaskStatus.DONE, updated.getStatus());
+        assertEquals("T", updated.getTitle());
+        assertThrows(NotFoundException.class, () -> service.get(doomed.getId()));
+    }
+
+    @Test
+    void applyBatch_reports_conflict_instead_of_overwriting_a_concurrent_update() {
+        Task raced = service.create("T", null, TaskStatus.PENDING, LocalDate.now().plusDays(2));
+        Task other = service.create("O", null, TaskStatus.PENDING, LocalDate.now().plusDays(2));
+        // A PUT that commits after the batch read the task but before it wrote it
+        TaskService racing = new TaskService(new InMemoryTaskRepository() {
+            private boolean raceDone;
+
+            {
+                saveAll(List.of(raced, other));
+            }
+
+            @Override
+            public Optional<Task> findById(String id) {
+                Optional<Task> found = super.findById(id);
+                if (!raceDone && id.equals(raced.getId())) {
+                    raceDone = true;
+                    save(found.orElseThrow().withTitle("PUT").withVersion(found.get().getVersion() + 1));
+                }
+                return found;
+            }
+        });
+        List<TaskService.BatchResult> results = racing.applyBatch(List.of(
+                new TaskService.BatchOperation(TaskService.BatchOperation.Type.UPDATE, raced.getId(), null, null, TaskStatus.DONE, null),
+                new TaskService.BatchOperation(TaskService.BatchOperation.Type.UPDATE, other.getId(), null, null, TaskStatus.DONE, null),
+                new TaskService.BatchOperation(TaskService.BatchOperation.Type.UPDATE, raced.getId(), "B", null, null, null)));
+        assertInstanceOf(ConflictException.class, results.get(0).error());
+        assertEquals(TaskStatus.DONE, results.get(1).task().getStatus());
+        assertInstanceOf(ConflictException.class, results.get(2).error());
+
+        Task kept = racing.get(raced.getId());
+        assertEquals("PUT", kept.getTitle());
+        assertEquals(TaskStatus.PENDING, kept.getStatus());
+        assertEquals(TaskStatus.DONE, racing.get(other.getId()).getStatus());
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.task.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+    @Test
+    void ids_are_version_7_and_carry_the_clock() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(() -> 0x0123_4567_89ABL, 2);
+        UUID id = generator.next();
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(0x0123_4567_89ABL, id.getMostSignificantBits() >>> 16);
+        String next = generator.newId();
+        assertTrue(next.matches("[0-9a-f]{8}-[0-9a-f]{4}-7[0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}"), next);
+    }
+
+    @Test
+    void ids_strictly_increase_within_a_millisecond_past_sequence_overflow_and_when_the_clock_goes_back() {
+        AtomicLong now = new AtomicLong(1_000);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(now::get, 1);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) ids.add(generator.newId());
+        now.set(900);
+        for (int i = 0; i < 10; i++) ids.add(generator.newId());
+        now.set(5_000);
+        ids.add(generator.newId());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0, "id " + i + " is not after its predecessor");
+            assertEquals(7, UUID.fromString(ids.get(i)).version());
+        }
+        assertEquals(5_000, UUID.fromString(ids.get(ids.size() - 1)).getMostSignificantBits() >>> 16);
+    }
+}